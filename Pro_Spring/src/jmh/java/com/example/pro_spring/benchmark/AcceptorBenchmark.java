@@ -0,0 +1,94 @@
+package com.example.pro_spring.benchmark;
+
+import com.example.pro_spring.cluster.InProcessCluster;
+import com.example.pro_spring.service.PaxosServer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Przepustowosc sciezki acceptora: prepare, accept i odczyt stanu, bez rywalizacji oraz przy
+ * wielu watkach korzystajacych z jednego serwera.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AcceptorBenchmark {
+
+  private static final int FIRST_PORT = 8000;
+  private static final int CLUSTER_SIZE = 8;
+
+  private final AtomicLong ballot = new AtomicLong();
+  private InProcessCluster cluster;
+  private PaxosServer server;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    cluster = new InProcessCluster(FIRST_PORT, CLUSTER_SIZE);
+    server = cluster.node(0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cluster.close();
+  }
+
+  /**
+   * Kolejne numery propozycji. Numer jest przycinany, bo acceptor przechowuje go jako int.
+   */
+  private long nextBallot() {
+    return ballot.incrementAndGet() & 0x3FFFFFFF;
+  }
+
+  @Benchmark
+  public String prepare() {
+    return server.prepare(nextBallot());
+  }
+
+  @Benchmark
+  public String accept() {
+    return server.accept(nextBallot(), 42);
+  }
+
+  @Benchmark
+  public String state() {
+    return server.state();
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(4)
+  public String contendedPrepare() {
+    return server.prepare(nextBallot());
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(4)
+  public String contendedAccept() {
+    return server.accept(ballot.get() & 0x3FFFFFFF, 42);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(2)
+  public String contendedState() {
+    return server.state();
+  }
+}
@@ -0,0 +1,101 @@
+package com.example.pro_spring.benchmark;
+
+import com.example.pro_spring.cluster.InProcessCluster;
+import com.example.pro_spring.model.Promise;
+import com.example.pro_spring.service.PaxosServer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Koszt pracy lidera miedzy fazami: odczyt odpowiedzi PROMISE i wybor wartosci z obietnic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProposerBenchmark {
+
+  private static final int FIRST_PORT = 8000;
+  private static final int CLUSTER_SIZE = 8;
+  private static final MethodHandle CHOOSE_VALUE;
+
+  static {
+    try {
+      CHOOSE_VALUE = MethodHandles.privateLookupIn(PaxosServer.class, MethodHandles.lookup())
+          .findVirtual(PaxosServer.class, "chooseValueFromPromises",
+              MethodType.methodType(int.class, List.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private InProcessCluster cluster;
+  private PaxosServer server;
+  private List<Promise> emptyPromises;
+  private List<Promise> acceptedPromises;
+  private List<Promise> splitPromises;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    cluster = new InProcessCluster(FIRST_PORT, CLUSTER_SIZE);
+    server = cluster.node(0);
+
+    emptyPromises = new ArrayList<>();
+    acceptedPromises = new ArrayList<>();
+    splitPromises = new ArrayList<>();
+    for (int i = 0; i < CLUSTER_SIZE; i++) {
+      emptyPromises.add(new Promise(true, -1, -1));
+      acceptedPromises.add(new Promise(true, 7, 99));
+      splitPromises.add(new Promise(true, i, i % 3));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cluster.close();
+  }
+
+
+  @Benchmark
+  public Promise parsePromiseNone() {
+    return Promise.fromResponse("PROMISE,NONE");
+  }
+
+  @Benchmark
+  public Promise parsePromiseAccepted() {
+    return Promise.fromResponse("PROMISE,123456,99");
+  }
+
+  @Benchmark
+  public int chooseClientValue() throws Throwable {
+    return (int) CHOOSE_VALUE.invokeExact(server, emptyPromises, 42);
+  }
+
+  @Benchmark
+  public int chooseAcceptedValue() throws Throwable {
+    return (int) CHOOSE_VALUE.invokeExact(server, acceptedPromises, 42);
+  }
+
+  @Benchmark
+  public int chooseFromSplitPromises() throws Throwable {
+    return (int) CHOOSE_VALUE.invokeExact(server, splitPromises, 42);
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.pro_spring.benchmark;
+
+import com.example.pro_spring.cluster.InProcessCluster;
+import com.example.pro_spring.service.PaxosServer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Koszt pelnej rundy Paxosa (collectAlive, PREPARE, ACCEPT) na klastrze 8 serwerow w jednej JVM.
+ * Komunikacja odbywa sie przez kanal w pamieci, wiec wynik nie zawiera narzutu HTTP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundBenchmark {
+
+  private InProcessCluster cluster;
+  private PaxosServer leader;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    cluster = new InProcessCluster(8000, 8);
+    leader = cluster.node(0);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cluster.close();
+  }
+
+  @Benchmark
+  public Object fullRound() throws Exception {
+    return leader.startPaxos(42).get();
+  }
+}
@@ -2,13 +2,13 @@ package com.example.pro_spring;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * Glowna klasa startowa aplikacji Spring Boot.
  */
 @SpringBootApplication
-@EnableScheduling
+@ConfigurationPropertiesScan
 public class ProSpringApplication {
 
   /**
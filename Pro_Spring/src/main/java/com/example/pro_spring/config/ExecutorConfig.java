@@ -1,29 +1,93 @@
 package com.example.pro_spring.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 
 /**
- * Konfiguracja puli watkow uzywanej w aplikacji.
- * Klasa definiuje bean ThreadPoolTaskExecutor, ktory jest wykorzystywany do asynchronicznego
- * uruchamiania rund protokolu Paxos.
+ * Konfiguracja pul watkow uzywanych w aplikacji.
+ * Rundy protokolu Paxos dzialaja na puli executor, a wywolania do innych serwerow wysylane w
+ * fazach rundy na osobnej puli rpcExecutor. Runda czeka na odpowiedzi serwerow, wiec gdyby jej
+ * wywolania stawaly w kolejce tej samej puli, rundy zajmujace wszystkie watki czekalyby na
+ * zadania, ktore nigdy nie dostana watku. Ogloszenia lidera i elekcje maja wlasna pule
+ * controlExecutor, aby obciazenie propozycjami nie opoznialo ich i nie wywolywalo elekcji.
  */
 @Configuration
 public class ExecutorConfig {
 
   /**
-   * Tworzy i konfiguruje pule watkow dla zadan asynchronicznych.
+   * Tworzy pule watkow dla rund Paxosa i innych zadan asynchronicznych. Dlugosc kolejki i liczba
+   * aktywnych watkow sa publikowane jako metryki z tagiem pool=rounds.
    *
+   * @param registry rejestr metryk
    * @return skonfigurowany ThreadPoolTaskExecutor
    */
   @Bean
-  public ThreadPoolTaskExecutor executor() {
+  @Primary
+  public ThreadPoolTaskExecutor executor(MeterRegistry registry) {
+    return pool(registry, "rounds", "paxos-");
+  }
+
+  /**
+   * Tworzy pule watkow dla wywolan PREPARE i ACCEPT wysylanych do innych serwerow oraz dla
+   * przekazywania propozycji do lidera. Zadania tej puli nie czekaja na inne zadania, wiec
+   * zawsze koncza sie najpozniej po timeoucie transportu.
+   *
+   * @param registry rejestr metryk
+   * @return skonfigurowany ThreadPoolTaskExecutor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor rpcExecutor(MeterRegistry registry) {
+    return pool(registry, "rpc", "paxos-rpc-");
+  }
+
+  /**
+   * Tworzy pule watkow dla ogloszen lidera, elekcji i ich wywolan do innych serwerow. Pula nie ma
+   * kolejki: kazde zadanie od razu dostaje watek, wiec ogloszenie nie czeka za innymi zadaniami.
+   * Liczba takich zadan jest ograniczona przez liczbe serwerow i grup, a gdyby mimo to zabraklo
+   * watkow, zadanie wykonuje watek, ktory je zlecil.
+   *
+   * @param registry rejestr metryk
+   * @return skonfigurowany ThreadPoolTaskExecutor
+   */
+  @Bean
+  public ThreadPoolTaskExecutor controlExecutor(MeterRegistry registry) {
+    ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
+    exec.setCorePoolSize(4);
+    exec.setMaxPoolSize(64);
+    exec.setQueueCapacity(0);
+    exec.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    exec.setThreadNamePrefix("paxos-control-");
+    exec.initialize();
+    return gauges(registry, exec, "control");
+  }
+
+  private static ThreadPoolTaskExecutor pool(MeterRegistry registry, String name,
+      String threadPrefix) {
     ThreadPoolTaskExecutor exec = new ThreadPoolTaskExecutor();
     exec.setCorePoolSize(16);
     exec.setMaxPoolSize(32);
+    exec.setThreadNamePrefix(threadPrefix);
     exec.initialize();
+    return gauges(registry, exec, name);
+  }
+
+  private static ThreadPoolTaskExecutor gauges(MeterRegistry registry,
+      ThreadPoolTaskExecutor exec, String name) {
+    Gauge.builder("paxos.executor.queue.size", exec,
+            e -> e.getThreadPoolExecutor().getQueue().size())
+        .description("Liczba zadan czekajacych w kolejce executora")
+        .tag("pool", name)
+        .register(registry);
+    Gauge.builder("paxos.executor.active", exec, ThreadPoolTaskExecutor::getActiveCount)
+        .description("Liczba aktywnych watkow executora")
+        .tag("pool", name)
+        .register(registry);
     return exec;
   }
 }
@@ -0,0 +1,45 @@
+package com.example.pro_spring.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sklad klastra Paxosa odczytywany z wlasciwosci paxos.peers. Kazdy wpis ma postac host:port.
+ *
+ * @param peers adresy wszystkich serwerow klastra, razem z biezacym
+ */
+@ConfigurationProperties(prefix = "paxos")
+public record PaxosProperties(List<String> peers) {
+
+  /**
+   * Tworzy konfiguracje i kopiuje liste serwerow.
+   */
+  public PaxosProperties {
+    peers = peers == null ? List.of() : List.copyOf(peers);
+  }
+
+  /**
+   * Tworzy konfiguracje klastra na kolejnych portach localhost.
+   *
+   * @param firstPort port pierwszego serwera
+   * @param size      liczba serwerow
+   * @return konfiguracja klastra
+   */
+  public static PaxosProperties localCluster(int firstPort, int size) {
+    List<String> peers = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      peers.add("localhost:" + (firstPort + i));
+    }
+    return new PaxosProperties(peers);
+  }
+
+  /**
+   * Zwraca adresy HTTP serwerow klastra.
+   *
+   * @return lista adresow w postaci http://host:port
+   */
+  public List<String> urls() {
+    return peers.stream().map(p -> "http://" + p).toList();
+  }
+}
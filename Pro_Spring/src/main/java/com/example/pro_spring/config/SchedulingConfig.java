@@ -0,0 +1,15 @@
+package com.example.pro_spring.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+
+/**
+ * Wlacza zadania okresowe: ogloszenia lidera, sprawdzanie terminow elekcji oraz wysylanie
+ * zebranych zdarzen i sladu protokolu. Osobna klasa konfiguracji nie jest ladowana w testach
+ * warstwy web, wiec zadania okresowe nie wywoluja tam zamockowanego serwera rownolegle z testem.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,108 +1,296 @@
 package com.example.pro_spring.controller;
 
-import static com.example.pro_spring.service.PaxosServer.getLeaderPort;
-
+import com.example.pro_spring.exception.ServerBusyException;
+import com.example.pro_spring.model.ClientRequestId;
+import com.example.pro_spring.service.ClientSessions;
+import com.example.pro_spring.service.PaxosGroups;
 import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.transport.BatchFrame;
 import com.example.pro_spring.util.HttpUtil;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
 /**
  * Kontroler REST obslugujacy endpointy protokolu Paxos.
- * Kontroler deleguje cala logike konsensusu do klasy PaxosServer.
+ * Kontroler deleguje cala logike konsensusu do klasy PaxosServer. Endpointy protokolu oraz
+ * /clear, /clearall i /inject sa dostepne takze z prefiksem /groups/{group} i obsluguja wtedy
+ * wskazana grupe Paxosa; bez prefiksu obsluguja grupe 0. /stuck i /unstuck symuluja awarie
+ * calego wezla, wiec dotycza wszystkich grup.
  */
 @RestController
 public class PaxosController {
 
   private final PaxosServer server;
+  private final PaxosGroups groups;
+  private final ClientSessions sessions;
+  private final long commitTimeoutMs;
+  private final boolean forwardToLeader;
 
   /**
    * Tworzy kontroler Paxosa z wstrzyknietym serwerem.
    *
-   * @param server instancja serwera Paxos
+   * @param server          instancja serwera Paxos (grupa 0)
+   * @param groups          grupy Paxosa uruchomione na tym wezle
+   * @param sessions        tablica deduplikacji zadan klientow
+   * @param commitTimeoutMs domyslny czas oczekiwania na zatwierdzenie propozycji
+   * @param forwardToLeader czy follower ma przekazywac propozycje do lidera zamiast odpowiadac
+   *                        NOT_LEADER
    */
-  public PaxosController(PaxosServer server) {
+  public PaxosController(PaxosServer server, PaxosGroups groups, ClientSessions sessions,
+      @Value("${paxos.client.commit-timeout-ms:5000}") long commitTimeoutMs,
+      @Value("${paxos.client.forward-to-leader:false}") boolean forwardToLeader) {
     this.server = server;
+    this.groups = groups;
+    this.sessions = sessions;
+    this.commitTimeoutMs = commitTimeoutMs;
+    this.forwardToLeader = forwardToLeader;
   }
 
   /**
    * Endpoint kliencki do zglaszania propozycji wartosci.
    * Propozycja moze zostac przyjeta wylacznie przez lidera. Jesli serwer nie jest liderem, zwracany
-   * jest port aktualnego lidera.
+   * jest port aktualnego lidera, a przy wlaczonym paxos.client.forward-to-leader propozycja jest
+   * przekazywana do lidera i zwracana jest jego odpowiedz. Zadanie z clientId i seq jest
+   * deduplikowane przez {@link ClientSessions}: ponowienie do tego samego lidera nie uruchamia
+   * drugiej rundy. Z parametrem key propozycja trafia do grupy, do ktorej nalezy klucz.
+   * Odpowiedz przekazanej propozycji jest wysylana bez blokowania watku serwera HTTP, a lider,
+   * ktory nie odpowie w paxos.client.commit-timeout-ms, daje odpowiedz TIMEOUT. Lider, ktory
+   * prowadzi juz maksymalna liczbe rund, odpowiada BUSY i nie uruchamia rundy.
+   *
+   * @param group     numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @param key       klucz wybierajacy grupe (opcjonalny)
+   * @param value     wartosc proponowana przez klienta
+   * @param forwarded czy zadanie zostalo juz przekazane przez innego serwera
+   * @param clientId  identyfikator klienta (opcjonalny)
+   * @param seq       numer sekwencyjny zadania klienta (opcjonalny)
+   * @return informacja o przyjeciu propozycji, BUSY lub informacja o aktualnym liderze
+   */
+  @PostMapping({"/client_propose", "/groups/{group}/client_propose"})
+  public CompletableFuture<String> propose(@PathVariable(required = false) Integer group,
+      @RequestParam(required = false) String key,
+      @RequestParam Integer value,
+      @RequestParam(defaultValue = "false") boolean forwarded,
+      @RequestParam(required = false) String clientId,
+      @RequestParam(required = false) Long seq) {
+    PaxosServer node = node(group, key);
+    if (node.isStuck()) {
+      return CompletableFuture.completedFuture(node.getStuckMessage());
+    }
+    ClientRequestId id = ClientRequestId.of(clientId, seq);
+    if (node.getLeaderPort() != node.getPort()) {
+      if (!shouldForward(forwarded)) {
+        return CompletableFuture.completedFuture("NOT_LEADER," + node.getLeaderPort());
+      }
+      return node.forwardToLeader(value, false, id)
+          .exceptionally(e -> "FAILED")
+          .completeOnTimeout("TIMEOUT", commitTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+    CompletableFuture<Integer> round = start(node, value, id);
+    if (round == null) {
+      return CompletableFuture.completedFuture("STALE_REQUEST," + seq);
+    }
+    if (round.isCompletedExceptionally()) {
+      return round.handle((chosen, e) -> failure(e));
+    }
+    return CompletableFuture.completedFuture(
+        "OK: proposal started by leader on port " + node.getPort());
+  }
+
+  /**
+   * Endpoint kliencki zglaszajacy propozycje i czekajacy na jej zatwierdzenie. Odpowiedz jest
+   * wysylana dopiero po zakonczeniu rundy, bez blokowania watku serwera HTTP.
    *
+   * @param group     numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @param key       klucz wybierajacy grupe (opcjonalny)
+   * @param value     wartosc proponowana przez klienta
+   * @param timeoutMs maksymalny czas oczekiwania; domyslnie paxos.client.commit-timeout-ms
+   * @param forwarded czy zadanie zostalo juz przekazane przez innego serwera
+   * @param clientId  identyfikator klienta (opcjonalny)
+   * @param seq       numer sekwencyjny zadania klienta (opcjonalny)
+   * @return COMMITTED z wartoscia wybrana przez wiekszosc (moze byc inna niz zaproponowana,
+   *     jesli wczesniej wybrano juz wartosc), FAILED, TIMEOUT, BUSY, STALE_REQUEST albo informacja
+   *     o aktualnym liderze
+   */
+  @PostMapping(value = {"/client_propose", "/groups/{group}/client_propose"},
+      params = "wait=true")
+  public CompletableFuture<String> proposeAndWait(@PathVariable(required = false) Integer group,
+      @RequestParam(required = false) String key,
+      @RequestParam Integer value,
+      @RequestParam(required = false) Long timeoutMs,
+      @RequestParam(defaultValue = "false") boolean forwarded,
+      @RequestParam(required = false) String clientId,
+      @RequestParam(required = false) Long seq) {
+    PaxosServer node = node(group, key);
+    if (node.isStuck()) {
+      return CompletableFuture.completedFuture(node.getStuckMessage());
+    }
+
+    long timeout = timeoutMs != null ? timeoutMs : commitTimeoutMs;
+    ClientRequestId id = ClientRequestId.of(clientId, seq);
+    CompletableFuture<String> result;
+    if (node.getLeaderPort() != node.getPort()) {
+      if (!shouldForward(forwarded)) {
+        return CompletableFuture.completedFuture("NOT_LEADER," + node.getLeaderPort());
+      }
+      result = node.forwardToLeader(value, true, id);
+    } else {
+      CompletableFuture<Integer> round = start(node, value, id);
+      if (round == null) {
+        return CompletableFuture.completedFuture("STALE_REQUEST," + seq);
+      }
+      result = round.thenApply(chosen -> chosen != null ? "COMMITTED," + chosen : "FAILED");
+    }
+
+    return result
+        .exceptionally(PaxosController::failure)
+        .completeOnTimeout("TIMEOUT", timeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Zamienia wyjatek rundy na odpowiedz dla klienta.
+   *
+   * @param e wyjatek, ktorym zakonczyla sie runda
+   * @return BUSY dla serwera przeciazonego, FAILED dla pozostalych bledow
+   */
+  private static String failure(Throwable e) {
+    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+    return cause instanceof ServerBusyException ? "BUSY" : "FAILED";
+  }
+
+  /**
+   * Uruchamia runde dla propozycji klienta. Zadanie z identyfikatorem przechodzi przez tablice
+   * deduplikacji, wiec ponowienie dostaje wynik rundy uruchomionej wczesniej.
+   *
+   * @param node  serwer grupy
    * @param value wartosc proponowana przez klienta
-   * @return informacja o przyjeciu propozycji lub o aktualnym liderze
+   * @param id    identyfikator zadania lub null
+   * @return future z wynikiem rundy albo null dla zadania starszego niz ostatnie obsluzone
    */
-  @PostMapping("/client_propose")
-  public String propose(@RequestParam Integer value) {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  private CompletableFuture<Integer> start(PaxosServer node, int value, ClientRequestId id) {
+    if (id == null) {
+      return node.startPaxos(value);
     }
-    if (getLeaderPort() != server.getPort()) {
-      return "NOT_LEADER," + getLeaderPort();
+    return sessions.propose(node.getGroup(), id, () -> node.startPaxos(value));
+  }
+
+  /**
+   * Wybiera grupe Paxosa dla zadania: z prefiksu sciezki, z klucza albo grupe 0.
+   *
+   * @param group numer grupy lub null
+   * @param key   klucz lub null
+   * @return serwer grupy
+   */
+  private PaxosServer node(Integer group, String key) {
+    if (group == null && key != null) {
+      return groups.get(groups.groupFor(key));
     }
-    server.startPaxos(value);
-    return "OK: proposal started by leader on port " + server.getPort();
+    return groups.get(group);
+  }
+
+  /**
+   * Sprawdza, czy propozycje trzeba przekazac do lidera. Zadanie juz przekazane nie jest
+   * przekazywane ponownie, aby przy zmianie lidera nie krazylo miedzy serwerami.
+   *
+   * @param forwarded czy zadanie zostalo juz przekazane
+   * @return true jesli propozycja ma trafic do lidera
+   */
+  private boolean shouldForward(boolean forwarded) {
+    return forwardToLeader && !forwarded;
   }
 
   /**
    * Obsluguje faze PREPARE protokolu Paxos.
    *
+   * @param group      numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @param proposalId identyfikator propozycji
    * @return odpowiedz PROMISE lub REJECT
    */
-  @PostMapping("/prepare")
-  public String prepare(@RequestParam long proposalId) {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/prepare", "/groups/{group}/prepare"})
+  public String prepare(@PathVariable(required = false) Integer group,
+      @RequestParam long proposalId) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
-    return server.prepare(proposalId);
+    return node.prepare(proposalId);
   }
 
 
   /**
    * Obsluguje faze ACCEPT protokolu Paxos.
    *
+   * @param group      numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @param proposalId identyfikator propozycji
    * @param value      wartosc do zaakceptowania
    * @return odpowiedz ACCEPTED lub REJECTED
    */
-  @PostMapping("/accept")
-  public String accept(@RequestParam long proposalId,
-      @RequestParam int value) {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/accept", "/groups/{group}/accept"})
+  public String accept(@PathVariable(required = false) Integer group,
+      @RequestParam long proposalId, @RequestParam int value) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
-    return server.accept(proposalId, value);
+    return node.accept(proposalId, value);
   }
 
   /**
    * Zwraca aktualny stan zaakceptowanej propozycji.
    *
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @return aktualny stan serwera
    */
-  @PostMapping("/accepted_state")
-  public String state() {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/accepted_state", "/groups/{group}/accepted_state"})
+  public String state(@PathVariable(required = false) Integer group) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
-    return server.state();
+    return node.state();
   }
 
   /**
-   * Endpoint wykorzystywany podczas wyboru lidera.
+   * Glos w wyborze lidera.
    *
-   * @return port aktualnego serwera
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @param term  kadencja kandydata
+   * @return VOTE z kadencja albo REJECT z najwyzsza kadencja, na ktora serwer juz glosowal
    */
-  @PostMapping("/election")
-  public String election() {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/vote", "/groups/{group}/vote"})
+  public String vote(@PathVariable(required = false) Integer group, @RequestParam long term) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
+    }
+    return node.vote(term);
+  }
+
+  /**
+   * Ogloszenie zwyciezcy wyboru lidera.
+   *
+   * @param group  numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @param term   kadencja zwyciezcy
+   * @param leader port zwyciezcy
+   * @return LEADER z portem i kadencja albo REJECT, jesli ogloszenie jest spoznione
+   */
+  @PostMapping({"/leader_announce", "/groups/{group}/leader_announce"})
+  public String leaderAnnounce(@PathVariable(required = false) Integer group,
+      @RequestParam long term, @RequestParam int leader) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
-    return String.valueOf(server.getPort());
+    return node.announce(term, leader);
   }
 
 
@@ -124,47 +312,40 @@ public class PaxosController {
   /**
    * Czysci lokalny stan serwera Paxos.
    *
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @return informacja o wyczyszczeniu stanu
    */
-  @PostMapping("/clear")
-  public String clear() {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/clear", "/groups/{group}/clear"})
+  public String clear(@PathVariable(required = false) Integer group) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
-    server.clear();
+    node.clear();
     return "STATE_CLEARED";
   }
 
   /**
-   * Czysci stan wszystkich serwerow w systemie.
-   * Operacja moze zostac wykonana wylacznie przez lidera.
+   * Czysci stan grupy na wszystkich serwerach w systemie.
+   * Operacja moze zostac wykonana wylacznie przez lidera grupy.
    *
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @return raport z czyszczenia serwerow
    */
-  @PostMapping("/clearall")
-  public String clearAll() {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/clearall", "/groups/{group}/clearall"})
+  public String clearAll(@PathVariable(required = false) Integer group) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
-    if (getLeaderPort() != server.getPort()) {
-      return "NOT_LEADER," + getLeaderPort();
+    if (node.getLeaderPort() != node.getPort()) {
+      return "NOT_LEADER," + node.getLeaderPort();
     }
 
-    List<String> servers = List.of(
-        "http://localhost:8000",
-        "http://localhost:8001",
-        "http://localhost:8002",
-        "http://localhost:8003",
-        "http://localhost:8004",
-        "http://localhost:8005",
-        "http://localhost:8006",
-        "http://localhost:8007"
-    );
-
     int count = 0;
     StringBuilder sb = new StringBuilder();
 
-    for (String s : servers) {
+    for (String s : node.getPeers()) {
       String resp = HttpUtil.postParams(s + "/clear");
       sb.append(s).append(" => ").append(resp).append("\n");
       if (resp != null) {
@@ -179,80 +360,153 @@ public class PaxosController {
    * Recznie wstrzykuje wartosci do stanu serwera.
    * Wykorzystywane glownie w testach i symulacjach bledow.
    *
+   * @param group            numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @param promised         nowa wartosc promised
    * @param acceptedProposal nowy numer zaakceptowanej propozycji
    * @param acceptedValue    nowa zaakceptowana wartosc
    * @return status operacji
    */
-  @PostMapping("/inject")
+  @PostMapping({"/inject", "/groups/{group}/inject"})
   public String inject(
+      @PathVariable(required = false) Integer group,
       @RequestParam(required = false) Integer promised,
       @RequestParam(required = false) Integer acceptedProposal,
       @RequestParam(required = false) Integer acceptedValue
   ) {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
     }
 
     if (promised != null) {
-      server.injectPromised(promised);
+      node.injectPromised(promised);
     }
     if (acceptedProposal != null) {
-      server.injectAcceptedProposal(acceptedProposal);
+      node.injectAcceptedProposal(acceptedProposal);
     }
     if (acceptedValue != null) {
-      server.injectAcceptedValue(acceptedValue);
+      node.injectAcceptedValue(acceptedValue);
     }
 
     return "INJECT_OK";
   }
 
   /**
-   * Przywraca poprzedni stan serwera.
+   * Przywraca poprzednia wersje stanu serwera. Z parametrem proposalId wycofuje tylko wersje
+   * utworzone przez te propozycje.
    *
+   * @param group      numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @param proposalId numer porzucanej propozycji (opcjonalny)
    * @return informacja o wykonaniu rollbacku
    */
-  @PostMapping("/rollback")
-  public String rollback() {
-    if (server.isStuck()) {
-      return server.getStuckMessage();
+  @PostMapping({"/rollback", "/groups/{group}/rollback"})
+  public String rollback(@PathVariable(required = false) Integer group,
+      @RequestParam(required = false) Long proposalId) {
+    PaxosServer node = groups.get(group);
+    if (node.isStuck()) {
+      return node.getStuckMessage();
+    }
+    if (proposalId != null) {
+      node.rollback(proposalId);
+    } else {
+      node.rollback();
     }
-    server.rollback();
     return "ROLLED_BACK";
   }
 
   /**
-   * Blokuje serwer i wymusza zwracanie stalej odpowiedzi.
+   * Blokuje serwer i wymusza zwracanie stalej odpowiedzi. Blokada obejmuje wszystkie grupy
+   * wezla, wiec zablokowany wezel nie glosuje, nie sklada obietnic i nie jest liderem w zadnej
+   * grupie.
    *
    * @param msg komunikat zwracany podczas blokady
    * @return potwierdzenie zablokowania
    */
   @PostMapping("/stuck")
   public String stuck(@RequestParam String msg) {
-    server.stuck(msg);
+    for (PaxosServer node : groups.all()) {
+      node.stuck(msg);
+    }
     return "Zablokowany z wiadomoscia:" + msg;
   }
 
 
   /**
-   * Odblokowuje serwer i przywraca normalne dzialanie.
+   * Odblokowuje serwer we wszystkich grupach i przywraca normalne dzialanie.
    *
    * @return potwierdzenie odblokowania
    */
   @PostMapping("/unstuck")
   public String unstuck() {
-    server.unstuck();
+    for (PaxosServer node : groups.all()) {
+      node.unstuck();
+    }
     return "Odblokowany";
   }
 
   /**
    * Pobranie portu lidera.
    *
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
    * @return port lidera
    */
-  @PostMapping("/leader")
-  public String leader() {
-    return String.valueOf(getLeaderPort());
+  @PostMapping({"/leader", "/groups/{group}/leader"})
+  public String leader(@PathVariable(required = false) Integer group) {
+    return String.valueOf(groups.get(group).getLeaderPort());
+  }
+
+  /**
+   * Pobranie lidera wraz z kadencja, w ktorej zostal wybrany.
+   *
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @return LEADER,port,kadencja
+   */
+  @PostMapping({"/leader_info", "/groups/{group}/leader_info"})
+  public String leaderInfo(@PathVariable(required = false) Integer group) {
+    return groups.get(group).leaderInfo();
+  }
+
+  /**
+   * Obsluguje ramke laczaca wiele zadan protokolu, takze do roznych grup. Zadania sa wykonywane
+   * po kolei, tak jak gdyby przyszly osobno; zadanie nieznane, do nieistniejacej grupy albo z
+   * blednymi parametrami dostaje brak odpowiedzi i nie wplywa na pozostale.
+   *
+   * @param body zadania w formacie {@link BatchFrame}
+   * @return odpowiedzi w formacie {@link BatchFrame}
+   */
+  @PostMapping("/batch")
+  public String batch(@RequestBody(required = false) String body) {
+    List<String> requests = BatchFrame.decodeRequests(body);
+    List<String> responses = new ArrayList<>(requests.size());
+    for (String request : requests) {
+      responses.add(dispatch(request));
+    }
+    return BatchFrame.encodeResponses(responses);
+  }
+
+  private String dispatch(String request) {
+    try {
+      Integer group = BatchFrame.group(request);
+      return switch (BatchFrame.endpoint(request)) {
+        case "/prepare" -> prepare(group, longParam(request, "proposalId"));
+        case "/accept" -> accept(group, longParam(request, "proposalId"),
+            Integer.parseInt(BatchFrame.param(request, "value")));
+        case "/accepted_state" -> state(group);
+        case "/vote" -> vote(group, longParam(request, "term"));
+        case "/leader_announce" -> leaderAnnounce(group, longParam(request, "term"),
+            Integer.parseInt(BatchFrame.param(request, "leader")));
+        case "/leader_info" -> leaderInfo(group);
+        case "/rollback" -> rollback(group, BatchFrame.param(request, "proposalId") != null
+            ? longParam(request, "proposalId") : null);
+        default -> null;
+      };
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static long longParam(String request, String name) {
+    return Long.parseLong(BatchFrame.param(request, name));
   }
 
 
@@ -0,0 +1,93 @@
+package com.example.pro_spring.controller;
+
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.model.ClusterStatus;
+import com.example.pro_spring.model.NodeStatus;
+import com.example.pro_spring.service.ClusterStatusService;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Kontroler REST udostepniajacy stan wezla i zbiorczy stan klastra w formacie JSON. Stan jest
+ * zwracany takze przez zablokowany wezel, z ustawiona flaga stuck.
+ */
+@RestController
+public class StatusController {
+
+  private final PaxosServer server;
+  private final PaxosGroups groups;
+  private final ClusterStatusService clusterStatus;
+  private final ClusterEvents events;
+
+  /**
+   * Tworzy kontroler stanu.
+   *
+   * @param server        lokalny serwer Paxos (grupa 0)
+   * @param groups        grupy Paxosa uruchomione na tym wezle
+   * @param clusterStatus serwis zbierajacy stan klastra
+   * @param events        strumien zdarzen wezla
+   */
+  public StatusController(PaxosServer server, PaxosGroups groups,
+      ClusterStatusService clusterStatus, ClusterEvents events) {
+    this.server = server;
+    this.groups = groups;
+    this.clusterStatus = clusterStatus;
+    this.events = events;
+  }
+
+  /**
+   * Zwraca stan tego wezla w jednej grupie Paxosa: stan acceptora, lidera, blokade i metryki.
+   * Bez prefiksu zwracany jest stan grupy 0, z prefiksem /groups/{group} stan wskazanej grupy.
+   * Numer grupy jest w polu group odpowiedzi.
+   *
+   * @param group numer grupy z prefiksu /groups/{group} (opcjonalny)
+   * @return stan wezla w grupie
+   */
+  @PostMapping({"/node_status", "/groups/{group}/node_status"})
+  public NodeStatus nodeStatus(@PathVariable(required = false) Integer group) {
+    return groups.get(group).status();
+  }
+
+  /**
+   * Zwraca stan wszystkich wezlow klastra, zebrany rownolegle przez ten wezel. Jedno zapytanie
+   * zastepuje odpytywanie kazdego wezla osobno o /accepted_state i /leader.
+   *
+   * @return zbiorczy stan klastra
+   */
+  @PostMapping("/cluster_status")
+  public ClusterStatus clusterStatus() {
+    return clusterStatus.collect();
+  }
+
+  /**
+   * Zwraca sklad klastra znany temu wezlowi. Panel uzywa go, aby nie zakladac z gory liczby
+   * wezlow ani ich adresow.
+   *
+   * @return adresy wszystkich wezlow klastra, wlacznie z tym
+   */
+  @PostMapping("/members")
+  public List<String> members() {
+    return server.getPeers();
+  }
+
+  /**
+   * Otwiera strumien zdarzen wezla (Server-Sent Events). Pierwszymi zdarzeniami sa SNAPSHOT z
+   * biezacym stanem kazdej grupy Paxosa, od grupy 0, kolejne to PROMISE, ACCEPT, COMMIT, LEADER,
+   * STUCK, UNSTUCK, CRASH, CLEAR, INJECT i ROLLBACK wszystkich grup oraz co sekunde METRICS, kazde
+   * z danymi {@link com.example.pro_spring.events.ClusterEvent} w JSON. Grupe zdarzenia okresla
+   * jego pole group. Panel subskrybuje raz zamiast cyklicznie odpytywac wezel.
+   *
+   * @return emiter strumienia
+   */
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events() {
+    return events.subscribe(groups.all().stream().map(PaxosServer::snapshot).toList());
+  }
+}
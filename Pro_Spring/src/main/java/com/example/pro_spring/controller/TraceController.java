@@ -0,0 +1,45 @@
+package com.example.pro_spring.controller;
+
+import com.example.pro_spring.trace.ProtocolTrace;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Kontroler REST do sterowania logiem sledzenia protokolu na danym wezle.
+ */
+@RestController
+public class TraceController {
+
+  private final ProtocolTrace trace;
+
+  /**
+   * Tworzy kontroler z wstrzyknietym logiem sledzenia.
+   *
+   * @param trace log sledzenia protokolu
+   */
+  public TraceController(ProtocolTrace trace) {
+    this.trace = trace;
+  }
+
+  /**
+   * Zmienia lub odczytuje ustawienia sledzenia. Pominiete parametry pozostaja bez zmian.
+   *
+   * @param enabled    czy sledzenie ma byc wlaczone
+   * @param sampleRate ulamek zapisywanych zdarzen, od 0.0 do 1.0
+   * @return aktualne ustawienia: TRACE,enabled,sampleRate,pending,dropped
+   */
+  @PostMapping("/trace")
+  public String trace(
+      @RequestParam(required = false) Boolean enabled,
+      @RequestParam(required = false) Double sampleRate
+  ) {
+    if (enabled != null || sampleRate != null) {
+      trace.configure(
+          enabled != null ? enabled : trace.isEnabled(),
+          sampleRate != null ? sampleRate : trace.getSampleRate());
+    }
+    return "TRACE," + trace.isEnabled() + "," + trace.getSampleRate() + ","
+        + trace.pending() + "," + trace.dropped();
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.pro_spring.events;
+
+import com.example.pro_spring.model.NodeMetrics;
+
+/**
+ * Zdarzenie wezla wysylane do subskrybentow strumienia /events. Poza samym zdarzeniem niesie stan
+ * wezla po zmianie, wiec panel moze odswiezyc widok bez dodatkowego zapytania. Wszystkie grupy
+ * Paxosa wezla publikuja do tego samego strumienia, wiec zdarzenie niesie numer swojej grupy.
+ *
+ * @param timestamp  czas zdarzenia w milisekundach od epoki
+ * @param node       port serwera, na ktorym wystapilo zdarzenie
+ * @param group      numer grupy Paxosa, ktorej dotyczy zdarzenie; metryki w zdarzeniu METRICS
+ *                   dotycza calego wezla i maja grupe 0
+ * @param type       typ zdarzenia, np. PROMISE, ACCEPT, COMMIT, LEADER, STUCK
+ * @param ballot     numer propozycji lub -1
+ * @param value      wartosc, port nowego lidera lub -1
+ * @param leaderPort port lidera znanego wezlowi
+ * @param stuck      czy wezel jest zablokowany
+ * @param state      stan acceptora w formacie /accepted_state albo komunikat blokady
+ * @param metrics    migawka metryk wezla w zdarzeniu METRICS, w pozostalych null
+ */
+public record ClusterEvent(
+    long timestamp,
+    int node,
+    int group,
+    String type,
+    long ballot,
+    int value,
+    int leaderPort,
+    boolean stuck,
+    String state,
+    NodeMetrics metrics
+) {
+}
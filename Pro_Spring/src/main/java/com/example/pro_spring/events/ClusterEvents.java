@@ -0,0 +1,158 @@
+package com.example.pro_spring.events;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Strumien zdarzen wezla dla panelu (Server-Sent Events). Watki protokolu jedynie wrzucaja
+ * zdarzenia do nieblokujacej kolejki, a wysylka do subskrybentow odbywa sie okresowo w watku
+ * harmonogramu, tak jak w {@link com.example.pro_spring.trace.ProtocolTrace}. Bez subskrybentow
+ * publikacja konczy sie po jednym odczycie listy.
+ *
+ * <p>Subskrybent, do ktorego nie da sie wyslac zdarzenia, jest usuwany. Aby wykryc rozlaczonych
+ * klientow takze przy braku zdarzen, co {@link #KEEP_ALIVE_MS} wysylany jest komentarz.
+ */
+@Component
+public class ClusterEvents {
+
+  static final int CAPACITY = 4096;
+  static final long KEEP_ALIVE_MS = 15_000;
+
+  private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+  private final ConcurrentLinkedQueue<ClusterEvent> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Rejestruje nowego subskrybenta i wysyla mu biezacy stan wezla.
+   *
+   * @param initial zdarzenia SNAPSHOT z biezacym stanem wezla, po jednym dla kazdej grupy
+   * @return emiter strumienia, bez limitu czasu
+   */
+  public SseEmitter subscribe(List<ClusterEvent> initial) {
+    SseEmitter emitter = new SseEmitter(0L);
+    emitter.onCompletion(() -> subscribers.remove(emitter));
+    emitter.onTimeout(() -> subscribers.remove(emitter));
+    emitter.onError(e -> subscribers.remove(emitter));
+    for (ClusterEvent event : initial) {
+      if (!send(emitter, event)) {
+        return emitter;
+      }
+    }
+    subscribers.add(emitter);
+    return emitter;
+  }
+
+  /**
+   * Czy ktos subskrybuje strumien. Pozwala pominac budowanie zdarzenia, gdy nikt go nie odbierze.
+   *
+   * @return true, jesli jest co najmniej jeden subskrybent
+   */
+  public boolean active() {
+    return !subscribers.isEmpty();
+  }
+
+  /**
+   * Publikuje zdarzenie. Bez subskrybentow zdarzenie jest pomijane. Gdy kolejka jest pelna,
+   * zdarzenie jest odrzucane i zliczane.
+   *
+   * @param event zdarzenie
+   */
+  public void publish(ClusterEvent event) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    if (size.incrementAndGet() > CAPACITY) {
+      size.decrementAndGet();
+      dropped.increment();
+      return;
+    }
+    queue.offer(event);
+  }
+
+  /**
+   * Wysyla zebrane zdarzenia do wszystkich subskrybentow.
+   */
+  @Scheduled(fixedDelay = 100)
+  public void dispatch() {
+    List<ClusterEvent> batch = new ArrayList<>();
+    ClusterEvent event;
+    while ((event = queue.poll()) != null) {
+      size.decrementAndGet();
+      batch.add(event);
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    for (SseEmitter emitter : subscribers) {
+      for (ClusterEvent e : batch) {
+        if (!send(emitter, e)) {
+          subscribers.remove(emitter);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Wysyla komentarz podtrzymujacy polaczenie i usuwa rozlaczonych subskrybentow.
+   */
+  @Scheduled(fixedDelay = KEEP_ALIVE_MS)
+  public void keepAlive() {
+    for (SseEmitter emitter : subscribers) {
+      try {
+        emitter.send(SseEmitter.event().comment("ping"));
+      } catch (IOException | IllegalStateException e) {
+        subscribers.remove(emitter);
+      }
+    }
+  }
+
+  /**
+   * Zwraca liczbe subskrybentow.
+   *
+   * @return liczba otwartych strumieni
+   */
+  public int subscribers() {
+    return subscribers.size();
+  }
+
+  /**
+   * Zwraca liczbe zdarzen czekajacych na wysylke.
+   *
+   * @return dlugosc kolejki
+   */
+  public int pending() {
+    return size.get();
+  }
+
+  /**
+   * Zwraca liczbe zdarzen odrzuconych z powodu przepelnienia kolejki.
+   *
+   * @return liczba odrzuconych zdarzen
+   */
+  public long dropped() {
+    return dropped.sum();
+  }
+
+  private static boolean send(SseEmitter emitter, ClusterEvent event) {
+    try {
+      emitter.send(SseEmitter.event()
+          .name(event.type())
+          .data(event, MediaType.APPLICATION_JSON));
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      emitter.completeWithError(e);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.pro_spring.exception;
+
+/**
+ * Wyjatek sygnalizujacy, ze serwer prowadzi juz maksymalna liczbe rund i nie przyjmuje kolejnej.
+ * Klient powinien ponowic propozycje pozniej.
+ */
+public class ServerBusyException extends ServerException {
+
+  /**
+   * Tworzy nowy wyjatek z podana wiadomoscia.
+   *
+   * @param message opis bledu
+   */
+  public ServerBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,74 @@
+package com.example.pro_spring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Zdarzenie JFR opisujace obsluge PREPARE albo ACCEPT przez acceptora, wraz z liczba ponowien
+ * compare-and-set przy rownoczesnej zmianie stanu.
+ */
+@Name("com.example.pro_spring.AcceptorCall")
+@Label("Paxos Acceptor Call")
+@Category({"Paxos", "Acceptor"})
+@Description("Obsluga zadania PREPARE lub ACCEPT przez acceptora")
+@StackTrace(false)
+public class AcceptorCallEvent extends Event {
+
+  @Label("Node Port")
+  int port;
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Ballot")
+  long ballot;
+
+  @Label("Value")
+  int value = -1;
+
+  @Label("Response")
+  String response;
+
+  @Label("CAS Retries")
+  @Description("Liczba ponowien compare-and-set na stanie acceptora")
+  int casRetries;
+
+  /**
+   * Rozpoczyna pomiar.
+   */
+  public void start() {
+    begin();
+  }
+
+  /**
+   * Zlicza nieudany compare-and-set. Wywolywane, gdy stan zmienil sie od odczytu migawki.
+   */
+  public void casRetried() {
+    casRetries++;
+  }
+
+  /**
+   * Konczy pomiar i zapisuje zdarzenie, jesli nagrywanie jest wlaczone.
+   *
+   * @param port     port acceptora
+   * @param phase    nazwa fazy (prepare albo accept)
+   * @param ballot   numer propozycji
+   * @param value    wartosc w fazie ACCEPT albo -1
+   * @param response odpowiedz acceptora
+   */
+  public void finish(int port, String phase, long ballot, int value, String response) {
+    end();
+    if (shouldCommit()) {
+      this.port = port;
+      this.phase = phase;
+      this.ballot = ballot;
+      this.value = value;
+      this.response = response == null ? "NONE" : response.split(",", 2)[0];
+      commit();
+    }
+  }
+}
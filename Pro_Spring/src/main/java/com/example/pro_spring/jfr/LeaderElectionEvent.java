@@ -0,0 +1,63 @@
+package com.example.pro_spring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Zdarzenie JFR opisujace przebieg wyboru lidera.
+ */
+@Name("com.example.pro_spring.LeaderElection")
+@Label("Paxos Leader Election")
+@Category({"Paxos", "Leader"})
+@Description("Wybor nowego lidera")
+@StackTrace(false)
+public class LeaderElectionEvent extends Event {
+
+  @Label("Node Port")
+  int port;
+
+  @Label("Previous Leader")
+  int previousLeader;
+
+  @Label("Term")
+  long term;
+
+  @Label("Votes")
+  int votes;
+
+  @Label("Winner")
+  int winner = -1;
+
+  /**
+   * Rozpoczyna pomiar wyboru lidera.
+   *
+   * @param port           port serwera prowadzacego wybor
+   * @param previousLeader port dotychczasowego lidera
+   * @param term           kadencja, o ktora ubiega sie serwer
+   */
+  public void start(int port, int previousLeader, long term) {
+    begin();
+    this.port = port;
+    this.previousLeader = previousLeader;
+    this.term = term;
+  }
+
+  /**
+   * Konczy pomiar i zapisuje zdarzenie, jesli nagrywanie jest wlaczone.
+   *
+   * @param votes  liczba otrzymanych glosow
+   * @param winner port wybranego lidera albo -1
+   */
+  public void finish(int votes, int winner) {
+    end();
+    if (shouldCommit()) {
+      this.votes = votes;
+      this.winner = winner;
+      commit();
+    }
+  }
+}
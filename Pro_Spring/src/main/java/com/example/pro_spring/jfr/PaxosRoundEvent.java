@@ -0,0 +1,110 @@
+package com.example.pro_spring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Zdarzenie JFR opisujace pojedyncza probe rundy Paxosa po stronie lidera.
+ */
+@Name("com.example.pro_spring.PaxosRound")
+@Label("Paxos Round")
+@Category({"Paxos", "Proposer"})
+@Description("Pojedyncza proba rundy Paxosa: PREPARE i ACCEPT")
+@StackTrace(false)
+public class PaxosRoundEvent extends Event {
+
+  @Label("Node Port")
+  int port;
+
+  @Label("Ballot")
+  long ballot;
+
+  @Label("Attempt")
+  int attempt;
+
+  @Label("Client Value")
+  int clientValue;
+
+  @Label("Chosen Value")
+  int chosenValue = -1;
+
+  @Label("Alive Servers")
+  int alive;
+
+  @Label("Promises")
+  int promises;
+
+  @Label("Accepts")
+  int accepts;
+
+  @Label("Prepare Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  long prepareDuration;
+
+  @Label("Accept Duration")
+  @Timespan(Timespan.NANOSECONDS)
+  long acceptDuration;
+
+  @Label("Outcome")
+  String outcome;
+
+  /**
+   * Rozpoczyna pomiar proby rundy.
+   *
+   * @param port        port lidera
+   * @param ballot      numer propozycji
+   * @param attempt     numer proby (od 1)
+   * @param clientValue wartosc zaproponowana przez klienta
+   */
+  public void start(int port, long ballot, int attempt, int clientValue) {
+    begin();
+    this.port = port;
+    this.ballot = ballot;
+    this.attempt = attempt;
+    this.clientValue = clientValue;
+  }
+
+  /**
+   * Zapisuje wynik fazy PREPARE.
+   *
+   * @param alive    liczba zywych serwerow
+   * @param promises liczba otrzymanych obietnic
+   * @param nanos    czas fazy w nanosekundach
+   */
+  public void prepared(int alive, int promises, long nanos) {
+    this.alive = alive;
+    this.promises = promises;
+    this.prepareDuration = nanos;
+  }
+
+  /**
+   * Zapisuje wynik fazy ACCEPT.
+   *
+   * @param chosenValue wartosc wyslana do akceptacji
+   * @param accepts     liczba akceptacji
+   * @param nanos       czas fazy w nanosekundach
+   */
+  public void accepted(int chosenValue, int accepts, long nanos) {
+    this.chosenValue = chosenValue;
+    this.accepts = accepts;
+    this.acceptDuration = nanos;
+  }
+
+  /**
+   * Konczy pomiar i zapisuje zdarzenie, jesli nagrywanie jest wlaczone.
+   *
+   * @param outcome wynik proby
+   */
+  public void finish(String outcome) {
+    end();
+    if (shouldCommit()) {
+      this.outcome = outcome;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package com.example.pro_spring.metrics;
+
+import com.example.pro_spring.model.NodeMetrics;
+import com.example.pro_spring.model.RpcMetrics;
+import com.example.pro_spring.transport.BatchFrame;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metryki protokolu Paxos publikowane przez Micrometer (endpoint /actuator/prometheus).
+ * Liczniki i timery sa rejestrowane raz w konstruktorze, aby na sciezce protokolu nie wykonywac
+ * wyszukiwania w rejestrze. Timery wywolan HTTP zaleza od adresu, wiec sa rejestrowane przy
+ * pierwszym wywolaniu i zapamietywane.
+ */
+@Component
+public class PaxosMetrics {
+
+  private static final String RESPONSES = "paxos.acceptor.responses";
+  private static final String PHASE = "paxos.phase";
+  private static final String ROUND = "paxos.round";
+  private static final String RPC = "paxos.rpc";
+  private static final String LEADER_CHANGES = "paxos.leader.changes";
+  private static final double[] ROUND_PERCENTILES = {0.5, 0.95, 0.99};
+  private static final Map<RpcKey, Timer> RPC_TIMERS = new ConcurrentHashMap<>();
+
+  private final MeterRegistry registry;
+  private final Map<Integer, Counter> leaderChanges = new ConcurrentHashMap<>();
+  private final Counter promise;
+  private final Counter prepareReject;
+  private final Counter accepted;
+  private final Counter acceptReject;
+  private final Counter roundRetries;
+  private final Counter roundRejected;
+  private final Counter forwarded;
+  private final Timer prepareTimer;
+  private final Timer acceptTimer;
+  private final Timer roundCommitted;
+  private final Timer roundFailed;
+
+  private record RpcKey(String peer, String endpoint, boolean success) {
+  }
+
+  /**
+   * Rejestruje metryki Paxosa w podanym rejestrze.
+   *
+   * @param registry rejestr metryk
+   */
+  public PaxosMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.promise = response(registry, "prepare", "PROMISE");
+    this.prepareReject = response(registry, "prepare", "REJECT");
+    this.accepted = response(registry, "accept", "ACCEPTED");
+    this.acceptReject = response(registry, "accept", "REJECT");
+    this.roundRetries = Counter.builder("paxos.round.retries")
+        .description("Ponowienia rundy po odrzuceniu przez konkurencyjna propozycje")
+        .register(registry);
+    this.roundRejected = Counter.builder("paxos.round.rejected")
+        .description("Propozycje odrzucone, bo serwer prowadzil juz maksymalna liczbe rund")
+        .register(registry);
+    this.forwarded = Counter.builder("paxos.client.forwarded")
+        .description("Propozycje klientow przekazane do lidera przez followera")
+        .register(registry);
+    this.prepareTimer = timer(registry, PHASE, "phase", "prepare");
+    this.acceptTimer = timer(registry, PHASE, "phase", "accept");
+    this.roundCommitted = Timer.builder(ROUND)
+        .tag("outcome", "committed")
+        .publishPercentileHistogram()
+        .publishPercentiles(ROUND_PERCENTILES)
+        .register(registry);
+    this.roundFailed = timer(registry, ROUND, "outcome", "failed");
+  }
+
+  /**
+   * Zlicza zmiane lidera grupy Paxosa. Kazda grupa ma wlasnego lidera, wiec licznik ma tag group
+   * i jest rejestrowany przy pierwszej zmianie lidera w danej grupie.
+   *
+   * @param group numer grupy
+   */
+  public void leaderChanged(int group) {
+    leaderChanges.computeIfAbsent(group, g -> Counter.builder(LEADER_CHANGES)
+            .tag("group", String.valueOf(g))
+            .description("Zmiany lidera grupy Paxosa")
+            .register(registry))
+        .increment();
+  }
+
+  /**
+   * Rejestruje czas pojedynczego wywolania HTTP do innego serwera. Metoda jest statyczna, bo
+   * HttpUtil jest klasa narzedziowa bez dostepu do kontekstu Springa. Endpoint nie zawiera
+   * prefiksu /groups/{group}, wiec liczba timerow nie rosnie z liczba grup.
+   *
+   * @param url     adres wywolania
+   * @param success czy odpowiedz zostala odebrana
+   * @param nanos   czas wywolania w nanosekundach
+   */
+  public static void recordRpc(String url, boolean success, long nanos) {
+    RPC_TIMERS.computeIfAbsent(new RpcKey(peerOf(url), endpointOf(url), success),
+            key -> Timer.builder(RPC)
+                .tag("peer", key.peer())
+                .tag("endpoint", key.endpoint())
+                .tag("outcome", key.success() ? "ok" : "error")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry))
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Zlicza odpowiedz PROMISE albo REJECT w fazie PREPARE.
+   *
+   * @param promised czy acceptor zlozyl obietnice
+   */
+  public void prepareResponse(boolean promised) {
+    (promised ? promise : prepareReject).increment();
+  }
+
+  /**
+   * Zlicza odpowiedz ACCEPTED albo REJECT w fazie ACCEPT.
+   *
+   * @param accepted czy acceptor zaakceptowal wartosc
+   */
+  public void acceptResponse(boolean accepted) {
+    (accepted ? this.accepted : acceptReject).increment();
+  }
+
+  /**
+   * Zlicza ponowienie rundy.
+   */
+  public void roundRetried() {
+    roundRetries.increment();
+  }
+
+  /**
+   * Zlicza propozycje odrzucona z powodu limitu rund w toku.
+   */
+  public void roundRejected() {
+    roundRejected.increment();
+  }
+
+  /**
+   * Zlicza propozycje klienta przekazana do lidera.
+   */
+  public void clientForwarded() {
+    forwarded.increment();
+  }
+
+  /**
+   * Rejestruje czas fazy PREPARE po stronie lidera.
+   *
+   * @param nanos czas w nanosekundach
+   */
+  public void preparePhase(long nanos) {
+    prepareTimer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Rejestruje czas fazy ACCEPT po stronie lidera.
+   *
+   * @param nanos czas w nanosekundach
+   */
+  public void acceptPhase(long nanos) {
+    acceptTimer.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Rejestruje czas calej rundy (wraz z ponowieniami).
+   *
+   * @param committed czy wartosc zostala zatwierdzona przez wiekszosc
+   * @param nanos     czas w nanosekundach
+   */
+  public void round(boolean committed, long nanos) {
+    (committed ? roundCommitted : roundFailed).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Zwraca migawke metryk do raportu stanu wezla.
+   *
+   * @return biezace wartosci licznikow, czasow rund i wywolan do innych serwerow
+   */
+  public NodeMetrics snapshot() {
+    double[] percentiles = new double[ROUND_PERCENTILES.length];
+    for (ValueAtPercentile p : roundCommitted.takeSnapshot().percentileValues()) {
+      for (int i = 0; i < ROUND_PERCENTILES.length; i++) {
+        if (p.percentile() == ROUND_PERCENTILES[i]) {
+          percentiles[i] = p.value(TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+    long changes = 0;
+    for (Counter c : leaderChanges.values()) {
+      changes += (long) c.count();
+    }
+
+    return new NodeMetrics(
+        roundCommitted.count(),
+        roundFailed.count(),
+        (long) roundRetries.count(),
+        roundCommitted.mean(TimeUnit.MILLISECONDS),
+        roundCommitted.max(TimeUnit.MILLISECONDS),
+        percentiles[0],
+        percentiles[1],
+        percentiles[2],
+        (long) promise.count(),
+        (long) prepareReject.count(),
+        (long) accepted.count(),
+        (long) acceptReject.count(),
+        (long) forwarded.count(),
+        changes,
+        rpcByPeer());
+  }
+
+  /**
+   * Sumuje timery wywolan HTTP z globalnego rejestru wedlug serwera docelowego.
+   */
+  private static Map<String, RpcMetrics> rpcByPeer() {
+    Map<String, RpcMetrics> byPeer = new TreeMap<>();
+    for (Timer t : Metrics.globalRegistry.find(RPC).timers()) {
+      long calls = t.count();
+      boolean error = "error".equals(t.getId().getTag("outcome"));
+      byPeer.merge(t.getId().getTag("peer"),
+          new RpcMetrics(calls, error ? calls : 0, t.totalTime(TimeUnit.MILLISECONDS),
+              t.max(TimeUnit.MILLISECONDS)),
+          RpcMetrics::plus);
+    }
+    return byPeer;
+  }
+
+  private static Counter response(MeterRegistry registry, String phase, String type) {
+    return Counter.builder(RESPONSES)
+        .tag("phase", phase)
+        .tag("type", type)
+        .register(registry);
+  }
+
+  private static Timer timer(MeterRegistry registry, String name, String key, String value) {
+    return Timer.builder(name)
+        .tag(key, value)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+  private static String peerOf(String url) {
+    int start = url.indexOf("://");
+    start = start < 0 ? 0 : start + 3;
+    int end = url.indexOf('/', start);
+    return end < 0 ? url.substring(start) : url.substring(start, end);
+  }
+
+  private static String endpointOf(String url) {
+    int start = url.indexOf("://");
+    int slash = url.indexOf('/', start < 0 ? 0 : start + 3);
+    if (slash < 0) {
+      return "/";
+    }
+    return BatchFrame.endpoint(url.substring(slash));
+  }
+}
@@ -0,0 +1,151 @@
+package com.example.pro_spring.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Niezmienna wersja stanu acceptora. Kazde PREPARE i ACCEPT tworzy nowa wersje oznaczona numerem
+ * propozycji (ballot), ktora ja utworzyla, i wskazujaca wersje poprzednia. Serwer publikuje
+ * najnowsza wersje przez jedna referencje atomowa: odczyt nie wymaga blokady, a zapis to
+ * compare-and-set.
+ *
+ * <p>Historia sluzy do recznego wycofywania zmian. Wycofanie po numerze propozycji usuwa tylko
+ * wersje utworzone przez te propozycje, dopoki nie przykryla ich nowsza propozycja, wiec
+ * nakladajace sie rundy nie cofaja sobie nawzajem stanu. Historia jest przycinana do
+ * {@link #MAX_HISTORY} ostatnich wersji.
+ *
+ * @param promised         najwyzszy obiecany numer propozycji lub -1
+ * @param acceptedProposal numer zaakceptowanej propozycji lub -1
+ * @param acceptedValue    zaakceptowana wartosc lub -1
+ * @param ballot           numer propozycji, ktora utworzyla te wersje, lub -1
+ * @param previous         poprzednia wersja albo null
+ * @param depth            liczba poprzednich wersji
+ */
+public record AcceptorState(
+    int promised,
+    int acceptedProposal,
+    int acceptedValue,
+    long ballot,
+    AcceptorState previous,
+    int depth
+) {
+
+  /**
+   * Liczba wersji zachowywanych po przycieciu historii.
+   */
+  public static final int MAX_HISTORY = 16;
+
+  /**
+   * Stan poczatkowy, bez obietnic i zaakceptowanych wartosci.
+   */
+  public static final AcceptorState EMPTY = new AcceptorState(-1, -1, -1, -1, null, 0);
+
+  /**
+   * Zwraca wersje po zlozeniu obietnicy.
+   *
+   * @param ballot obiecany numer propozycji
+   * @return nowa wersja
+   */
+  public AcceptorState promise(int ballot) {
+    return next(ballot, acceptedProposal, acceptedValue, ballot);
+  }
+
+  /**
+   * Zwraca wersje po zaakceptowaniu wartosci.
+   *
+   * @param ballot numer propozycji
+   * @param value  zaakceptowana wartosc
+   * @return nowa wersja
+   */
+  public AcceptorState accept(int ballot, int value) {
+    return next(ballot, ballot, value, ballot);
+  }
+
+  /**
+   * Zwraca wersje poprzednia.
+   *
+   * @return poprzednia wersja albo ta sama, jesli historia jest pusta
+   */
+  public AcceptorState rollback() {
+    return previous != null ? previous : this;
+  }
+
+  /**
+   * Wycofuje wersje utworzone przez podana propozycje. Wersje sa zdejmowane tylko z wierzcholka
+   * historii, wiec zmiany nowszej propozycji pozostaja nietkniete.
+   *
+   * @param ballot numer porzucanej propozycji
+   * @return wersja sprzed zmian tej propozycji albo ta sama wersja
+   */
+  public AcceptorState abandon(long ballot) {
+    AcceptorState s = this;
+    while (s.ballot == ballot && s.previous != null) {
+      s = s.previous;
+    }
+    return s;
+  }
+
+  /**
+   * Zwraca stan z recznie ustawionym numerem obietnicy.
+   */
+  public AcceptorState withPromised(int x) {
+    return new AcceptorState(x, acceptedProposal, acceptedValue, ballot, previous, depth);
+  }
+
+  /**
+   * Zwraca stan z recznie ustawionym numerem zaakceptowanej propozycji.
+   */
+  public AcceptorState withAcceptedProposal(int x) {
+    return new AcceptorState(promised, x, acceptedValue, ballot, previous, depth);
+  }
+
+  /**
+   * Zwraca stan z recznie ustawiona zaakceptowana wartoscia.
+   */
+  public AcceptorState withAcceptedValue(int x) {
+    return new AcceptorState(promised, acceptedProposal, x, ballot, previous, depth);
+  }
+
+  /**
+   * Zwraca historie od najnowszej wersji.
+   *
+   * @return lista wersji, wlacznie z biezaca
+   */
+  public List<AcceptorState> history() {
+    List<AcceptorState> list = new ArrayList<>(depth + 1);
+    for (AcceptorState s = this; s != null; s = s.previous) {
+      list.add(s);
+    }
+    return list;
+  }
+
+  /**
+   * Zwraca tekstowa reprezentacje stanu zwracana przez /accepted_state.
+   *
+   * @return STATE,promised,acceptedProposal,acceptedValue
+   */
+  public String format() {
+    return "STATE," + promised + "," + acceptedProposal + "," + acceptedValue;
+  }
+
+  /**
+   * Tworzy nowa wersje nad biezaca. Historia jest przycinana dopiero po podwojeniu limitu, aby
+   * koszt kopiowania rozlozyl sie na wiele zapisow.
+   */
+  private AcceptorState next(int promised, int acceptedProposal, int acceptedValue, long ballot) {
+    if (depth + 1 > 2 * MAX_HISTORY) {
+      AcceptorState kept = truncate(this, MAX_HISTORY);
+      return new AcceptorState(promised, acceptedProposal, acceptedValue, ballot, kept,
+          kept.depth + 1);
+    }
+    return new AcceptorState(promised, acceptedProposal, acceptedValue, ballot, this, depth + 1);
+  }
+
+  private static AcceptorState truncate(AcceptorState s, int keep) {
+    if (s == null || keep == 0) {
+      return null;
+    }
+    return new AcceptorState(s.promised, s.acceptedProposal, s.acceptedValue, s.ballot,
+        truncate(s.previous, keep - 1), Math.min(s.depth, keep - 1));
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.pro_spring.model;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Identyfikator zadania klienta: staly identyfikator klienta i rosnacy numer sekwencyjny. Klient
+ * ponawiajacy zadanie wysyla ten sam identyfikator, co pozwala serwerowi wykryc powtorzenie.
+ *
+ * @param clientId identyfikator klienta
+ * @param seq      numer sekwencyjny zadania w ramach klienta
+ */
+public record ClientRequestId(
+    String clientId,
+    long seq
+) {
+
+  /**
+   * Tworzy identyfikator z parametrow zadania.
+   *
+   * @param clientId identyfikator klienta lub null
+   * @param seq      numer sekwencyjny lub null
+   * @return identyfikator lub null, jesli zadanie go nie zawiera
+   */
+  public static ClientRequestId of(String clientId, Long seq) {
+    if (clientId == null || clientId.isBlank() || seq == null) {
+      return null;
+    }
+    return new ClientRequestId(clientId, seq);
+  }
+
+  /**
+   * Zwraca parametry zadania HTTP przenoszace identyfikator. Identyfikator klienta jest kodowany,
+   * wiec znaki takie jak &amp;, = czy spacja nie zmieniaja parametrow zadania.
+   *
+   * @return fragment query w postaci &amp;clientId=...&amp;seq=...
+   */
+  public String query() {
+    return "&clientId=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8) + "&seq=" + seq;
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.pro_spring.model;
+
+import java.util.List;
+
+/**
+ * Zbiorczy stan klastra zwracany przez /cluster_status.
+ *
+ * @param leaderPort               port lidera wedlug serwera zbierajacego stan
+ * @param size                     liczba wezlow w konfiguracji
+ * @param reachable                liczba wezlow, ktore odpowiedzialy
+ * @param highestAcceptedProposal  najwyzszy zaakceptowany numer propozycji w klastrze
+ * @param nodes                    stan poszczegolnych wezlow, w kolejnosci konfiguracji
+ */
+public record ClusterStatus(
+    int leaderPort,
+    int size,
+    int reachable,
+    long highestAcceptedProposal,
+    List<PeerStatus> nodes
+) {
+}
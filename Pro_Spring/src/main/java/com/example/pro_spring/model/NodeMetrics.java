@@ -0,0 +1,41 @@
+package com.example.pro_spring.model;
+
+import java.util.Map;
+
+/**
+ * Migawka metryk protokolu pojedynczego wezla.
+ *
+ * @param roundsCommitted liczba rund zakonczonych zatwierdzeniem wartosci
+ * @param roundsFailed    liczba rund zakonczonych niepowodzeniem
+ * @param roundRetries    liczba ponowien rund
+ * @param roundMeanMs     sredni czas zatwierdzonej rundy w milisekundach
+ * @param roundMaxMs      maksymalny czas zatwierdzonej rundy w ostatnim oknie w milisekundach
+ * @param roundP50Ms      mediana czasu zatwierdzonej rundy w ostatnim oknie w milisekundach
+ * @param roundP95Ms      95. percentyl czasu zatwierdzonej rundy w milisekundach
+ * @param roundP99Ms      99. percentyl czasu zatwierdzonej rundy w milisekundach
+ * @param promises        liczba odpowiedzi PROMISE acceptora
+ * @param prepareRejects  liczba odpowiedzi REJECT w fazie PREPARE
+ * @param accepts         liczba odpowiedzi ACCEPTED acceptora
+ * @param acceptRejects   liczba odpowiedzi REJECT w fazie ACCEPT
+ * @param forwarded       liczba propozycji przekazanych do lidera
+ * @param leaderChanges   liczba zmian lidera widzianych przez wezel we wszystkich grupach
+ * @param rpc             wywolania HTTP do innych serwerow, wedlug adresu host:port
+ */
+public record NodeMetrics(
+    long roundsCommitted,
+    long roundsFailed,
+    long roundRetries,
+    double roundMeanMs,
+    double roundMaxMs,
+    double roundP50Ms,
+    double roundP95Ms,
+    double roundP99Ms,
+    long promises,
+    long prepareRejects,
+    long accepts,
+    long acceptRejects,
+    long forwarded,
+    long leaderChanges,
+    Map<String, RpcMetrics> rpc
+) {
+}
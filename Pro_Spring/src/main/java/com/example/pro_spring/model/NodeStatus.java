@@ -0,0 +1,31 @@
+package com.example.pro_spring.model;
+
+
+/**
+ * Stan pojedynczego wezla w jednej grupie Paxosa, zwracany przez /node_status. Lider, blokada i
+ * stan acceptora dotycza grupy {@code group}; metryki dotycza calego wezla.
+ *
+ * @param id               identyfikator wezla
+ * @param port             port wezla
+ * @param group            numer grupy Paxosa, ktorej dotyczy stan
+ * @param leaderPort       port lidera wedlug wezla
+ * @param stuck            czy wezel jest zablokowany
+ * @param stuckMessage     komunikat blokady lub null
+ * @param promised         najwyzszy obiecany numer propozycji
+ * @param acceptedProposal numer zaakceptowanej propozycji
+ * @param acceptedValue    zaakceptowana wartosc
+ * @param metrics          metryki protokolu wezla
+ */
+public record NodeStatus(
+    int id,
+    int port,
+    int group,
+    int leaderPort,
+    boolean stuck,
+    String stuckMessage,
+    int promised,
+    int acceptedProposal,
+    int acceptedValue,
+    NodeMetrics metrics
+) {
+}
@@ -0,0 +1,20 @@
+package com.example.pro_spring.model;
+
+
+/**
+ * Stan wezla widziany przez serwer zbierajacy stan klastra.
+ *
+ * @param url       adres wezla
+ * @param reachable czy wezel odpowiedzial
+ * @param rttMs     czas odpowiedzi na /node_status w milisekundach
+ * @param lag       o ile numerow propozycji zaakceptowany stan wezla jest za najnowszym w klastrze
+ * @param node      stan wezla lub null, jesli nie odpowiedzial
+ */
+public record PeerStatus(
+    String url,
+    boolean reachable,
+    long rttMs,
+    long lag,
+    NodeStatus node
+) {
+}
@@ -14,4 +14,20 @@ public record Promise(
     int acceptedValue
 ) {
 
+  /**
+   * Odczytuje obietnice z odpowiedzi acceptora na zadanie PREPARE.
+   *
+   * @param resp odpowiedz w formacie PROMISE,NONE albo PROMISE,acceptedProposal,acceptedValue
+   * @return obietnica lub null, jesli odpowiedz nie jest obietnica
+   */
+  public static Promise fromResponse(String resp) {
+    if (resp == null || !resp.startsWith("PROMISE")) {
+      return null;
+    }
+    String[] p = resp.split(",");
+    if (p.length == 3 && !"NONE".equals(p[1])) {
+      return new Promise(true, Integer.parseInt(p[1]), Integer.parseInt(p[2]));
+    }
+    return new Promise(true, -1, -1);
+  }
 }
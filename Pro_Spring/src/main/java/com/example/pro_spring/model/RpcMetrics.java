@@ -0,0 +1,30 @@
+package com.example.pro_spring.model;
+
+
+/**
+ * Liczniki wywolan HTTP wezla do jednego serwera, zsumowane po wszystkich endpointach. Wartosci
+ * sa narastajace, wiec klient wylicza srednie opoznienie w oknie z roznicy dwoch migawek.
+ *
+ * @param calls   liczba wywolan
+ * @param errors  liczba wywolan bez odpowiedzi
+ * @param totalMs laczny czas wywolan w milisekundach
+ * @param maxMs   najdluzsze wywolanie w ostatnim oknie w milisekundach
+ */
+public record RpcMetrics(
+    long calls,
+    long errors,
+    double totalMs,
+    double maxMs
+) {
+
+  /**
+   * Sumuje liczniki dwoch grup wywolan do tego samego serwera.
+   *
+   * @param other druga grupa wywolan
+   * @return suma
+   */
+  public RpcMetrics plus(RpcMetrics other) {
+    return new RpcMetrics(calls + other.calls, errors + other.errors, totalMs + other.totalMs,
+        Math.max(maxMs, other.maxMs));
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.pro_spring.service;
+
+import com.example.pro_spring.model.ClientRequestId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tablica deduplikacji zadan klientow. Dla kazdego klienta trzymane sa wyniki zadan z okna
+ * {@link #WINDOW} ostatnich numerow sekwencyjnych, liczonego od najwyzszego numeru (watermark),
+ * wiec rozmiar zalezy od liczby klientow, a nie od liczby zadan. Sesje sa osobne dla kazdej
+ * grupy Paxosa, bo numery sekwencyjne klienta w roznych grupach sa od siebie niezalezne. Liczba
+ * sesji jest ograniczona; po przekroczeniu limitu usuwana jest sesja nieuzywana najdluzej.
+ *
+ * <p>Ponowienie zadania w toku dostaje ten sam wynik zamiast nowej rundy. Ponowienie zadania,
+ * ktorego runda sie nie powiodla, uruchamia runde ponownie. Zadania wyslane rownolegle moga
+ * dojsc w innej kolejnosci niz numery sekwencyjne, wiec zadanie ponizej watermarku, ale w oknie,
+ * jest obslugiwane normalnie. Odrzucane jest dopiero zadanie sprzed okna, bo jego wynik nie jest
+ * juz pamietany.
+ *
+ * <p>Tablica jest lokalna dla wezla i nie jest replikowana przez Paxosa. Po zmianie lidera nowy
+ * lider nie zna sesji poprzedniego, wiec ponowienie zadania wyslane do niego uruchamia druga
+ * runde z ta sama wartoscia. Deduplikacja chroni wiec przed ponowieniami do tego samego lidera,
+ * a nie daje gwarancji exactly-once.
+ */
+@Component
+public class ClientSessions {
+
+  /**
+   * Liczba ostatnich numerow sekwencyjnych klienta, dla ktorych pamietane sa wyniki.
+   */
+  public static final int WINDOW = 32;
+
+  private final Map<SessionKey, Session> sessions;
+
+  private record SessionKey(int group, String clientId) {
+  }
+
+  private static final class Session {
+
+    private final TreeMap<Long, CompletableFuture<Integer>> results = new TreeMap<>();
+
+    boolean stale(long seq) {
+      return !results.isEmpty() && seq <= results.lastKey() - WINDOW;
+    }
+
+    CompletableFuture<Integer> pending(long seq) {
+      CompletableFuture<Integer> result = results.get(seq);
+      return result != null && !failed(result) ? result : null;
+    }
+
+    void put(long seq, CompletableFuture<Integer> result) {
+      results.put(seq, result);
+      results.headMap(results.lastKey() - WINDOW, true).clear();
+    }
+
+    private static boolean failed(CompletableFuture<Integer> result) {
+      return result.isCompletedExceptionally() || (result.isDone() && result.getNow(null) == null);
+    }
+  }
+
+  /**
+   * Tworzy tablice sesji.
+   *
+   * @param maxSessions maksymalna liczba pamietanych sesji
+   */
+  public ClientSessions(@Value("${paxos.client.sessions.max:10000}") int maxSessions) {
+    this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<SessionKey, Session> eldest) {
+        return size() > maxSessions;
+      }
+    };
+  }
+
+  /**
+   * Uruchamia runde dla zadania klienta albo zwraca wynik rundy juz uruchomionej dla tego
+   * samego zadania w tej samej grupie.
+   *
+   * @param group numer grupy Paxosa
+   * @param id    identyfikator zadania
+   * @param start uruchamia nowa runde Paxosa
+   * @return future z wartoscia zatwierdzona przez wiekszosc albo null, jesli zadanie jest sprzed
+   *     okna ostatnich zadan klienta
+   */
+  public synchronized CompletableFuture<Integer> propose(int group, ClientRequestId id,
+      Supplier<CompletableFuture<Integer>> start) {
+    SessionKey key = new SessionKey(group, id.clientId());
+    Session session = sessions.computeIfAbsent(key, k -> new Session());
+    if (session.stale(id.seq())) {
+      return null;
+    }
+    CompletableFuture<Integer> pending = session.pending(id.seq());
+    if (pending != null) {
+      return pending;
+    }
+
+    CompletableFuture<Integer> result = start.get();
+    session.put(id.seq(), result);
+    return result;
+  }
+
+  /**
+   * Zwraca liczbe pamietanych sesji.
+   *
+   * @return liczba sesji
+   */
+  public synchronized int size() {
+    return sessions.size();
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.pro_spring.service;
+
+import com.example.pro_spring.model.ClusterStatus;
+import com.example.pro_spring.model.NodeStatus;
+import com.example.pro_spring.model.PeerStatus;
+import com.example.pro_spring.transport.PeerTransport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Zbiera stan wszystkich wezlow klastra jednym wywolaniem. Zapytania /node_status sa wysylane
+ * rownolegle, a wezel, ktory nie odpowie w zadanym czasie, jest oznaczany jako nieosiagalny.
+ * Zapytania nie maja prefiksu grupy, wiec zbierany jest stan grupy 0.
+ */
+@Service
+public class ClusterStatusService {
+
+  private final PaxosServer server;
+  private final PeerTransport transport;
+  private final AsyncTaskExecutor executor;
+  private final ObjectMapper mapper;
+  private final long timeoutMs;
+
+  /**
+   * Tworzy serwis stanu klastra.
+   *
+   * @param server    lokalny serwer Paxos (lista wezlow i lider)
+   * @param transport kanal komunikacji z innymi serwerami
+   * @param executor  executor wykonujacy zapytania rownolegle
+   * @param mapper    mapper JSON
+   * @param timeoutMs maksymalny czas oczekiwania na odpowiedz pojedynczego wezla
+   */
+  public ClusterStatusService(PaxosServer server, PeerTransport transport,
+      AsyncTaskExecutor executor, ObjectMapper mapper,
+      @Value("${paxos.status.timeout-ms:1000}") long timeoutMs) {
+    this.server = server;
+    this.transport = transport;
+    this.executor = executor;
+    this.mapper = mapper;
+    this.timeoutMs = timeoutMs;
+  }
+
+  /**
+   * Pobiera stan wszystkich wezlow i wylicza opoznienie kazdego z nich wzgledem najnowszego
+   * zaakceptowanego numeru propozycji w klastrze.
+   *
+   * @return zbiorczy stan klastra
+   */
+  public ClusterStatus collect() {
+    List<String> peers = server.getPeers();
+    List<CompletableFuture<PeerStatus>> pending = new ArrayList<>(peers.size());
+    for (String peer : peers) {
+      pending.add(CompletableFuture.supplyAsync(() -> fetch(peer), executor)
+          .completeOnTimeout(new PeerStatus(peer, false, timeoutMs, -1, null),
+              timeoutMs, TimeUnit.MILLISECONDS));
+    }
+
+    List<PeerStatus> fetched = pending.stream().map(CompletableFuture::join).toList();
+    long highest = fetched.stream()
+        .filter(PeerStatus::reachable)
+        .mapToLong(p -> p.node().acceptedProposal())
+        .max()
+        .orElse(-1);
+
+    List<PeerStatus> nodes = fetched.stream()
+        .map(p -> p.reachable()
+            ? new PeerStatus(p.url(), true, p.rttMs(), highest - p.node().acceptedProposal(),
+                p.node())
+            : p)
+        .toList();
+    int reachable = (int) nodes.stream().filter(PeerStatus::reachable).count();
+
+    return new ClusterStatus(server.getLeaderPort(), peers.size(), reachable, highest,
+        nodes);
+  }
+
+  private PeerStatus fetch(String peer) {
+    long start = System.nanoTime();
+    String resp = transport.post(peer + "/node_status");
+    long rttMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    if (resp == null) {
+      return new PeerStatus(peer, false, rttMs, -1, null);
+    }
+    try {
+      return new PeerStatus(peer, true, rttMs, 0, mapper.readValue(resp, NodeStatus.class));
+    } catch (JsonProcessingException e) {
+      return new PeerStatus(peer, false, rttMs, -1, null);
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package com.example.pro_spring.service;
+
+import com.example.pro_spring.exception.ServerException;
+import com.example.pro_spring.transport.PeerTransport;
+import jakarta.annotation.PostConstruct;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rejestr niezaleznych grup Paxosa uruchomionych na tym wezle. Kazda grupa ma wlasny stan
+ * acceptora, lidera i kadencje, wiec zapisy do roznych grup nie czekaja na jednego lidera.
+ * Klucze sa przypisywane do grup przez hash, a poczatkowi liderzy grup sa rozlozeni po kolei na
+ * wszystkie wezly klastra.
+ *
+ * <p>Grupa 0 to serwer z kontekstu Springa, dostepny pod endpointami bez prefiksu. Pozostale
+ * grupy sa tworzone przez {@link PaxosServer#forGroup} i obsluguja endpointy z prefiksem
+ * /groups/{group}. Wszystkie wezly klastra musza miec te sama liczbe grup.
+ *
+ * <p>Rejestr prowadzi tez ogloszenia kadencji i terminy elekcji wszystkich grup. Ogloszenia grup,
+ * ktorych liderem jest ten wezel, ida do kazdego serwera w jednej ramce, wiec liczba zadan
+ * wysylanych co {@link PaxosServer#HEARTBEAT_MS} zalezy od liczby serwerow, a nie grup. Tak samo
+ * elekcje grup, ktorych termin minal w tym samym sprawdzeniu, wysylaja glosowania i ogloszenia
+ * zwyciezcow w jednej ramce do kazdego serwera. Ogloszenia i elekcje dzialaja na osobnej puli
+ * controlExecutor, a nie na puli rund, wiec obciazenie propozycjami ich nie opoznia.
+ */
+@Component
+public class PaxosGroups {
+
+  private final PaxosServer server;
+  private final PeerTransport transport;
+  private final AsyncTaskExecutor executor;
+  private final List<PaxosServer> groups;
+  private final Set<String> heartbeatsInFlight = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Tworzy rejestr grup.
+   *
+   * @param server    serwer grupy 0
+   * @param transport kanal komunikacji z innymi serwerami
+   * @param executor  executor ogloszen i elekcji
+   * @param count     liczba grup na wezle
+   */
+  public PaxosGroups(PaxosServer server, PeerTransport transport,
+      @Qualifier("controlExecutor") AsyncTaskExecutor executor,
+      @Value("${paxos.groups:1}") int count) {
+    this.server = server;
+    this.transport = transport;
+    this.executor = executor;
+    List<String> peers = server.getPeers();
+    List<PaxosServer> list = new ArrayList<>(count);
+    list.add(server);
+    for (int g = 1; g < count; g++) {
+      int leader = URI.create(peers.get(g % peers.size())).getPort();
+      list.add(server.forGroup(g, leader));
+    }
+    this.groups = List.copyOf(list);
+  }
+
+  /**
+   * Po starcie wezla kazda dodatkowa grupa szuka lidera znanego reszcie klastra.
+   */
+  @PostConstruct
+  public void discoverLeaders() {
+    for (int g = 1; g < groups.size(); g++) {
+      groups.get(g).discoverLeaderOnStartup();
+    }
+  }
+
+  /**
+   * Zwraca serwer grupy.
+   *
+   * @param group numer grupy albo null dla grupy 0
+   * @return serwer grupy
+   * @throws ServerException jesli grupa nie istnieje
+   */
+  public PaxosServer get(Integer group) {
+    int g = group != null ? group : 0;
+    if (g < 0 || g >= groups.size()) {
+      throw new ServerException("Nieznana grupa Paxosa: " + g);
+    }
+    return groups.get(g);
+  }
+
+  /**
+   * Zwraca grupe odpowiedzialna za klucz. Hash String jest okreslony w specyfikacji Javy, wiec
+   * wszystkie wezly przypisuja klucz do tej samej grupy.
+   *
+   * @param key klucz klienta
+   * @return numer grupy
+   */
+  public int groupFor(String key) {
+    return Math.floorMod(key.hashCode(), groups.size());
+  }
+
+  /**
+   * Zwraca wszystkie grupy, od grupy 0.
+   *
+   * @return niemodyfikowalna lista serwerow grup
+   */
+  public List<PaxosServer> all() {
+    return groups;
+  }
+
+  /**
+   * Wysyla ogloszenia kadencji wszystkich grup, ktorych liderem jest ten wezel, jedna ramka do
+   * kazdego z pozostalych serwerow. Grupa, ktora dostala odpowiedz z nowsza kadencja, oddaje
+   * przywodztwo. Ramki sa wysylane rownolegle przez executor, a do serwera, ktory nie odpowiedzial
+   * jeszcze na poprzednia ramke, kolejna nie jest wysylana. Zawieszony serwer zajmuje wiec
+   * najwyzej jeden watek i nie opoznia ogloszen do pozostalych ani innych zadan planisty.
+   */
+  @Scheduled(fixedDelay = PaxosServer.HEARTBEAT_MS)
+  public void heartbeat() {
+    List<PaxosServer> leading = new ArrayList<>();
+    List<String> announcements = new ArrayList<>();
+    for (PaxosServer group : groups) {
+      String announcement = group.announcement();
+      if (announcement != null) {
+        leading.add(group);
+        announcements.add(group.getBasePath() + announcement);
+      }
+    }
+    if (leading.isEmpty()) {
+      return;
+    }
+
+    for (String peer : server.getPeers()) {
+      if (URI.create(peer).getPort() == server.getPort() || !heartbeatsInFlight.add(peer)) {
+        continue;
+      }
+      executor.submit(() -> {
+        try {
+          List<String> responses = transport.postBatch(peer, announcements);
+          for (int i = 0; i < leading.size(); i++) {
+            leading.get(i).announced(responses.get(i));
+          }
+        } finally {
+          heartbeatsInFlight.remove(peer);
+        }
+      });
+    }
+  }
+
+  /**
+   * Sprawdza terminy elekcji wszystkich grup. Sprawdzenie jest lokalne, a elekcje, ktorych termin
+   * minal, sa zlecane executorowi. Grupy bez znanego lidera szukaja go osobno; pozostale elekcje
+   * z tego sprawdzenia sa prowadzone razem przez {@link #elect(List)}.
+   */
+  @Scheduled(fixedDelay = PaxosServer.WATCH_MS)
+  public void watcher() {
+    Map<PaxosServer, Integer> due = new LinkedHashMap<>();
+    for (PaxosServer group : groups) {
+      int leader = group.claimElection();
+      if (leader == -1) {
+        executor.submit(() -> group.runElection(leader));
+      } else if (leader != PaxosServer.NO_ELECTION) {
+        due.put(group, leader);
+      }
+    }
+
+    if (due.size() == 1) {
+      Map.Entry<PaxosServer, Integer> only = due.entrySet().iterator().next();
+      executor.submit(() -> only.getKey().runElection(only.getValue()));
+    } else if (!due.isEmpty()) {
+      List<PaxosServer> claimed = List.copyOf(due.keySet());
+      executor.submit(() -> elect(claimed));
+    }
+  }
+
+  /**
+   * Prowadzi elekcje kilku grup naraz. Zywotnosc dotychczasowego lidera jest sprawdzana raz dla
+   * kazdego wezla, glosowania wszystkich kandydatur ida jedna ramka do kazdego serwera, a
+   * ogloszenia zwyciezcow druga. Na koniec zwalnia rezerwacje elekcji wszystkich grup.
+   */
+  private void elect(List<PaxosServer> due) {
+    try {
+      Map<Integer, Boolean> alive = new HashMap<>();
+      List<PaxosServer> candidates = new ArrayList<>();
+      List<PaxosServer.Candidacy> candidacies = new ArrayList<>();
+      List<String> votes = new ArrayList<>();
+      for (PaxosServer group : due) {
+        if (alive.computeIfAbsent(group.getLeaderPort(), l -> group.leaderAlive())) {
+          continue;
+        }
+        PaxosServer.Candidacy candidacy = group.candidacy();
+        if (candidacy != null) {
+          candidates.add(group);
+          candidacies.add(candidacy);
+          votes.add(group.getBasePath() + candidacy.voteRequest());
+        }
+      }
+      if (candidacies.isEmpty()) {
+        return;
+      }
+
+      List<List<String>> responses = broadcast(votes);
+      List<String> announcements = new ArrayList<>();
+      for (int i = 0; i < candidacies.size(); i++) {
+        if (candidacies.get(i).won(responses.get(i))) {
+          announcements.add(candidates.get(i).getBasePath()
+              + candidacies.get(i).announceRequest());
+        }
+      }
+      if (!announcements.isEmpty()) {
+        broadcast(announcements);
+      }
+    } finally {
+      due.forEach(PaxosServer::finishElection);
+    }
+  }
+
+  /**
+   * Wysyla ramke do wszystkich serwerow rownolegle przez executor i czeka na odpowiedzi najwyzej
+   * {@link PaxosServer#HEARTBEAT_MS}, tak jak pojedyncza elekcja.
+   *
+   * @param requests zadania ramki z prefiksami grup
+   * @return dla kazdego zadania odpowiedzi, ktore nadeszly w czasie, bez brakujacych
+   */
+  private List<List<String>> broadcast(List<String> requests) {
+    List<List<String>> responses = new ArrayList<>(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      responses.add(Collections.synchronizedList(new ArrayList<>()));
+    }
+    List<String> peers = server.getPeers();
+    CountDownLatch latch = new CountDownLatch(peers.size());
+
+    for (String peer : peers) {
+      executor.submit(() -> {
+        try {
+          List<String> frame = transport.postBatch(peer, requests);
+          for (int i = 0; i < requests.size() && i < frame.size(); i++) {
+            if (frame.get(i) != null) {
+              responses.get(i).add(frame.get(i));
+            }
+          }
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+
+    try {
+      latch.await(PaxosServer.HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    List<List<String>> result = new ArrayList<>(responses.size());
+    for (List<String> r : responses) {
+      synchronized (r) {
+        result.add(List.copyOf(r));
+      }
+    }
+    return result;
+  }
+}
@@ -1,58 +1,94 @@
 package com.example.pro_spring.service;
 
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.events.ClusterEvent;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.exception.ServerBusyException;
 import com.example.pro_spring.exception.ServerException;
+import com.example.pro_spring.jfr.AcceptorCallEvent;
+import com.example.pro_spring.jfr.LeaderElectionEvent;
+import com.example.pro_spring.jfr.PaxosRoundEvent;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.model.AcceptorState;
+import com.example.pro_spring.model.ClientRequestId;
+import com.example.pro_spring.model.NodeMetrics;
+import com.example.pro_spring.model.NodeStatus;
 import com.example.pro_spring.model.Promise;
-import com.example.pro_spring.util.HttpUtil;
+import com.example.pro_spring.trace.ProtocolTrace;
+import com.example.pro_spring.transport.PeerTransport;
 import jakarta.annotation.PostConstruct;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 /**
  * Serwis implementujacy Paxos. Kazda instancja reprezentuje pojedynczy wezel w klastrze Paxosa.
- * Komunikacja pomiedzy wezlami odbywa sie przez wywolania HTTP.
+ * Komunikacja pomiedzy wezlami odbywa sie przez PeerTransport, domyslnie wywolaniami HTTP.
  */
 @Service
 public class PaxosServer {
 
-  private static final List<String> SERVERS = List.of(
-      "http://localhost:8000",
-      "http://localhost:8001",
-      "http://localhost:8002",
-      "http://localhost:8003",
-      "http://localhost:8004",
-      "http://localhost:8005",
-      "http://localhost:8006",
-      "http://localhost:8007"
-  );
-
-  private static final double FAIL_CHANCE = 0.00;
-  private static final int MAJORITY = 5;
-  private static volatile int leaderPort;
+  private static final int MAX_ROUND_ATTEMPTS = 5;
+  private static final long BASE_BACKOFF_MS = 20;
+  private static final long MAX_BACKOFF_MS = 500;
+  private static final long NO_RETRY = -1;
+  static final long HEARTBEAT_MS = 1000;
+  private static final long ELECTION_TIMEOUT_MS = 3 * HEARTBEAT_MS;
+  static final long WATCH_MS = 250;
+  static final int NO_ELECTION = Integer.MIN_VALUE;
+  public static final int MAX_ROUNDS_IN_FLIGHT = 64;
+  static final long PHASE_TIMEOUT_MS = 5 * HEARTBEAT_MS;
   @Getter
   private final int id;
   @Getter
   private final int port;
-  private final ThreadPoolTaskExecutor executor;
+  @Getter
+  private final int group;
+  @Getter
+  private final String basePath;
+  private final AsyncTaskExecutor executor;
+  private final AsyncTaskExecutor rpcExecutor;
+  private final AsyncTaskExecutor controlExecutor;
   private final ConfigurableApplicationContext ctx;
+  private final PaxosMetrics metrics;
+  private final ProtocolTrace trace;
+  private final ClusterEvents events;
+  private final PeerTransport transport;
+  private final ProtocolClock clock;
+  private final List<String> nodeUrls;
+  private final Map<Integer, String> urlsByPort;
+  @Getter
+  private final List<String> peers;
+  private final int majority;
+  private final Semaphore rounds = new Semaphore(MAX_ROUNDS_IN_FLIGHT);
+  private final AtomicLong lastProposalId = new AtomicLong(NO_RETRY);
+  private final AtomicLong votedTerm = new AtomicLong(0);
+  private volatile long electionDeadline;
+  private final AtomicBoolean electing = new AtomicBoolean();
+  private volatile Leader leader = new Leader(-1, 0);
   private volatile boolean running = true;
-  private int promisedProposal = -1;
-  private int acceptedProposal = -1;
-  private int acceptedValue = -1;
-  private int prevPromisedProposal = -1;
-  private int prevAcceptedProposal = -1;
-  private int prevAcceptedValue = -1;
+  private final AtomicReference<AcceptorState> acceptor =
+      new AtomicReference<>(AcceptorState.EMPTY);
   @Getter
   private volatile boolean stuck = false;
   @Getter
@@ -63,44 +99,139 @@ public class PaxosServer {
   private static final String LOCALHOST = "http://localhost:";
 
   /**
-   * Tworzy instancje serwera Paxos.
+   * Lider znany serwerowi i kadencja, w ktorej zostal wybrany. Oba pola zmieniaja sie razem, wiec
+   * odczyt jednej referencji daje spojna pare.
+   */
+  private record Leader(int port, long term) {
+  }
+
+  /**
+   * Tworzy instancje serwera Paxos dla grupy 0, ktorej endpointy nie maja prefiksu.
    *
-   * @param port     port HTTP serwera
-   * @param id       identyfikator
-   * @param leader   port poczatkowego lidera
-   * @param executor executor watkow
-   * @param ctx      kontekst Springa
+   * @param port            port HTTP serwera
+   * @param id              identyfikator
+   * @param leader          port poczatkowego lidera
+   * @param executor        executor rund Paxosa
+   * @param rpcExecutor     executor wywolan do innych serwerow w fazach rundy
+   * @param controlExecutor executor elekcji, niezalezny od obciazenia propozycjami
+   * @param ctx             kontekst Springa
+   * @param metrics         metryki protokolu
+   * @param trace           log sledzenia protokolu
+   * @param events          strumien zdarzen dla panelu
+   * @param transport       kanal komunikacji z innymi serwerami
+   * @param cluster         sklad klastra
+   * @param clock           zrodlo czasu dla numerow propozycji i opoznien ponowien
    */
+  @Autowired
   public PaxosServer(@Value("${server.port}") int port, @Value("${paxos.id}") int id,
-      @Value("${paxos.leaderPort}") int leader, ThreadPoolTaskExecutor executor,
-      ConfigurableApplicationContext ctx
+      @Value("${paxos.leaderPort}") int leader, AsyncTaskExecutor executor,
+      @Qualifier("rpcExecutor") AsyncTaskExecutor rpcExecutor,
+      @Qualifier("controlExecutor") AsyncTaskExecutor controlExecutor,
+      ConfigurableApplicationContext ctx, PaxosMetrics metrics, ProtocolTrace trace,
+      ClusterEvents events, PeerTransport transport, PaxosProperties cluster, ProtocolClock clock
   ) {
+    this(port, id, 0, leader, executor, rpcExecutor, controlExecutor, ctx, metrics, trace,
+        events, transport, cluster.urls(), clock);
+  }
+
+  private PaxosServer(int port, int id, int group, int leader, AsyncTaskExecutor executor,
+      AsyncTaskExecutor rpcExecutor, AsyncTaskExecutor controlExecutor,
+      ConfigurableApplicationContext ctx, PaxosMetrics metrics, ProtocolTrace trace,
+      ClusterEvents events, PeerTransport transport, List<String> urls, ProtocolClock clock) {
     this.port = port;
     this.id = id;
+    this.group = group;
+    this.basePath = group == 0 ? "" : "/groups/" + group;
     this.executor = executor;
+    this.rpcExecutor = rpcExecutor;
+    this.controlExecutor = controlExecutor;
     this.ctx = ctx;
+    this.metrics = metrics;
+    this.trace = trace;
+    this.events = events;
+    this.transport = transport;
+    this.clock = clock;
+    this.nodeUrls = urls;
+    this.urlsByPort = urls.stream()
+        .collect(Collectors.toMap(u -> URI.create(u).getPort(), u -> u + basePath));
+    this.peers = urls.stream().map(u -> u + basePath).toList();
+    this.majority = peers.size() / 2 + 1;
     setLeaderPort(leader);
+    resetElectionTimer();
+
+    log.info(" SERVER {} Wlaczony na porcie {} (grupa={}, leader={}) %n", id, port, group,
+        leader);
+  }
+
+  /**
+   * Tworzy serwer kolejnej grupy Paxosa na tym samym wezle. Grupa ma wlasny stan acceptora,
+   * lidera i kadencje, a dzieli z tym serwerem port, transport, executory, metryki i zegar.
+   * Endpointy grupy maja prefiks /groups/{group}.
+   *
+   * @param group  numer grupy, wiekszy od 0
+   * @param leader port poczatkowego lidera grupy
+   * @return serwer grupy
+   */
+  public PaxosServer forGroup(int group, int leader) {
+    return new PaxosServer(port, id, group, leader, executor, rpcExecutor, controlExecutor, ctx,
+        metrics, trace, events, transport, nodeUrls, clock);
+  }
+
+  /**
+   * Zwraca port lidera znanego temu serwerowi.
+   */
+  public int getLeaderPort() {
+    return leader.port();
+  }
 
-    log.info(" SERVER {} Wlaczony na porcie {} (leader={}) %n", id, port, leaderPort);
+  /**
+   * Zwraca numer kadencji lidera znanego temu serwerowi.
+   */
+  public long getLeaderTerm() {
+    return leader.term();
   }
 
   /**
-   * Zwraca port aktualnego lidera.
+   * Ustawia nowy port lidera bez zmiany kadencji.
    */
-  public static synchronized int getLeaderPort() {
-    return leaderPort;
+  public synchronized void setLeaderPort(int p) {
+    changeLeaderPort(p, leader.term());
   }
 
   /**
-   * Ustawia nowy port lidera.
+   * Ustawia lidera wybranego w podanej kadencji. Lider starszej kadencji niz biezaca jest
+   * ignorowany, wiec spoznione ogloszenie nie przywroci zdetronizowanego lidera.
+   *
+   * @param p    port lidera
+   * @param term kadencja, w ktorej lider zostal wybrany
+   * @return true, jesli lider zostal przyjety
    */
-  public static synchronized void setLeaderPort(int p) {
-    if (leaderPort == p) {
+  public synchronized boolean setLeader(int p, long term) {
+    if (term < leader.term()) {
+      return false;
+    }
+    changeLeaderPort(p, term);
+    return true;
+  }
+
+  private void changeLeaderPort(int p, long term) {
+    Leader previous = leader;
+    leader = new Leader(p, term);
+    if (previous.port() == p) {
       return;
     }
 
-    log.info("LEADER CHANGE: {} -> {}%n", leaderPort, p);
-    leaderPort = p;
+    log.info("[SERVER {}] LEADER CHANGE: {} -> {}%n", port, previous.port(), p);
+    metrics.leaderChanged(group);
+  }
+
+  /**
+   * Zwraca adres tej grupy na serwerze o podanym porcie, wziety ze skladu klastra, wiec serwery
+   * moga dzialac na roznych hostach. Port spoza skladu klastra jest szukany na localhost.
+   */
+  private String urlOf(int serverPort) {
+    String url = urlsByPort.get(serverPort);
+    return url != null ? url : LOCALHOST + serverPort + basePath;
   }
 
   /**
@@ -109,9 +240,9 @@ public class PaxosServer {
    * @param url adres serwera
    * @return true jesli serwer odpowiada poprawnym stanem, false w przeciwnym razie
    */
-  private static boolean isAlive(String url) {
+  private boolean isAlive(String url) {
     try {
-      String resp = HttpUtil.postParams(url + "/accepted_state");
+      String resp = transport.post(url + "/accepted_state");
       return resp != null && resp.startsWith("STATE");
     } catch (Exception e) {
       return false;
@@ -119,35 +250,42 @@ public class PaxosServer {
   }
 
 
-  private Integer discoverLeaderFromCluster() {
+  /**
+   * Pyta wszystkie serwery o znanego im lidera i wybiera zyjacego lidera najnowszej kadencji.
+   *
+   * @return port i kadencja lidera albo null, jesli zaden zyjacy lider nie jest znany
+   */
+  private long[] discoverLeaderFromCluster() {
 
-    Integer bestLeader = null;
+    long[] best = null;
 
-    for (String s : SERVERS) {
+    for (String s : peers) {
 
       try {
-        String resp = HttpUtil.postParams(s + "/leader");
+        String resp = transport.post(s + "/leader_info");
 
-        if (resp == null) {
+        if (resp == null || !resp.startsWith("LEADER,")) {
           continue;
         }
 
-        int leader = Integer.parseInt(resp.trim());
+        String[] p = resp.split(",");
+        int leader = Integer.parseInt(p[1].trim());
+        long term = Long.parseLong(p[2].trim());
 
-        boolean alive = isAlive(LOCALHOST + leader);
-        boolean betterThanCurrent =
-            bestLeader == null || leader < bestLeader;
+        if (leader == -1 || (best != null && term <= best[1])) {
+          continue;
+        }
 
-        if (alive && betterThanCurrent) {
-          bestLeader = leader;
+        if (isAlive(urlOf(leader))) {
+          best = new long[] {leader, term};
         }
 
-      } catch (ServerException e) {
+      } catch (ServerException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
         log.info("[SERVER {}] {} niedostepny%n", port, s);
       }
     }
 
-    return bestLeader;
+    return best;
   }
 
   /**
@@ -155,15 +293,15 @@ public class PaxosServer {
    */
   @PostConstruct
   public void discoverLeaderOnStartup() {
-    executor.submit(() -> {
+    controlExecutor.submit(() -> {
 
-      Integer discovered = discoverLeaderFromCluster();
+      long[] discovered = discoverLeaderFromCluster();
 
       if (discovered != null) {
-        setLeaderPort(discovered);
+        adoptLeader(discovered);
         log.info(
-            "[SERVER {}] Odkryto istniejacego lidera: {}%n",
-            port, discovered
+            "[SERVER {}] Odkryto istniejacego lidera: {} (kadencja {})%n",
+            port, discovered[0], discovered[1]
         );
         return;
       }
@@ -175,121 +313,348 @@ public class PaxosServer {
   /**
    * Recznie ustawia promisedProposal.
    */
-  public synchronized void injectPromised(int x) {
-    promisedProposal = x;
-    log.info("[SERVER {}] INJECT promised={}%n", port, x);
+  public void injectPromised(int x) {
+    acceptor.updateAndGet(s -> s.withPromised(x));
+    trace.record(port, "INJECT_PROMISED", -1, x, null, null);
+    publish("INJECT", -1, x);
   }
 
   /**
    * Recznie ustawia acceptedProposal.
    */
-  public synchronized void injectAcceptedProposal(int x) {
-    acceptedProposal = x;
-    log.info("[SERVER {}] INJECT acceptedProposal={}%n", port, x);
+  public void injectAcceptedProposal(int x) {
+    acceptor.updateAndGet(s -> s.withAcceptedProposal(x));
+    trace.record(port, "INJECT_ACCEPTED_PROPOSAL", -1, x, null, null);
+    publish("INJECT", -1, x);
   }
 
   /**
    * Recznie ustawia acceptedValue.
    */
-  public synchronized void injectAcceptedValue(int x) {
-    acceptedValue = x;
-    log.info("[SERVER {}] INJECT acceptedValue={}%n", port, x);
+  public void injectAcceptedValue(int x) {
+    acceptor.updateAndGet(s -> s.withAcceptedValue(x));
+    trace.record(port, "INJECT_ACCEPTED_VALUE", -1, x, null, null);
+    publish("INJECT", -1, x);
+  }
+
+  /**
+   * Zwraca ogloszenie kadencji, ktore lider wysyla pozostalym serwerom. PaxosGroups zbiera
+   * ogloszenia wszystkich grup co {@link #HEARTBEAT_MS} i wysyla je do serwera w jednej ramce.
+   *
+   * @return sciezka /leader_announce z parametrami, bez prefiksu grupy, albo null, jesli ten
+   *     serwer nie jest liderem
+   */
+  public String announcement() {
+    if (!running || stuck || getLeaderPort() != port) {
+      return null;
+    }
+    return "/leader_announce?term=" + getLeaderTerm() + "&leader=" + port;
   }
 
   /**
-   * Okresowo sprawdza dostepnosc lidera i inicjuje elekcje w razie awarii.
+   * Obsluguje odpowiedz na ogloszenie kadencji. REJECT z nowsza kadencja oznacza, ze lider
+   * zostal zastapiony, wiec oddaje przywodztwo i czeka na odkrycie nowego lidera.
+   *
+   * @param resp odpowiedz serwera lub null
+   * @return false, jesli ten serwer nie jest juz liderem
+   */
+  public boolean announced(String resp) {
+    long term = getLeaderTerm();
+    long newer = rejectedBallot(resp, 2);
+    if (newer <= term) {
+      return getLeaderPort() == port;
+    }
+    log.info("[SERVER {}] Zastapiony w kadencji {} – oddaje przywodztwo%n", port, newer);
+    votedTerm.accumulateAndGet(newer, Math::max);
+    changeLeader(-1, newer);
+    return false;
+  }
+
+  /**
+   * Sprawdza lokalnie, czy od lidera w pore nadeszlo ogloszenie kadencji. Dopoki lider wysyla
+   * je regularnie, watcher nie wysyla zadnych zapytan. Elekcja zaczyna sie dopiero po uplywie
+   * losowego limitu czasu, wiec followerzy rzadko ubiegaja sie o przywodztwo jednoczesnie.
+   * Odkrywanie lidera i elekcja sa zlecane executorowi, bo watcher dziala we wspolnym watku
+   * planisty. PaxosGroups sprawdza terminy wszystkich grup przez {@link #claimElection()}, aby
+   * elekcje kilku grup wyslac razem.
    */
-  @Scheduled(fixedDelay = 3000)
   public void watcher() {
+    int leader = claimElection();
+    if (leader != NO_ELECTION) {
+      controlExecutor.submit(() -> runElection(leader));
+    }
+  }
+
+  /**
+   * Sprawdza, czy minal termin elekcji, i rezerwuje ja, aby kolejna elekcja tej grupy nie
+   * wystartowala, dopoki poprzednia sie nie zakonczy. Rezerwacje zwalnia
+   * {@link #finishElection()}.
+   *
+   * @return port lidera, od ktorego nie nadeszlo ogloszenie (-1, jesli lider jest nieznany), albo
+   *     {@link #NO_ELECTION}, jesli termin nie minal lub elekcja juz trwa
+   */
+  int claimElection() {
 
     if (!running || stuck) {
-      return;
+      return NO_ELECTION;
     }
 
     int leader = getLeaderPort();
 
-    if (leader == -1) {
-      log.info("[SERVER {}] Brak lidera – odkrywanie%n", port);
-      discoverLeaderOnRecovery();
-      return;
+    if (leader == port || clock.millis() < electionDeadline) {
+      return NO_ELECTION;
     }
+    resetElectionTimer();
 
-    if (leader == port) {
-      return;
-    }
+    return electing.compareAndSet(false, true) ? leader : NO_ELECTION;
+  }
 
-    if (!isAlive(LOCALHOST + leader)) {
-      log.info(
-          "[SERVER {}] Leader {} nie zyje – start elekcji%n",
-          port, leader
-      );
+  /**
+   * Prowadzi zarezerwowana elekcje tej grupy: bez znanego lidera najpierw go szuka, w przeciwnym
+   * razie ubiega sie o przywodztwo. Na koniec zwalnia rezerwacje.
+   *
+   * @param leader port lidera zwrocony przez {@link #claimElection()}
+   */
+  void runElection(int leader) {
+    try {
+      if (leader == -1) {
+        log.info("[SERVER {}] Brak lidera – odkrywanie%n", port);
+        discoverLeaderOnRecovery();
+      } else {
+        log.info("[SERVER {}] Brak ogloszen lidera {} – start elekcji%n", port, leader);
+        electNewLeader();
+      }
+    } finally {
+      finishElection();
     }
-    electNewLeader();
+  }
+
+  /**
+   * Zwalnia rezerwacje elekcji zrobiona przez {@link #claimElection()}.
+   */
+  void finishElection() {
+    electing.set(false);
+  }
+
+  /**
+   * Wyznacza nowy termin elekcji, losowany z przedzialu od jednego do dwoch limitow czasu.
+   */
+  private void resetElectionTimer() {
+    electionDeadline = clock.millis()
+        + clock.randomDelay(ELECTION_TIMEOUT_MS, 2 * ELECTION_TIMEOUT_MS);
   }
 
   /**
    * Ustalenie portu lidera po powrocie z stanu stuck.
    */
   private void discoverLeaderOnRecovery() {
-    Integer discovered = discoverLeaderFromCluster();
+    long[] discovered = discoverLeaderFromCluster();
 
     if (discovered != null) {
-      setLeaderPort(discovered);
+      adoptLeader(discovered);
     } else {
       electNewLeader();
     }
   }
 
   /**
-   * Przeprowadza wybor nowego lidera na podstawie najnizszego portu.
+   * Przyjmuje lidera odkrytego w klastrze i jego kadencje.
+   */
+  private void adoptLeader(long[] discovered) {
+    votedTerm.accumulateAndGet(discovered[1], Math::max);
+    changeLeader((int) discovered[0], discovered[1]);
+  }
+
+  /**
+   * Ubiega sie o przywodztwo. Wybor dziala jak faza PREPARE Paxosa na numerach kadencji: kandydat
+   * wybiera kadencje wyzsza od wszystkich znanych, unikalna dla tego serwera, i prosi wszystkie
+   * serwery o glos. Serwer glosuje na dana kadencje tylko wtedy, gdy jest wyzsza od kazdej, na
+   * ktora juz glosowal, wiec w jednej kadencji wiekszosc moze zdobyc co najwyzej jeden kandydat.
+   * Zwyciezca oglasza sie liderem; serwery przyjmuja ogloszenie tylko z kadencji nie starszej niz
+   * ta, na ktora glosowaly, wiec lider poprzedniej kadencji nie moze juz odzyskac przywodztwa.
    */
   private void electNewLeader() {
+    if (leaderAlive()) {
+      return;
+    }
+    Candidacy candidacy = candidacy();
+    if (candidacy != null && candidacy.won(broadcast(candidacy.voteRequest()))) {
+      broadcast(candidacy.announceRequest());
+    }
+  }
 
+  /**
+   * Sprawdza, czy lider, od ktorego nie nadeszlo ogloszenie, nadal odpowiada.
+   *
+   * @return true, jesli inny serwer jest liderem i odpowiada, wiec elekcja nie jest potrzebna
+   */
+  boolean leaderAlive() {
     int currentLeader = getLeaderPort();
-    if (currentLeader != port
-        && isAlive(LOCALHOST + currentLeader)) {
-      return;
+    return currentLeader != port && isAlive(urlOf(currentLeader));
+  }
+
+  /**
+   * Wybiera kadencje, o ktora ten serwer bedzie sie ubiegal, wyzsza od wszystkich znanych i
+   * unikalna dla tego serwera.
+   *
+   * @return kandydatura albo null, jesli serwer jest zaciety
+   */
+  Candidacy candidacy() {
+    if (stuck) {
+      return null;
     }
+    return new Candidacy(nextProposalAbove(Math.max(votedTerm.get(), getLeaderTerm())));
+  }
 
-    List<Integer> ports = new ArrayList<>();
+  /**
+   * Kandydatura tego serwera w jednej kadencji. Zadania nie maja prefiksu grupy, wiec moga byc
+   * wyslane pod adresy {@link #getPeers()} albo, z {@link #getBasePath()}, w ramce do wezla.
+   */
+  final class Candidacy {
+
+    private final long term;
+    private final LeaderElectionEvent event = new LeaderElectionEvent();
 
-    if (!stuck) {
-      ports.add(port);
+    private Candidacy(long term) {
+      this.term = term;
+      event.start(port, getLeaderPort(), term);
     }
 
-    for (String s : SERVERS) {
-      try {
-        String resp = HttpUtil.postParams(s + "/election");
+    String voteRequest() {
+      return "/vote?term=" + term;
+    }
 
-        if (resp == null) {
-          continue;
-        }
+    String announceRequest() {
+      return "/leader_announce?term=" + term + "&leader=" + port;
+    }
 
-        int p = Integer.parseInt(resp.trim());
-        ports.add(p);
+    /**
+     * Liczy glosy. Przy wiekszosci serwer zostaje liderem i powinien oglosic
+     * {@link #announceRequest()}; przy przegranej zapamietuje najwyzsza kadencje z odmow.
+     *
+     * @param responses odpowiedzi serwerow na {@link #voteRequest()}
+     * @return true, jesli serwer wygral elekcje
+     */
+    boolean won(List<String> responses) {
+      int votes = 0;
+      long highest = term;
+      for (String resp : responses) {
+        if (resp.startsWith("VOTE")) {
+          votes++;
+        } else {
+          highest = Math.max(highest, rejectedBallot(resp, 2));
+        }
+      }
 
-      } catch (NumberFormatException e) {
-        log.info("[SERVER {}] {} jest STUCK ({})%n", port, s, e.getMessage());
+      if (votes < majority) {
+        votedTerm.accumulateAndGet(highest, Math::max);
+        event.finish(votes, -1);
+        log.info("[SERVER {}] Przegrana elekcja w kadencji {} ({} glosow)%n", port, term, votes);
+        return false;
       }
+
+      changeLeader(port, term);
+      event.finish(votes, port);
+      log.info("[SERVER {}] Wybrany na lidera w kadencji {} ({} glosow)%n", port, term, votes);
+      return true;
     }
+  }
 
-    if (ports.isEmpty()) {
-      log.info("[SERVER {}] Brak kandydatow na lidera%n", port);
-      return;
+  /**
+   * Wysyla zadanie do wszystkich serwerow rownolegle przez executor i czeka na odpowiedzi
+   * najwyzej {@link #HEARTBEAT_MS}. Serwer, ktory w tym czasie nie odpowie, jest traktowany jak
+   * niedostepny, wiec zawieszony serwer nie wstrzymuje elekcji.
+   *
+   * @param request sciezka z parametrami, dopisywana do adresu kazdego serwera
+   * @return odpowiedzi, ktore nadeszly w czasie, bez brakujacych
+   */
+  private List<String> broadcast(String request) {
+
+    List<String> responses = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch latch = new CountDownLatch(peers.size());
+
+    for (String s : peers) {
+      controlExecutor.submit(() -> {
+        try {
+          String resp = transport.post(s + request);
+          if (resp != null) {
+            responses.add(resp);
+          }
+        } finally {
+          latch.countDown();
+        }
+      });
     }
 
-    int winner = ports.stream().min(Integer::compare).orElse(port);
-    setLeaderPort(winner);
+    try {
+      latch.await(HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
 
-    log.info("[SERVER {}] Nowy leader wybrany = {}%n", port, winner);
+    synchronized (responses) {
+      return List.copyOf(responses);
+    }
   }
 
+  /**
+   * Oddaje glos na kandydata w podanej kadencji, jesli jest ona wyzsza od kazdej, na ktora ten
+   * serwer juz glosowal.
+   *
+   * @param term kadencja kandydata
+   * @return VOTE z kadencja, REJECT z najwyzsza kadencja, na ktora oddano glos, lub komunikat
+   *     blokady
+   */
+  public String vote(long term) {
+    if (stuck) {
+      return stuckMessage;
+    }
+    if (!running) {
+      return null;
+    }
+    long previous = votedTerm.getAndAccumulate(term, Math::max);
+    return term > previous ? "VOTE," + term : "REJECT," + previous;
+  }
+
+  /**
+   * Przyjmuje ogloszenie zwyciezcy elekcji lub okresowe ogloszenie kadencji przez lidera i
+   * przesuwa termin elekcji.
+   *
+   * @param term   kadencja zwyciezcy
+   * @param leader port zwyciezcy
+   * @return LEADER z portem i kadencja, REJECT z kadencja, na ktora oddano glos, jesli
+   *     ogloszenie jest spoznione, lub komunikat blokady
+   */
+  public String announce(long term, int leader) {
+    if (stuck) {
+      return stuckMessage;
+    }
+    if (!running) {
+      return null;
+    }
+    long voted = votedTerm.accumulateAndGet(term, Math::max);
+    if (term < voted || !changeLeader(leader, term)) {
+      return "REJECT," + Math.max(voted, getLeaderTerm());
+    }
+    resetElectionTimer();
+    return "LEADER," + leader + "," + term;
+  }
+
+  /**
+   * Zwraca lidera znanego temu serwerowi wraz z kadencja.
+   *
+   * @return LEADER,port,kadencja
+   */
+  public String leaderInfo() {
+    return "LEADER," + getLeaderPort() + "," + getLeaderTerm();
+  }
 
   /**
    * Symuluje awarie serwera i zamyka kontekst aplikacji.
    */
   public void crash() {
     running = false;
+    publish("CRASH", -1, -1);
     log.info("[SERVER {}] Crash za 300ms%n", port);
 
     new Thread(() -> {
@@ -298,51 +663,166 @@ public class PaxosServer {
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
       }
-      ctx.close();
+      if (ctx != null) {
+        ctx.close();
+      }
     }).start();
   }
 
   /**
-   * Inicjuje nowa runde Paxosa.
+   * Inicjuje nowa runde Paxosa. Serwer prowadzi najwyzej {@link #MAX_ROUNDS_IN_FLIGHT} rund
+   * naraz, liczac rundy czekajace w kolejce executora. Kolejna runda nie jest kolejkowana, tylko
+   * od razu odrzucana, aby przy przeciazeniu klient dostal odpowiedz zamiast czekac bez konca.
+   *
+   * @param value wartosc zaproponowana przez klienta
+   * @return future z wartoscia zatwierdzona przez wiekszosc albo null, jesli runda sie nie
+   *     powiodla; zakonczony wyjatkiem {@link ServerBusyException}, jesli serwer jest przeciazony
    */
-  public void startPaxos(int value) {
-    executor.submit(() -> runPaxosRound(value));
+  public CompletableFuture<Integer> startPaxos(int value) {
+    if (!rounds.tryAcquire()) {
+      metrics.roundRejected();
+      return CompletableFuture.failedFuture(
+          new ServerBusyException("Limit rund w toku: " + MAX_ROUNDS_IN_FLIGHT));
+    }
+    CompletableFuture<Integer> result = new CompletableFuture<>();
+    executor.submit(() -> {
+      try {
+        result.complete(runPaxosRound(value));
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      } finally {
+        rounds.release();
+      }
+    });
+    return result;
   }
 
   /**
-   * Zapisuje poprzedni stan do rollbacku.
+   * Przekazuje propozycje klienta do aktualnego lidera i zwraca jego odpowiedz. Zadanie jest
+   * oznaczone jako przekazane, wiec serwer, ktory w miedzyczasie przestal byc liderem, odpowie
+   * NOT_LEADER zamiast przekazywac je dalej.
+   *
+   * @param value         wartosc zaproponowana przez klienta
+   * @param waitForCommit czy lider ma odpowiedziec dopiero po zakonczeniu rundy
+   * @param requestId     identyfikator zadania klienta przekazywany liderowi lub null
+   * @return odpowiedz lidera albo NOT_LEADER z portem lidera, jesli lider nie odpowiedzial
    */
-  private synchronized void savePrevState() {
-    prevPromisedProposal = promisedProposal;
-    prevAcceptedProposal = acceptedProposal;
-    prevAcceptedValue = acceptedValue;
+  public CompletableFuture<String> forwardToLeader(int value, boolean waitForCommit,
+      ClientRequestId requestId) {
+    CompletableFuture<String> result = new CompletableFuture<>();
+    rpcExecutor.submit(() -> {
+      try {
+        int leader = getLeaderPort();
+        metrics.clientForwarded();
+        String resp = transport.post(urlOf(leader) + "/client_propose?value=" + value
+            + (waitForCommit ? "&wait=true" : "") + "&forwarded=true"
+            + (requestId != null ? requestId.query() : ""));
+        trace.record(port, "FORWARD", -1, value, urlOf(leader), resp);
+        result.complete(resp != null ? resp : "NOT_LEADER," + leader);
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
   }
 
   /**
-   * Przywraca poprzedni stan serwera.
+   * Przywraca poprzednia wersje stanu serwera.
    */
-  public synchronized void rollback() {
-    promisedProposal = prevPromisedProposal;
-    acceptedProposal = prevAcceptedProposal;
-    acceptedValue = prevAcceptedValue;
-    log.info("[SERVER {}] ROLLBACK -> ({},{},{})%n", port, promisedProposal,
-        acceptedProposal, acceptedValue);
+  public void rollback() {
+    AcceptorState restored = acceptor.updateAndGet(AcceptorState::rollback);
+    trace.record(port, "ROLLBACK", restored.promised(), restored.acceptedValue(), null, null);
+    publish("ROLLBACK", restored.promised(), restored.acceptedValue());
   }
 
   /**
-   * Wysyla polecenie rollback do wszystkich wskazanych serwerow.
+   * Wycofuje wersje stanu utworzone przez podana propozycje, o ile nie przykryla ich nowsza
+   * propozycja.
    *
-   * @param servers lista adresow serwerow
+   * @param ballot numer porzucanej propozycji
    */
-  private void rollbackAll(List<String> servers) {
-    for (String s : servers) {
-      executor.submit(() -> {
-        String resp = HttpUtil.postParams(s + "/rollback");
-        log.info("[LIDER {}] -> ROLLBACK wyslany do {} => {}%n", port, s, resp);
-      });
+  public void rollback(long ballot) {
+    AcceptorState restored = acceptor.updateAndGet(s -> s.abandon(ballot));
+    trace.record(port, "ROLLBACK", ballot, restored.acceptedValue(), null, null);
+    publish("ROLLBACK", ballot, restored.acceptedValue());
+  }
+
+  /**
+   * Zwraca stan wezla w grupie tego serwera wraz z metrykami. Stan acceptora jest zwracany takze
+   * dla zablokowanego wezla, aby panel mogl pokazac, co wezel faktycznie przechowuje.
+   *
+   * @return stan wezla w grupie
+   */
+  public NodeStatus status() {
+    AcceptorState s = acceptor.get();
+    return new NodeStatus(id, port, group, getLeaderPort(), stuck, stuck ? stuckMessage : null,
+        s.promised(), s.acceptedProposal(), s.acceptedValue(), metrics.snapshot());
+  }
+
+  /**
+   * Zwraca zdarzenie z biezacym stanem wezla, wysylane jako pierwsze nowemu subskrybentowi
+   * strumienia zdarzen.
+   *
+   * @return zdarzenie SNAPSHOT
+   */
+  public ClusterEvent snapshot() {
+    return event("SNAPSHOT", -1, -1);
+  }
+
+  /**
+   * Publikuje zdarzenie w strumieniu dla panelu. Bez subskrybentow nie jest nawet budowane.
+   */
+  private void publish(String type, long ballot, int value) {
+    if (events.active()) {
+      events.publish(event(type, ballot, value));
     }
   }
 
+  /**
+   * Co sekunde wysyla subskrybentom zdarzenie METRICS z migawka metryk wezla, z ktorej panel
+   * rysuje wykresy przepustowosci i opoznien.
+   */
+  @Scheduled(fixedDelay = 1000)
+  public void publishMetrics() {
+    if (events.active()) {
+      events.publish(event("METRICS", -1, -1, metrics.snapshot()));
+    }
+  }
+
+  private ClusterEvent event(String type, long ballot, int value) {
+    return event(type, ballot, value, null);
+  }
+
+  private ClusterEvent event(String type, long ballot, int value, NodeMetrics nodeMetrics) {
+    return new ClusterEvent(System.currentTimeMillis(), port, group, type, ballot, value,
+        getLeaderPort(), stuck, stuck ? stuckMessage : acceptor.get().format(), nodeMetrics);
+  }
+
+  /**
+   * Ustawia lidera kadencji i publikuje zdarzenie LEADER, jesli lider sie zmienil.
+   *
+   * @return false, jesli znany jest lider nowszej kadencji
+   */
+  private boolean changeLeader(int p, long term) {
+    int previous = getLeaderPort();
+    if (!setLeader(p, term)) {
+      return false;
+    }
+    if (previous != p) {
+      publish("LEADER", term, p);
+    }
+    return true;
+  }
+
+  /**
+   * Zwraca historie wersji stanu acceptora, od najnowszej.
+   *
+   * @return lista wersji
+   */
+  public List<AcceptorState> history() {
+    return acceptor.get().history();
+  }
+
   /**
    * Blokuje serwer i wymusza zwracanie stalego komunikatu.
    *
@@ -351,6 +831,7 @@ public class PaxosServer {
   public synchronized void stuck(String message) {
     this.stuck = true;
     this.stuckMessage = message;
+    publish("STUCK", -1, -1);
     log.info("[SERVER {}] Serwer zaciety z wiadomoscia: {}%n", port, message);
   }
 
@@ -362,7 +843,8 @@ public class PaxosServer {
     this.stuck = false;
     this.stuckMessage = null;
     setLeaderPort(-1);
-    executor.submit(this::discoverLeaderOnRecovery);
+    publish("UNSTUCK", -1, -1);
+    controlExecutor.submit(this::discoverLeaderOnRecovery);
     log.info("[SERVER {}] Serwer wraca do normalnego dzialania: %n", port);
   }
 
@@ -372,29 +854,26 @@ public class PaxosServer {
    *
    * @param alive      lista aktywnych serwerow
    * @param proposalId identyfikator propozycji
+   * @param competing  najwyzszy numer propozycji zgloszony w odpowiedziach REJECT
    * @return lista otrzymanych obietnic (PROMISE)
    */
-  private List<Promise> preparePhase(List<String> alive, long proposalId) {
+  private List<Promise> preparePhase(List<String> alive, long proposalId, AtomicLong competing) {
 
     List<Promise> promises = Collections.synchronizedList(new ArrayList<>());
     CountDownLatch latch = new CountDownLatch(alive.size());
 
     for (String s : alive) {
-      executor.submit(() -> {
+      rpcExecutor.submit(() -> {
         try {
-          log.info("[LIDER {}] -> PREPARE do {}%n", port, s);
-          String resp = HttpUtil.postParams(
+          String resp = transport.post(
               s + "/prepare?proposalId=" + proposalId);
+          trace.record(port, "SEND_PREPARE", proposalId, -1, s, resp);
 
-          if (resp != null && resp.startsWith("PROMISE")) {
-            String[] p = resp.split(",");
-            if (p.length == 3 && !"NONE".equals(p[1])) {
-              promises.add(new Promise(true,
-                  Integer.parseInt(p[1]),
-                  Integer.parseInt(p[2])));
-            } else {
-              promises.add(new Promise(true, -1, -1));
-            }
+          Promise promise = Promise.fromResponse(resp);
+          if (promise != null) {
+            promises.add(promise);
+          } else {
+            competing.accumulateAndGet(rejectedBallot(resp, 2), Math::max);
           }
         } finally {
           latch.countDown();
@@ -402,45 +881,41 @@ public class PaxosServer {
       });
     }
 
-    try {
-      latch.await();
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
+    awaitPhase(latch);
+    List<Promise> received;
+    synchronized (promises) {
+      received = List.copyOf(promises);
     }
 
-    log.info("[LIDER {}] Otrzymane PROMISE: {}%n",
-        port,
-        promises.stream()
-            .map(p -> "(" + p.acceptedProposal() + "," + p.acceptedValue() + ")")
-            .toList());
+    trace.record(port, "PREPARED", proposalId, -1, null, received);
 
-    return promises;
+    return received;
   }
 
 
   /**
-   * Wybiera wartosc do zaakceptowania na podstawie otrzymanych PROMISE.
+   * Wybiera wartosc do zaakceptowania na podstawie otrzymanych PROMISE. Jesli ktorys acceptor
+   * zaakceptowal juz wartosc, proponowana jest wartosc z najwyzszym numerem propozycji, bo tylko
+   * ona mogla zostac zatwierdzona przez wiekszosc. Wartosc klienta jest proponowana tylko wtedy,
+   * gdy zaden acceptor z wiekszosci niczego nie zaakceptowal.
    *
    * @param promises    lista obietnic od acceptorow
    * @param clientValue wartosc zaproponowana przez klienta
-   * @return wybrana wartosc lub null jesli brak wiekszosci
+   * @return wybrana wartosc
    */
-  private Integer chooseValueFromPromises(List<Promise> promises, int clientValue) {
+  private int chooseValueFromPromises(List<Promise> promises, int clientValue) {
 
-    Map<Integer, Integer> counts = new HashMap<>();
+    int highestProposal = -1;
+    int value = clientValue;
 
     for (Promise p : promises) {
-      int val = p.acceptedProposal() >= 0 ? p.acceptedValue() : -1;
-      counts.put(val, counts.getOrDefault(val, 0) + 1);
-    }
-
-    for (Map.Entry<Integer, Integer> e : counts.entrySet()) {
-      if (e.getValue() >= MAJORITY) {
-        return e.getKey() == -1 ? clientValue : e.getKey();
+      if (p.acceptedProposal() > highestProposal) {
+        highestProposal = p.acceptedProposal();
+        value = p.acceptedValue();
       }
     }
 
-    return null;
+    return value;
   }
 
   /**
@@ -449,22 +924,25 @@ public class PaxosServer {
    * @param alive      lista aktywnych serwerow
    * @param proposalId identyfikator propozycji
    * @param value      wartosc do zaakceptowania
+   * @param competing  najwyzszy numer propozycji zgloszony w odpowiedziach REJECT
    * @return liczba serwerow, ktore zaakceptowaly wartosc
    */
-  private int acceptPhase(List<String> alive, long proposalId, int value) {
+  private int acceptPhase(List<String> alive, long proposalId, int value, AtomicLong competing) {
 
     CountDownLatch latch = new CountDownLatch(alive.size());
     List<Boolean> accepts = Collections.synchronizedList(new ArrayList<>());
 
     for (String s : alive) {
-      executor.submit(() -> {
+      rpcExecutor.submit(() -> {
         try {
-          log.info("[LIDER {}] -> ACCEPT do {}, {}%n", port, s, value);
-          String resp = HttpUtil.postParams(
+          String resp = transport.post(
               s + "/accept?proposalId=" + proposalId + "&value=" + value);
+          trace.record(port, "SEND_ACCEPT", proposalId, value, s, resp);
 
           if (resp != null && resp.startsWith("ACCEPTED")) {
             accepts.add(true);
+          } else {
+            competing.accumulateAndGet(rejectedBallot(resp, 4), Math::max);
           }
         } finally {
           latch.countDown();
@@ -472,66 +950,214 @@ public class PaxosServer {
       });
     }
 
+    awaitPhase(latch);
+    return accepts.size();
+  }
+
+  /**
+   * Czeka na odpowiedzi serwerow w fazie rundy najwyzej {@link #PHASE_TIMEOUT_MS}. Serwer, ktory
+   * w tym czasie nie odpowie, jest traktowany jak odpowiedz odmowna, wiec zawieszony serwer lub
+   * przeciazona pula wywolan nie wstrzymuja rundy na zawsze.
+   *
+   * @param latch licznik odpowiedzi fazy
+   */
+  private static void awaitPhase(CountDownLatch latch) {
     try {
-      latch.await();
+      latch.await(PHASE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     }
-
-    log.info("[LIDER {}] Ilosc ACCEPT = {}%n",
-        port, accepts.size());
-
-    return accepts.size();
   }
 
 
   /**
-   * Wykonuje pelna runde Paxosa: PREPARE, PREPARED, ACCEPT ACCEPTED.
+   * Wykonuje pelna runde Paxosa: PREPARE, PREPARED, ACCEPT ACCEPTED. Jesli runda zostanie
+   * odrzucona przez konkurencyjna propozycje, lider ponawia ja z numerem wyzszym od zgloszonego w
+   * odpowiedzi REJECT, po losowym opoznieniu (backoff z jitterem).
    *
    * @param clientValue wartosc zaproponowana przez klienta
+   * @return wartosc zatwierdzona przez wiekszosc albo null, jesli runda sie nie powiodla
    */
-  private void runPaxosRound(int clientValue) {
+  private Integer runPaxosRound(int clientValue) {
+
+    long start = System.nanoTime();
+    long proposalId = nextProposalId(NO_RETRY);
+
+    for (int attempt = 1; ; attempt++) {
+      Attempt result = runPaxosAttempt(proposalId, attempt, clientValue);
+
+      if (result.competing() == NO_RETRY || attempt >= MAX_ROUND_ATTEMPTS) {
+        metrics.round(result.committed(), System.nanoTime() - start);
+        return result.committed() ? result.value() : null;
+      }
 
-    long proposalId = (System.currentTimeMillis() & 0xFFFFFFF) + id;
+      metrics.roundRetried();
+      backoff(attempt);
+      proposalId = nextProposalId(result.competing());
+      trace.record(port, "ROUND_RETRY", proposalId, clientValue, null, attempt + 1);
+    }
+  }
 
-    log.info("%n[LIDER {}] Poczatek rundy paxosa%n", port);
-    log.info("[LIDER {}] proposalId={}, clientValue={}%n",
-        port, proposalId, clientValue);
+  /**
+   * Wykonuje pojedyncza probe rundy Paxosa z podanym numerem propozycji.
+   *
+   * @param proposalId  identyfikator propozycji
+   * @param attempt     numer proby (od 1)
+   * @param clientValue wartosc zaproponowana przez klienta
+   * @return wynik proby
+   */
+  private Attempt runPaxosAttempt(long proposalId, int attempt, int clientValue) {
+
+    PaxosRoundEvent event = new PaxosRoundEvent();
+    event.start(port, proposalId, attempt, clientValue);
 
     List<String> alive = collectAlive();
-    log.info("[LIDER {}] Dzialajace serwery ({}): {}%n",
-        port, alive.size(), alive);
+    trace.record(port, "ROUND_START", proposalId, clientValue, null, alive);
 
     if (alive.isEmpty()) {
-      log.info("[LIDER {}] Brak zywych serwerow - koniec%n", port);
-      return;
+      finishAttempt(event, proposalId, -1, "NO_SERVERS");
+      return Attempt.FAILED;
     }
 
-    List<Promise> promises = preparePhase(alive, proposalId);
+    AtomicLong competing = new AtomicLong(NO_RETRY);
+    long phaseStart = System.nanoTime();
+    List<Promise> promises = preparePhase(alive, proposalId, competing);
+    long prepareNanos = System.nanoTime() - phaseStart;
+    metrics.preparePhase(prepareNanos);
+    event.prepared(alive.size(), promises.size(), prepareNanos);
 
-    if (promises.size() < MAJORITY) {
-      log.info("[LIDER {}] Brak wiekszosci w PREPARE ({}/{}) — ROLLBACK%n",
-          port, promises.size(), MAJORITY);
-      rollbackAll(alive);
-      return;
+    if (promises.size() < majority) {
+      finishAttempt(event, proposalId, -1, "NO_PREPARE_MAJORITY");
+      return Attempt.lost(competing.get(), proposalId);
     }
 
-    Integer chosenValue = chooseValueFromPromises(promises, clientValue);
-    if (chosenValue == null) {
-      log.info("[LIDER {}] Brak wiekszosci na zadna wartosc — ROLLBACK%n", port);
-      rollbackAll(alive);
-      return;
+    int chosenValue = chooseValueFromPromises(promises, clientValue);
+
+    phaseStart = System.nanoTime();
+    int acceptedCount = acceptPhase(alive, proposalId, chosenValue, competing);
+    long acceptNanos = System.nanoTime() - phaseStart;
+    metrics.acceptPhase(acceptNanos);
+    event.accepted(chosenValue, acceptedCount, acceptNanos);
+
+    if (acceptedCount >= majority) {
+      finishAttempt(event, proposalId, chosenValue, "COMMITTED");
+      return Attempt.committed(chosenValue);
     }
 
-    log.info("[LIDER {}] Ustalona wartosc = {}%n", port, chosenValue);
+    finishAttempt(event, proposalId, chosenValue, "NO_ACCEPT_MAJORITY");
+    return Attempt.lost(competing.get(), proposalId);
+  }
 
-    int acceptedCount = acceptPhase(alive, proposalId, chosenValue);
+  /**
+   * Zamyka zdarzenie JFR proby rundy i zapisuje jej wynik w logu sledzenia.
+   *
+   * @param event       zdarzenie JFR proby
+   * @param proposalId  numer propozycji
+   * @param chosenValue wartosc wyslana do akceptacji albo -1
+   * @param outcome     wynik proby
+   */
+  private void finishAttempt(PaxosRoundEvent event, long proposalId, int chosenValue,
+      String outcome) {
+    event.finish(outcome);
+    trace.record(port, "ROUND_END", proposalId, chosenValue, null, outcome);
+    if ("COMMITTED".equals(outcome)) {
+      publish("COMMIT", proposalId, chosenValue);
+    }
+  }
 
-    if (acceptedCount >= MAJORITY) {
-      log.info("[LIDER {}] Finalna, ustalona wartosc = {}%n", port, chosenValue);
-    } else {
-      log.info("[LIDER {}] Brak wiekszosci w ACCEPT — ROLLBACK%n", port);
-      rollbackAll(alive);
+  /**
+   * Wynik pojedynczej proby rundy.
+   *
+   * @param committed czy wartosc zostala zatwierdzona przez wiekszosc
+   * @param value     zatwierdzona wartosc, jesli committed
+   * @param competing numer konkurencyjnej propozycji, powyzej ktorej warto ponowic, lub NO_RETRY
+   */
+  private record Attempt(boolean committed, int value, long competing) {
+
+    static final Attempt FAILED = new Attempt(false, -1, NO_RETRY);
+
+    /**
+     * Tworzy wynik udanej proby.
+     *
+     * @param value wartosc zatwierdzona przez wiekszosc
+     * @return wynik proby
+     */
+    static Attempt committed(int value) {
+      return new Attempt(true, value, NO_RETRY);
+    }
+
+    /**
+     * Tworzy wynik przegranej proby. Ponawiamy tylko wtedy, gdy ktorys acceptor zglosil obietnice
+     * dla propozycji o numerze nie mniejszym niz nasz.
+     *
+     * @param competing  najwyzszy numer zgloszony w odpowiedziach REJECT
+     * @param proposalId numer propozycji biezacej proby
+     * @return wynik proby
+     */
+    static Attempt lost(long competing, long proposalId) {
+      return new Attempt(false, -1, competing >= proposalId ? competing : NO_RETRY);
+    }
+  }
+
+  /**
+   * Wyznacza numer propozycji dla nowej proby. Numer wynika z zegara, ale zawsze jest wiekszy od
+   * poprzednio uzytego przez ten serwer, wiec rundy rozpoczete w tej samej milisekundzie nie
+   * odrzucaja sie nawzajem.
+   *
+   * @param competing numer konkurencyjnej propozycji, ktory trzeba przebic, lub NO_RETRY
+   * @return nowy numer propozycji
+   */
+  private long nextProposalId(long competing) {
+    long fresh = (clock.millis() & 0xFFFFFFF) + id;
+    return lastProposalId.updateAndGet(
+        prev -> Math.max(fresh, nextProposalAbove(Math.max(prev, competing))));
+  }
+
+  /**
+   * Wyznacza numer propozycji wiekszy od podanego, unikalny dla tego serwera.
+   *
+   * @param ballot numer propozycji, ktory trzeba przebic
+   * @return nowy numer propozycji
+   */
+  private long nextProposalAbove(long ballot) {
+    int stride = peers.size();
+    return (ballot / stride + 1) * stride + Math.floorMod(id, stride);
+  }
+
+  /**
+   * Usypia watek przed ponowieniem rundy. Opoznienie rosnie wykladniczo z numerem proby i jest
+   * losowane z przedzialu [polowa, calosc], aby rywalizujacy liderzy rozjechali sie w czasie.
+   *
+   * @param attempt numer nieudanej proby (od 1)
+   */
+  private void backoff(int attempt) {
+    long cap = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << (attempt - 1));
+    try {
+      clock.sleep(clock.randomDelay(cap / 2, cap));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Odczytuje numer propozycji, ktorej acceptor obiecal, z odpowiedzi REJECT.
+   *
+   * @param resp   odpowiedz acceptora
+   * @param fields oczekiwana liczba pol odpowiedzi REJECT (numer jest ostatnim polem)
+   * @return numer obiecanej propozycji lub NO_RETRY, jesli odpowiedz go nie zawiera
+   */
+  private static long rejectedBallot(String resp, int fields) {
+    if (resp == null || !resp.startsWith("REJECT")) {
+      return NO_RETRY;
+    }
+    String[] p = resp.split(",");
+    if (p.length != fields) {
+      return NO_RETRY;
+    }
+    try {
+      return Long.parseLong(p[fields - 1].trim());
+    } catch (NumberFormatException e) {
+      return NO_RETRY;
     }
   }
 
@@ -540,9 +1166,25 @@ public class PaxosServer {
    * Obsluguje zadanie PREPARE jako acceptor.
    *
    * @param proposalId identyfikator propozycji
-   * @return odpowiedz PROMISE, REJECT lub komunikat blokady
+   * @return odpowiedz PROMISE, REJECT z numerem obiecanej propozycji lub komunikat blokady
+   */
+  public String prepare(long proposalId) {
+    AcceptorCallEvent event = new AcceptorCallEvent();
+    event.start();
+    String resp = handlePrepare(proposalId, event);
+    event.finish(port, "prepare", proposalId, -1, resp);
+    trace.record(port, "PREPARE", proposalId, -1, null, resp);
+    if (resp != null && resp.startsWith("PROMISE")) {
+      publish("PROMISE", proposalId, -1);
+    }
+    return resp;
+  }
+
+  /**
+   * Sklada obietnice przez compare-and-set na migawce stanu. Przy rownoczesnej zmianie stanu
+   * decyzja jest podejmowana ponownie na nowej migawce.
    */
-  public synchronized String prepare(long proposalId) {
+  private String handlePrepare(long proposalId, AcceptorCallEvent event) {
     if (stuck) {
       return stuckMessage;
     }
@@ -550,32 +1192,22 @@ public class PaxosServer {
       return null;
     }
 
-    log.info("[SERVER {}] <- PREPARE proposalId={}%n", port, proposalId);
-
-    if (Math.random() < FAIL_CHANCE) {
-      log.info("[SERVER {}] Brak odpowiedzi - symulacja awarii komunikacji w PREPARE %n",
-          port);
-      return null;
-    }
-
-    if (proposalId > promisedProposal) {
-      savePrevState();
-
-      log.info("[SERVER {}] -> PROMISE (accepted=({},{}))%n", port, acceptedProposal,
-          acceptedValue);
-
-      promisedProposal = (int) proposalId;
+    while (true) {
+      AcceptorState current = acceptor.get();
+      if (proposalId <= current.promised()) {
+        metrics.prepareResponse(false);
+        return "REJECT," + current.promised();
+      }
 
-      if (acceptedProposal != -1) {
-        return "PROMISE," + acceptedProposal + "," + acceptedValue;
-      } else {
+      if (acceptor.compareAndSet(current, current.promise((int) proposalId))) {
+        metrics.prepareResponse(true);
+        if (current.acceptedProposal() != -1) {
+          return "PROMISE," + current.acceptedProposal() + "," + current.acceptedValue();
+        }
         return "PROMISE,NONE";
       }
+      event.casRetried();
     }
-
-    log.info("[SERVER {}] -> REJECT (promised={})%n", port, promisedProposal);
-
-    return "REJECT";
   }
 
   /**
@@ -583,9 +1215,24 @@ public class PaxosServer {
    *
    * @param proposalId identyfikator propozycji
    * @param value      wartosc do zaakceptowania
-   * @return odpowiedz ACCEPTED, REJECT lub komunikat blokady
+   * @return odpowiedz ACCEPTED, REJECT z numerem obiecanej propozycji lub komunikat blokady
    */
-  public synchronized String accept(long proposalId, int value) {
+  public String accept(long proposalId, int value) {
+    AcceptorCallEvent event = new AcceptorCallEvent();
+    event.start();
+    String resp = handleAccept(proposalId, value, event);
+    event.finish(port, "accept", proposalId, value, resp);
+    trace.record(port, "ACCEPT", proposalId, value, null, resp);
+    if (resp != null && resp.startsWith("ACCEPTED")) {
+      publish("ACCEPT", proposalId, value);
+    }
+    return resp;
+  }
+
+  /**
+   * Akceptuje wartosc przez compare-and-set na migawce stanu, analogicznie do PREPARE.
+   */
+  private String handleAccept(long proposalId, int value, AcceptorCallEvent event) {
     if (stuck) {
       return stuckMessage;
     }
@@ -594,56 +1241,41 @@ public class PaxosServer {
       return null;
     }
 
-    if (Math.random() < FAIL_CHANCE) {
-      log.info("[SERVER {}] Brak odpowiedzi - symulacja awarii komunikacji w ACCEPT %n",
-          port);
-      return null;
-    }
-
-    log.info("[SERVER {}] <- ACCEPT proposalId={} value={}%n", port, proposalId, value);
-
-    if (proposalId >= promisedProposal) {
-      savePrevState();
-
-      promisedProposal = (int) proposalId;
-      acceptedProposal = (int) proposalId;
-      acceptedValue = value;
-
-      log.info("[SERVER {}] -> ACCEPTED ({},{})%n", port, acceptedProposal, acceptedValue);
+    while (true) {
+      AcceptorState current = acceptor.get();
+      if (proposalId < current.promised()) {
+        metrics.acceptResponse(false);
+        return "REJECT," + proposalId + "," + value + "," + current.promised();
+      }
 
-      return "ACCEPTED," + proposalId + "," + value;
+      if (acceptor.compareAndSet(current, current.accept((int) proposalId, value))) {
+        metrics.acceptResponse(true);
+        return "ACCEPTED," + proposalId + "," + value;
+      }
+      event.casRetried();
     }
-
-    log.info("[SERVER {}] -> REJECT (promised={})%n", port, promisedProposal);
-
-    return "REJECT," + proposalId + "," + value;
   }
 
 
   /**
-   * Zwraca aktualny stan serwera.
+   * Zwraca aktualny stan serwera. Odczyt migawki nie blokuje PREPARE ani ACCEPT.
    *
    * @return tekstowa reprezentacja stanu Paxosa
    */
-  public synchronized String state() {
+  public String state() {
     if (stuck) {
       return stuckMessage;
     }
-    return "STATE," + promisedProposal + "," + acceptedProposal + "," + acceptedValue;
+    return acceptor.get().format();
   }
 
 
   /**
    * Czysci caly lokalny stan serwera.
    */
-  public synchronized void clear() {
-    promisedProposal = -1;
-    acceptedProposal = -1;
-    acceptedValue = -1;
-
-    prevPromisedProposal = -1;
-    prevAcceptedProposal = -1;
-    prevAcceptedValue = -1;
+  public void clear() {
+    acceptor.set(AcceptorState.EMPTY);
+    publish("CLEAR", -1, -1);
 
     log.info("[SERVER {}] Wyczyszczono dane %n", port);
 
@@ -656,7 +1288,7 @@ public class PaxosServer {
    */
   private List<String> collectAlive() {
     List<String> list = new ArrayList<>();
-    for (String s : SERVERS) {
+    for (String s : peers) {
       if (isAlive(s)) {
         list.add(s);
       }
@@ -0,0 +1,32 @@
+package com.example.pro_spring.service;
+
+/**
+ * Zrodlo czasu i losowosci dla PaxosServer. Numer propozycji wynika z zegara, a ponowienie rundy
+ * czeka losowy czas, wiec podmiana zegara pozwala odtwarzac rundy deterministycznie w symulacji.
+ */
+public interface ProtocolClock {
+
+  /**
+   * Zwraca biezacy czas.
+   *
+   * @return czas w milisekundach
+   */
+  long millis();
+
+  /**
+   * Usypia biezacy watek.
+   *
+   * @param millis czas uspienia w milisekundach
+   * @throws InterruptedException jesli watek zostal przerwany
+   */
+  void sleep(long millis) throws InterruptedException;
+
+  /**
+   * Losuje opoznienie z podanego przedzialu.
+   *
+   * @param min dolna granica (wlacznie)
+   * @param max gorna granica (wlacznie)
+   * @return wylosowane opoznienie w milisekundach
+   */
+  long randomDelay(long min, long max);
+}
@@ -0,0 +1,26 @@
+package com.example.pro_spring.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.stereotype.Component;
+
+/**
+ * Zegar systemowy wykorzystywany przez dzialajacy serwer.
+ */
+@Component
+public class SystemProtocolClock implements ProtocolClock {
+
+  @Override
+  public long millis() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public void sleep(long millis) throws InterruptedException {
+    Thread.sleep(millis);
+  }
+
+  @Override
+  public long randomDelay(long min, long max) {
+    return ThreadLocalRandom.current().nextLong(min, max + 1);
+  }
+}
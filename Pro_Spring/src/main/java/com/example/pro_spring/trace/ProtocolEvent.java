@@ -0,0 +1,45 @@
+package com.example.pro_spring.trace;
+
+/**
+ * Pojedyncze zdarzenie protokolu Paxos zapisywane w logu sledzenia.
+ *
+ * @param timestamp czas zdarzenia w milisekundach od epoki
+ * @param node      port serwera, na ktorym wystapilo zdarzenie
+ * @param type      typ zdarzenia, np. PREPARE, ACCEPT, ROUND_END
+ * @param ballot    numer propozycji lub -1
+ * @param value     wartosc lub -1
+ * @param peer      adres serwera, ktorego dotyczy zdarzenie, lub null
+ * @param detail    dodatkowe informacje (np. odpowiedz acceptora) lub null; zamieniane na tekst
+ *                  dopiero przy zapisie, poza sciezka protokolu
+ */
+public record ProtocolEvent(
+    long timestamp,
+    int node,
+    String type,
+    long ballot,
+    int value,
+    String peer,
+    Object detail
+) {
+
+  /**
+   * Formatuje zdarzenie jako linie klucz=wartosc.
+   *
+   * @return tekstowa reprezentacja zdarzenia
+   */
+  public String format() {
+    StringBuilder sb = new StringBuilder(96)
+        .append("ts=").append(timestamp)
+        .append(" node=").append(node)
+        .append(" type=").append(type)
+        .append(" ballot=").append(ballot)
+        .append(" value=").append(value);
+    if (peer != null) {
+      sb.append(" peer=").append(peer);
+    }
+    if (detail != null) {
+      sb.append(" detail=").append(detail);
+    }
+    return sb.toString();
+  }
+}
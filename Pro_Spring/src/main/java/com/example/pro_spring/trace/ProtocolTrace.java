@@ -0,0 +1,120 @@
+package com.example.pro_spring.trace;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Asynchroniczny log sledzenia protokolu Paxos. Watki protokolu jedynie wrzucaja zdarzenia do
+ * nieblokujacej kolejki, a zapis do loggera paxos.protocol odbywa sie okresowo w watku
+ * harmonogramu. Sledzenie mozna wlaczac, wylaczac i probkowac w trakcie dzialania serwera.
+ */
+@Component
+public class ProtocolTrace {
+
+  private static final Logger log = LoggerFactory.getLogger("paxos.protocol");
+
+  static final int CAPACITY = 8192;
+
+  private final ConcurrentLinkedQueue<ProtocolEvent> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+  private volatile boolean enabled;
+  private volatile double sampleRate;
+
+  /**
+   * Tworzy log sledzenia.
+   *
+   * @param enabled    czy sledzenie jest wlaczone na starcie
+   * @param sampleRate ulamek zapisywanych zdarzen, od 0.0 do 1.0
+   */
+  public ProtocolTrace(@Value("${paxos.trace.enabled:false}") boolean enabled,
+      @Value("${paxos.trace.sample-rate:1.0}") double sampleRate) {
+    configure(enabled, sampleRate);
+  }
+
+  /**
+   * Zmienia ustawienia sledzenia.
+   *
+   * @param enabled    czy sledzenie jest wlaczone
+   * @param sampleRate ulamek zapisywanych zdarzen, przycinany do przedzialu [0.0, 1.0]
+   */
+  public void configure(boolean enabled, double sampleRate) {
+    this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+    this.enabled = enabled;
+  }
+
+  /**
+   * Rejestruje zdarzenie protokolu. Gdy sledzenie jest wylaczone, metoda konczy sie po odczycie
+   * jednego pola volatile. Gdy kolejka jest pelna, zdarzenie jest odrzucane i zliczane.
+   *
+   * @param node   port serwera
+   * @param type   typ zdarzenia
+   * @param ballot numer propozycji lub -1
+   * @param value  wartosc lub -1
+   * @param peer   adres serwera, ktorego dotyczy zdarzenie, lub null
+   * @param detail dodatkowe informacje lub null
+   */
+  public void record(int node, String type, long ballot, int value, String peer, Object detail) {
+    if (!enabled) {
+      return;
+    }
+    double rate = sampleRate;
+    if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+      return;
+    }
+    if (size.incrementAndGet() > CAPACITY) {
+      size.decrementAndGet();
+      dropped.increment();
+      return;
+    }
+    queue.offer(new ProtocolEvent(
+        System.currentTimeMillis(), node, type, ballot, value, peer, detail));
+  }
+
+  /**
+   * Zapisuje zebrane zdarzenia do loggera paxos.protocol.
+   */
+  @Scheduled(fixedDelay = 200)
+  public void drain() {
+    ProtocolEvent event;
+    while ((event = queue.poll()) != null) {
+      size.decrementAndGet();
+      if (log.isInfoEnabled()) {
+        log.info(event.format());
+      }
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Zwraca liczbe zdarzen czekajacych na zapis.
+   *
+   * @return dlugosc kolejki
+   */
+  public int pending() {
+    return size.get();
+  }
+
+  /**
+   * Zwraca liczbe zdarzen odrzuconych z powodu przepelnienia kolejki.
+   *
+   * @return liczba odrzuconych zdarzen
+   */
+  public long dropped() {
+    return dropped.sum();
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.pro_spring.transport;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Format ramki laczacej wiele zadan do jednego serwera w jedno zadanie POST /batch. Tresc zadania
+ * to sciezki z parametrami, po jednej w linii, np. /groups/3/accept?proposalId=5&amp;value=9.
+ * Odpowiedz zawiera w tej samej kolejnosci odpowiedzi zakodowane jak parametr URL, po jednej w
+ * linii; brak odpowiedzi jest zapisywany jako znak ~, ktorego koder URL nigdy nie zwraca.
+ */
+public final class BatchFrame {
+
+  /**
+   * Endpointy, ktore mozna wyslac w ramce. Sa to krotkie, nieblokujace wywolania protokolu; zadania
+   * klienta i zadania administracyjne zawsze ida osobno.
+   */
+  public static final Set<String> ENDPOINTS = Set.of("/prepare", "/accept", "/accepted_state",
+      "/vote", "/leader_announce", "/leader_info", "/rollback");
+
+  private static final String NO_RESPONSE = "~";
+  private static final String GROUPS = "/groups/";
+
+  private BatchFrame() {
+    throw new UnsupportedOperationException("");
+  }
+
+  /**
+   * Sklada tresc ramki z zadan.
+   *
+   * @param requests sciezki z parametrami
+   * @return tresc zadania /batch
+   */
+  public static String encodeRequests(List<String> requests) {
+    return String.join("\n", requests);
+  }
+
+  /**
+   * Rozdziela tresc ramki na zadania.
+   *
+   * @param body tresc zadania /batch
+   * @return sciezki z parametrami
+   */
+  public static List<String> decodeRequests(String body) {
+    return body == null || body.isBlank() ? List.of() : List.of(body.split("\n"));
+  }
+
+  /**
+   * Sklada odpowiedz ramki.
+   *
+   * @param responses odpowiedzi w kolejnosci zadan, null dla brakujacych
+   * @return tresc odpowiedzi /batch
+   */
+  public static String encodeResponses(List<String> responses) {
+    List<String> lines = new ArrayList<>(responses.size());
+    for (String r : responses) {
+      lines.add(r == null ? NO_RESPONSE : URLEncoder.encode(r, StandardCharsets.UTF_8));
+    }
+    return String.join("\n", lines);
+  }
+
+  /**
+   * Rozdziela odpowiedz ramki. Odpowiedz z inna liczba linii niz liczba zadan jest traktowana jak
+   * brak odpowiedzi na wszystkie zadania.
+   *
+   * @param body     tresc odpowiedzi /batch lub null
+   * @param expected liczba wyslanych zadan
+   * @return odpowiedzi w kolejnosci zadan, null dla brakujacych
+   */
+  public static List<String> decodeResponses(String body, int expected) {
+    String[] lines = body == null ? new String[0] : body.split("\n", -1);
+    if (lines.length != expected) {
+      return Arrays.asList(new String[expected]);
+    }
+    List<String> responses = new ArrayList<>(expected);
+    for (String line : lines) {
+      responses.add(NO_RESPONSE.equals(line)
+          ? null : URLDecoder.decode(line, StandardCharsets.UTF_8));
+    }
+    return responses;
+  }
+
+  /**
+   * Zwraca endpoint zadania bez prefiksu grupy i bez parametrow.
+   *
+   * @param request sciezka z parametrami
+   * @return endpoint, np. /accept
+   */
+  public static String endpoint(String request) {
+    int query = request.indexOf('?');
+    String path = query < 0 ? request : request.substring(0, query);
+    if (path.startsWith(GROUPS)) {
+      int end = path.indexOf('/', GROUPS.length());
+      return end < 0 ? "" : path.substring(end);
+    }
+    return path;
+  }
+
+  /**
+   * Zwraca numer grupy z prefiksu /groups/{group}.
+   *
+   * @param request sciezka z parametrami
+   * @return numer grupy albo null dla zadania bez prefiksu
+   */
+  public static Integer group(String request) {
+    if (!request.startsWith(GROUPS)) {
+      return null;
+    }
+    int end = request.indexOf('/', GROUPS.length());
+    return Integer.valueOf(request.substring(GROUPS.length(), end < 0 ? request.length() : end));
+  }
+
+  /**
+   * Zwraca wartosc parametru zadania.
+   *
+   * @param request sciezka z parametrami
+   * @param name    nazwa parametru
+   * @return wartosc parametru albo null
+   */
+  public static String param(String request, String name) {
+    int query = request.indexOf('?');
+    if (query < 0) {
+      return null;
+    }
+    for (String pair : request.substring(query + 1).split("&")) {
+      if (pair.startsWith(name + "=")) {
+        return pair.substring(name.length() + 1);
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,198 @@
+package com.example.pro_spring.transport;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kanal komunikacji laczacy zadania protokolu do tego samego serwera w ramki {@link BatchFrame}.
+ * Do kazdego serwera w danej chwili leci co najwyzej jedna ramka. Zadania, ktore pojawia sie w
+ * trakcie jej wysylania, czekaja w kolejce i wychodza razem w nastepnej ramce. Ramki wysyla watek
+ * nadawcy serwera, uruchamiany, gdy kolejka przestaje byc pusta, i konczony, gdy ja oprozni.
+ * Watek wywolujacy czeka tylko na wlasna odpowiedz, najwyzej paxos.transport.response-timeout-ms,
+ * i nie wysyla zadan innych watkow. Przy malym ruchu kazde zadanie wychodzi od razu i osobno, wiec
+ * laczenie nie dodaje opoznienia; przy wielu grupach liczba zadan HTTP do serwera przestaje rosnac
+ * z liczba grup.
+ *
+ * <p>Zadania spoza {@link BatchFrame#ENDPOINTS} i wszystkie zadania przy wylaczonym laczeniu
+ * (paxos.transport.batching=false) trafiaja wprost do transportu HTTP.
+ */
+@Primary
+@Component
+public class BatchingPeerTransport implements PeerTransport {
+
+  private static final int MAX_BATCH = 256;
+  private static final Logger log = LoggerFactory.getLogger(BatchingPeerTransport.class);
+
+  private final PeerTransport delegate;
+  private final boolean enabled;
+  private final long responseTimeoutMs;
+  private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+  private final ExecutorService senders = Executors.newCachedThreadPool(task -> {
+    Thread thread = new Thread(task, "paxos-batch-sender");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private record Pending(String request, CompletableFuture<String> response) {
+  }
+
+  private static final class Peer {
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+  }
+
+  /**
+   * Tworzy kanal laczacy zadania.
+   *
+   * @param delegate          transport wysylajacy pojedyncze zadania i ramki
+   * @param enabled           czy zadania maja byc laczone w ramki
+   * @param responseTimeoutMs maksymalny czas oczekiwania na odpowiedz, razem z czasem w kolejce;
+   *                          domyslnie dluzszy od limitu odczytu HTTP
+   */
+  public BatchingPeerTransport(HttpPeerTransport delegate,
+      @Value("${paxos.transport.batching:true}") boolean enabled,
+      @Value("${paxos.transport.response-timeout-ms:12000}") long responseTimeoutMs) {
+    this.delegate = delegate;
+    this.enabled = enabled;
+    this.responseTimeoutMs = responseTimeoutMs;
+  }
+
+  @Override
+  public String post(String url) {
+    int pathStart = url.indexOf('/', url.indexOf("//") + 2);
+    if (!enabled || pathStart < 0) {
+      return delegate.post(url);
+    }
+    String request = url.substring(pathStart);
+    if (!BatchFrame.ENDPOINTS.contains(BatchFrame.endpoint(request))) {
+      return delegate.post(url);
+    }
+
+    String baseUrl = url.substring(0, pathStart);
+    Peer peer = peers.computeIfAbsent(baseUrl, b -> new Peer());
+    Pending pending = new Pending(request, new CompletableFuture<>());
+    peer.queue.add(pending);
+    if (peer.sending.compareAndSet(false, true)) {
+      startSender(baseUrl, peer);
+    }
+    return await(pending.response());
+  }
+
+  @Override
+  public List<String> postBatch(String baseUrl, List<String> requests) {
+    return enabled ? delegate.postBatch(baseUrl, requests)
+        : PeerTransport.super.postBatch(baseUrl, requests);
+  }
+
+  /**
+   * Zamyka watki nadawcow.
+   */
+  @PreDestroy
+  public void close() {
+    senders.shutdownNow();
+  }
+
+  /**
+   * Czeka na odpowiedz najwyzej {@link #responseTimeoutMs}. Zadanie, ktore nie doczekalo sie
+   * odpowiedzi, jest oznaczane jako zakonczone, wiec nadawca pominie je, jesli jeszcze czeka w
+   * kolejce.
+   */
+  private String await(CompletableFuture<String> response) {
+    try {
+      return response.get(responseTimeoutMs, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException | ExecutionException e) {
+      response.complete(null);
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      response.complete(null);
+      return null;
+    }
+  }
+
+  /**
+   * Uruchamia nadawce serwera. Wywolujacy musi wczesniej ustawic flage sending.
+   */
+  private void startSender(String baseUrl, Peer peer) {
+    try {
+      senders.execute(() -> drain(baseUrl, peer));
+    } catch (RejectedExecutionException e) {
+      peer.sending.set(false);
+      Pending next;
+      while ((next = peer.queue.poll()) != null) {
+        next.response().complete(null);
+      }
+    }
+  }
+
+  /**
+   * Wysyla ramki z kolejki serwera, dopoki kolejka nie jest pusta. Po zwolnieniu flagi kolejka
+   * jest sprawdzana ponownie, wiec zadanie dodane tuz przed zwolnieniem nie zostanie w niej bez
+   * nadawcy.
+   */
+  private void drain(String baseUrl, Peer peer) {
+    do {
+      try {
+        List<Pending> batch;
+        while (!(batch = nextBatch(peer)).isEmpty()) {
+          send(baseUrl, batch);
+        }
+      } finally {
+        peer.sending.set(false);
+      }
+    } while (!peer.queue.isEmpty() && peer.sending.compareAndSet(false, true));
+  }
+
+  private static List<Pending> nextBatch(Peer peer) {
+    List<Pending> batch = new ArrayList<>();
+    Pending next;
+    while (batch.size() < MAX_BATCH && (next = peer.queue.poll()) != null) {
+      if (!next.response().isDone()) {
+        batch.add(next);
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Wysyla ramke i przekazuje odpowiedzi czekajacym watkom. Zadania, na ktore nie przyszla
+   * odpowiedz, takze po bledzie transportu, dostaja null, wiec zaden watek nie czeka na nadawce,
+   * ktory juz skonczyl.
+   */
+  private void send(String baseUrl, List<Pending> batch) {
+    try {
+      if (batch.size() == 1) {
+        Pending only = batch.get(0);
+        only.response().complete(delegate.post(baseUrl + only.request()));
+        return;
+      }
+      List<String> responses =
+          delegate.postBatch(baseUrl, batch.stream().map(Pending::request).toList());
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).response().complete(i < responses.size() ? responses.get(i) : null);
+      }
+    } catch (RuntimeException e) {
+      log.debug("Ramka do {} nie zostala wyslana", baseUrl, e);
+    } finally {
+      batch.forEach(p -> p.response().complete(null));
+    }
+  }
+}
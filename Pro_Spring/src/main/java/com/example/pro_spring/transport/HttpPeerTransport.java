@@ -0,0 +1,24 @@
+package com.example.pro_spring.transport;
+
+import com.example.pro_spring.util.HttpUtil;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Domyslny kanal komunikacji wykorzystujacy zadania HTTP POST. Kilka zadan do jednego serwera
+ * jest wysylanych jako jedna ramka POST /batch.
+ */
+@Component
+public class HttpPeerTransport implements PeerTransport {
+
+  @Override
+  public String post(String url) {
+    return HttpUtil.postParams(url);
+  }
+
+  @Override
+  public List<String> postBatch(String baseUrl, List<String> requests) {
+    String body = HttpUtil.postBody(baseUrl + "/batch", BatchFrame.encodeRequests(requests));
+    return BatchFrame.decodeResponses(body, requests.size());
+  }
+}
@@ -0,0 +1,36 @@
+package com.example.pro_spring.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kanal komunikacji pomiedzy serwerami Paxosa. Zadanie jest opisane pelnym adresem URL
+ * endpointu wraz z parametrami, a odpowiedz jest tekstem zwroconym przez endpoint.
+ */
+@FunctionalInterface
+public interface PeerTransport {
+
+  /**
+   * Wysyla zadanie do innego serwera.
+   *
+   * @param url adres endpointu wraz z parametrami
+   * @return tresc odpowiedzi lub null, jesli serwer nie odpowiedzial
+   */
+  String post(String url);
+
+  /**
+   * Wysyla kilka zadan do jednego serwera. Domyslnie zadania sa wysylane po kolei; transport HTTP
+   * sklada je w jedna ramke {@link BatchFrame}.
+   *
+   * @param baseUrl  adres serwera, np. http://localhost:8001
+   * @param requests sciezki z parametrami, np. /accept?proposalId=5&amp;value=9
+   * @return odpowiedzi w kolejnosci zadan, null dla brakujacych
+   */
+  default List<String> postBatch(String baseUrl, List<String> requests) {
+    List<String> responses = new ArrayList<>(requests.size());
+    for (String request : requests) {
+      responses.add(post(baseUrl + request));
+    }
+    return responses;
+  }
+}
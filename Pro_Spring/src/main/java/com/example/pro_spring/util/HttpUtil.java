@@ -1,19 +1,36 @@
 package com.example.pro_spring.util;
 
+import com.example.pro_spring.metrics.PaxosMetrics;
+import java.net.URI;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 /**
- * Klasa wykorzystywana do komunikacji HTTP pomiedzy serwerami Paxosa.
+ * Klasa wykorzystywana do komunikacji HTTP pomiedzy serwerami Paxosa. Kazde wywolanie ma limit
+ * czasu polaczenia i odczytu, wiec serwer, ktory sie zawiesil albo gubi pakiety, nie blokuje
+ * watku wywolujacego na czas domyslnego limitu systemu operacyjnego.
  */
 public class HttpUtil {
 
-  private static final RestTemplate rest = new RestTemplate();
+  /**
+   * Limit czasu nawiazania polaczenia. Dzialajacy serwer w tej samej sieci odpowiada w
+   * milisekundach.
+   */
+  private static final int CONNECT_TIMEOUT_MS = 500;
+
+  /**
+   * Limit czasu oczekiwania na odpowiedz. Musi byc dluzszy od paxos.client.commit-timeout-ms, bo
+   * przekazana liderowi propozycja z wait=true czeka na zakonczenie rundy.
+   */
+  private static final int READ_TIMEOUT_MS = 10_000;
+
+  private static final RestTemplate rest = new RestTemplate(requestFactory());
 
   /**
    * Prywatny konstruktor zapobiegajacy tworzeniu instancji klasy.
@@ -24,25 +41,51 @@ public class HttpUtil {
     throw new UnsupportedOperationException("");
   }
 
+  private static SimpleClientHttpRequestFactory requestFactory() {
+    SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+    factory.setConnectTimeout(CONNECT_TIMEOUT_MS);
+    factory.setReadTimeout(READ_TIMEOUT_MS);
+    return factory;
+  }
+
 
   /**
-   * Wysyla zadanie POST bez tresci do podanego adresu URL.
+   * Wysyla zadanie POST bez tresci do podanego adresu URL. Czas kazdego wywolania jest
+   * rejestrowany w metryce paxos.rpc z podzialem na serwer docelowy i endpoint.
    *
    * @param url adres endpointu HTTP
    * @return tresc odpowiedzi lub null
    */
   public static String postParams(String url) {
+    return postBody(url, "");
+  }
+
+  /**
+   * Wysyla zadanie POST z tekstowa trescia do podanego adresu URL. Czas wywolania jest
+   * rejestrowany tak jak w {@link #postParams(String)}. Adres jest wysylany bez zmian, wiec
+   * parametry musza byc juz zakodowane; RestTemplate nie koduje ich drugi raz.
+   *
+   * @param url  adres endpointu HTTP
+   * @param body tresc zadania
+   * @return tresc odpowiedzi lub null
+   */
+  public static String postBody(String url, String body) {
+    long start = System.nanoTime();
+    boolean success = false;
     try {
       HttpHeaders headers = new HttpHeaders();
       headers.setContentType(MediaType.TEXT_PLAIN);
-      HttpEntity<String> entity = new HttpEntity<>("", headers);
+      HttpEntity<String> entity = new HttpEntity<>(body, headers);
 
       ResponseEntity<String> resp =
-          rest.exchange(url, HttpMethod.POST, entity, String.class);
+          rest.exchange(URI.create(url), HttpMethod.POST, entity, String.class);
+      success = true;
       return resp.getBody();
 
-    } catch (RestClientException e) {
+    } catch (RestClientException | IllegalArgumentException e) {
       return null;
+    } finally {
+      PaxosMetrics.recordRpc(url, success, System.nanoTime() - start);
     }
   }
 
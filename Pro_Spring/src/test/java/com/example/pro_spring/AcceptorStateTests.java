@@ -0,0 +1,65 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.pro_spring.model.AcceptorState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test AcceptorState")
+class AcceptorStateTests {
+
+  @Test
+  void promiseKeepsAcceptedValue() {
+    AcceptorState s = AcceptorState.EMPTY.accept(3, 42).promise(7);
+
+    assertThat(s.format()).isEqualTo("STATE,7,3,42");
+  }
+
+  @Test
+  void transitionsDoNotModifySnapshot() {
+    AcceptorState before = AcceptorState.EMPTY.promise(5);
+
+    before.accept(5, 10);
+
+    assertThat(before.format()).isEqualTo("STATE,5,-1,-1");
+  }
+
+  @Test
+  void rollbackWalksHistory() {
+    AcceptorState s = AcceptorState.EMPTY.accept(5, 10).accept(8, 99);
+
+    assertThat(s.rollback().format()).isEqualTo("STATE,5,5,10");
+    assertThat(s.rollback().rollback()).isSameAs(AcceptorState.EMPTY);
+    assertThat(AcceptorState.EMPTY.rollback()).isSameAs(AcceptorState.EMPTY);
+  }
+
+  @Test
+  void abandonRemovesOnlyVersionsOfBallot() {
+    AcceptorState s = AcceptorState.EMPTY.promise(5).accept(5, 10).promise(8);
+
+    assertThat(s.abandon(5)).isSameAs(s);
+    assertThat(s.abandon(8).format()).isEqualTo("STATE,5,5,10");
+    assertThat(s.abandon(8).abandon(5)).isSameAs(AcceptorState.EMPTY);
+  }
+
+  @Test
+  void historyIsTagged() {
+    AcceptorState s = AcceptorState.EMPTY.promise(1).accept(1, 7).promise(3);
+
+    assertThat(s.history()).extracting(AcceptorState::ballot)
+        .containsExactly(3L, 1L, 1L, -1L);
+  }
+
+  @Test
+  void historyIsBounded() {
+    AcceptorState s = AcceptorState.EMPTY;
+    for (int i = 1; i <= 1000; i++) {
+      s = s.promise(i);
+    }
+
+    assertThat(s.history()).hasSizeLessThanOrEqualTo(2 * AcceptorState.MAX_HISTORY + 1);
+    assertThat(s.history()).hasSizeGreaterThan(AcceptorState.MAX_HISTORY);
+    assertThat(s.depth()).isEqualTo(s.history().size() - 1);
+  }
+}
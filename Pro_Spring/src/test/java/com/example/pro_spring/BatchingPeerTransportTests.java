@@ -0,0 +1,228 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mockStatic;
+
+import com.example.pro_spring.transport.BatchFrame;
+import com.example.pro_spring.transport.BatchingPeerTransport;
+import com.example.pro_spring.transport.HttpPeerTransport;
+import com.example.pro_spring.util.HttpUtil;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+@DisplayName("Testy laczenia zadan w ramki")
+class BatchingPeerTransportTests {
+
+  /**
+   * Transport zapisujacy wyslane zadania i ramki. Pierwsze zadanie czeka na zwolnienie zatrzasku,
+   * aby kolejne zdazyly sie zebrac w kolejce.
+   */
+  private static final class RecordingTransport extends HttpPeerTransport {
+
+    private final List<String> single = new ArrayList<>();
+    private final List<List<String>> frames = new ArrayList<>();
+    private final CountDownLatch release;
+    private final CountDownLatch releaseFrames;
+    private final CountDownLatch firstSent = new CountDownLatch(1);
+    private final CountDownLatch frameSent = new CountDownLatch(1);
+
+    RecordingTransport(CountDownLatch release) {
+      this(release, new CountDownLatch(0));
+    }
+
+    RecordingTransport(CountDownLatch release, CountDownLatch releaseFrames) {
+      this.release = release;
+      this.releaseFrames = releaseFrames;
+    }
+
+    @Override
+    public synchronized String post(String url) {
+      single.add(url);
+      firstSent.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "R:" + url.substring(url.lastIndexOf('/'));
+    }
+
+    @Override
+    public List<String> postBatch(String baseUrl, List<String> requests) {
+      synchronized (this) {
+        frames.add(List.copyOf(requests));
+      }
+      frameSent.countDown();
+      try {
+        releaseFrames.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return requests.stream().map(r -> "R:" + r.substring(r.lastIndexOf('/'))).toList();
+    }
+  }
+
+  @Nested
+  @DisplayName("BatchingPeerTransport")
+  class TransportTests {
+
+    @Test
+    @DisplayName("Zadania zebrane w trakcie wysylania wychodza razem w jednej ramce")
+    void coalescesWhileSending() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      RecordingTransport http = new RecordingTransport(release);
+      BatchingPeerTransport transport = new BatchingPeerTransport(http, true, 5000);
+      ExecutorService pool = Executors.newFixedThreadPool(11);
+
+      CompletableFuture<String> first = CompletableFuture.supplyAsync(
+          () -> transport.post("http://localhost:8001/prepare?proposalId=1"), pool);
+      assertThat(http.firstSent.await(5, TimeUnit.SECONDS)).isTrue();
+
+      List<CompletableFuture<String>> queued = new ArrayList<>();
+      for (int g = 1; g <= 10; g++) {
+        String url = "http://localhost:8001/groups/" + g + "/accept?proposalId=1&value=" + g;
+        queued.add(CompletableFuture.supplyAsync(() -> transport.post(url), pool));
+      }
+      Thread.sleep(200);
+      release.countDown();
+
+      assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("R:/prepare?proposalId=1");
+      for (int g = 1; g <= 10; g++) {
+        assertThat(queued.get(g - 1).get(5, TimeUnit.SECONDS))
+            .isEqualTo("R:/accept?proposalId=1&value=" + g);
+      }
+      assertThat(http.single).hasSize(1);
+      assertThat(http.frames).hasSize(1);
+      assertThat(http.frames.get(0)).hasSize(10);
+      pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Wywolujacy wraca po wlasnej odpowiedzi, nie czekajac na ramki innych watkow")
+    void callerDoesNotSendOthersFrames() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      CountDownLatch releaseFrames = new CountDownLatch(1);
+      RecordingTransport http = new RecordingTransport(release, releaseFrames);
+      BatchingPeerTransport transport = new BatchingPeerTransport(http, true, 5000);
+      ExecutorService pool = Executors.newFixedThreadPool(3);
+
+      CompletableFuture<String> first = CompletableFuture.supplyAsync(
+          () -> transport.post("http://localhost:8001/prepare?proposalId=1"), pool);
+      assertThat(http.firstSent.await(5, TimeUnit.SECONDS)).isTrue();
+      CompletableFuture<String> second = CompletableFuture.supplyAsync(
+          () -> transport.post("http://localhost:8001/groups/1/prepare?proposalId=1"), pool);
+      CompletableFuture<String> third = CompletableFuture.supplyAsync(
+          () -> transport.post("http://localhost:8001/groups/2/prepare?proposalId=1"), pool);
+      Thread.sleep(200);
+      release.countDown();
+
+      assertThat(http.frameSent.await(5, TimeUnit.SECONDS)).isTrue();
+      assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo("R:/prepare?proposalId=1");
+      assertThat(second).isNotDone();
+      releaseFrames.countDown();
+      assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("R:/prepare?proposalId=1");
+      assertThat(third.get(5, TimeUnit.SECONDS)).isEqualTo("R:/prepare?proposalId=1");
+      pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Brak odpowiedzi w limicie czasu konczy oczekiwanie wynikiem null")
+    void responseTimeout() {
+      RecordingTransport http = new RecordingTransport(new CountDownLatch(1));
+      BatchingPeerTransport transport = new BatchingPeerTransport(http, true, 100);
+
+      long start = System.nanoTime();
+      assertThat(transport.post("http://localhost:8001/vote?term=3")).isNull();
+      assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+    }
+
+    @Test
+    @DisplayName("Pojedyncze zadanie wychodzi od razu bez ramki")
+    void singleRequestIsSentDirectly() {
+      RecordingTransport http = new RecordingTransport(new CountDownLatch(0));
+      BatchingPeerTransport transport = new BatchingPeerTransport(http, true, 5000);
+
+      assertThat(transport.post("http://localhost:8001/vote?term=3")).isEqualTo("R:/vote?term=3");
+      assertThat(http.single).containsExactly("http://localhost:8001/vote?term=3");
+      assertThat(http.frames).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Zadania spoza protokolu i wylaczone laczenie omijaja kolejke")
+    void bypass() {
+      RecordingTransport http = new RecordingTransport(new CountDownLatch(0));
+
+      new BatchingPeerTransport(http, true, 5000)
+          .post("http://localhost:8001/client_propose?value=1");
+      new BatchingPeerTransport(http, true, 5000).post("http://localhost:8001/node_status");
+      List<String> responses = new BatchingPeerTransport(http, false, 5000).postBatch(
+          "http://localhost:8001", List.of("/prepare?proposalId=1", "/vote?term=2"));
+
+      assertThat(responses).containsExactly("R:/prepare?proposalId=1", "R:/vote?term=2");
+      assertThat(http.single).hasSize(4);
+      assertThat(http.frames).isEmpty();
+    }
+  }
+
+  @Nested
+  @DisplayName("BatchFrame")
+  class FrameTests {
+
+    @Test
+    @DisplayName("Odpowiedzi z przecinkami, nowymi liniami i brakami przechodza bez zmian")
+    void responsesRoundTrip() {
+      List<String> responses = Arrays.asList("PROMISE,NONE", null, "ZACIETY\nz ~ tylda", "");
+
+      assertThat(BatchFrame.decodeResponses(BatchFrame.encodeResponses(responses), 4))
+          .containsExactlyElementsOf(responses);
+    }
+
+    @Test
+    @DisplayName("Odpowiedz o innej liczbie linii oznacza brak wszystkich odpowiedzi")
+    void wrongResponseCount() {
+      assertThat(BatchFrame.decodeResponses("A\nB", 3)).containsExactly(null, null, null);
+      assertThat(BatchFrame.decodeResponses(null, 2)).containsExactly(null, null);
+    }
+
+    @Test
+    @DisplayName("Endpoint, grupa i parametry sa odczytywane z zadania")
+    void parsesRequest() {
+      String request = "/groups/12/accept?proposalId=5&value=9";
+
+      assertThat(BatchFrame.endpoint(request)).isEqualTo("/accept");
+      assertThat(BatchFrame.group(request)).isEqualTo(12);
+      assertThat(BatchFrame.param(request, "value")).isEqualTo("9");
+      assertThat(BatchFrame.param(request, "term")).isNull();
+      assertThat(BatchFrame.endpoint("/vote?term=1")).isEqualTo("/vote");
+      assertThat(BatchFrame.group("/vote?term=1")).isNull();
+    }
+
+    @Test
+    @DisplayName("HttpPeerTransport wysyla zadania jako jedna ramke POST /batch")
+    void httpTransportSendsFrame() {
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+        http.when(() -> HttpUtil.postBody(eq("http://localhost:8001/batch"), anyString()))
+            .thenReturn("VOTE%2C3\n~");
+
+        List<String> responses = new HttpPeerTransport().postBatch("http://localhost:8001",
+            List.of("/vote?term=3", "/groups/2/leader_info"));
+
+        assertThat(responses).containsExactly("VOTE,3", null);
+        http.verify(() -> HttpUtil.postBody("http://localhost:8001/batch",
+            "/vote?term=3\n/groups/2/leader_info"));
+      }
+    }
+  }
+}
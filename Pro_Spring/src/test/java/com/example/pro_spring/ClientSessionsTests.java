@@ -0,0 +1,121 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.pro_spring.model.ClientRequestId;
+import com.example.pro_spring.service.ClientSessions;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Testy tablicy deduplikacji zadan klientow")
+class ClientSessionsTests {
+
+  private final AtomicInteger rounds = new AtomicInteger();
+
+  private Supplier<CompletableFuture<Integer>> round(CompletableFuture<Integer> result) {
+    return () -> {
+      rounds.incrementAndGet();
+      return result;
+    };
+  }
+
+  @Test
+  @DisplayName("Ponowienie zadania w toku dostaje wynik tej samej rundy")
+  void duplicateInFlight() {
+    ClientSessions sessions = new ClientSessions(10);
+    CompletableFuture<Integer> pending = new CompletableFuture<>();
+    ClientRequestId id = new ClientRequestId("a", 1);
+
+    CompletableFuture<Integer> first = sessions.propose(0, id, round(pending));
+    CompletableFuture<Integer> retry = sessions.propose(0, id, round(pending));
+
+    assertThat(retry).isSameAs(first);
+    assertThat(rounds).hasValue(1);
+  }
+
+  @Test
+  @DisplayName("Ponowienie nieudanej rundy uruchamia ja ponownie")
+  void retryAfterFailedRound() {
+    ClientSessions sessions = new ClientSessions(10);
+    ClientRequestId id = new ClientRequestId("a", 1);
+
+    sessions.propose(0, id, round(CompletableFuture.completedFuture(null)));
+    CompletableFuture<Integer> retry =
+        sessions.propose(0, id, round(CompletableFuture.completedFuture(7)));
+
+    assertThat(retry).isCompletedWithValue(7);
+    assertThat(rounds).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Zadania w oknie sa obslugiwane w dowolnej kolejnosci i deduplikowane")
+  void outOfOrderWithinWindow() {
+    ClientSessions sessions = new ClientSessions(10);
+    CompletableFuture<Integer> pending = new CompletableFuture<>();
+    CompletableFuture<Integer> done = CompletableFuture.completedFuture(7);
+
+    sessions.propose(0, new ClientRequestId("a", 5), round(done));
+    CompletableFuture<Integer> late =
+        sessions.propose(0, new ClientRequestId("a", 4), round(pending));
+
+    assertThat(late).isSameAs(pending);
+    assertThat(sessions.propose(0, new ClientRequestId("a", 4), round(done))).isSameAs(pending);
+    assertThat(sessions.propose(0, new ClientRequestId("a", 5), round(pending))).isSameAs(done);
+    assertThat(rounds).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Zadanie sprzed okna jest odrzucane")
+  void staleBeforeWindow() {
+    ClientSessions sessions = new ClientSessions(10);
+    CompletableFuture<Integer> done = CompletableFuture.completedFuture(7);
+    long last = 5 + ClientSessions.WINDOW;
+
+    sessions.propose(0, new ClientRequestId("a", 5), round(done));
+    sessions.propose(0, new ClientRequestId("a", last), round(done));
+
+    assertThat(sessions.propose(0, new ClientRequestId("a", 5), round(done))).isNull();
+    assertThat(sessions.propose(0, new ClientRequestId("a", 6), round(done))).isSameAs(done);
+    assertThat(rounds).hasValue(3);
+  }
+
+  @Test
+  @DisplayName("Identyfikator klienta jest kodowany w parametrach zadania")
+  void queryEncodesClientId() {
+    assertThat(new ClientRequestId("a&b=c d", 3).query())
+        .isEqualTo("&clientId=a%26b%3Dc+d&seq=3");
+    assertThat(new ClientRequestId("klient-zolw", 4).query())
+        .isEqualTo("&clientId=klient-zolw&seq=4");
+  }
+
+  @Test
+  @DisplayName("Liczba pamietanych klientow jest ograniczona")
+  void bounded() {
+    ClientSessions sessions = new ClientSessions(3);
+    CompletableFuture<Integer> done = CompletableFuture.completedFuture(7);
+
+    for (int i = 0; i < 100; i++) {
+      sessions.propose(0, new ClientRequestId("c" + i, 1), round(done));
+    }
+
+    assertThat(sessions.size()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Ten sam klient ma osobne numery sekwencyjne w kazdej grupie")
+  void sessionsPerGroup() {
+    ClientSessions sessions = new ClientSessions(10);
+    CompletableFuture<Integer> done = CompletableFuture.completedFuture(7);
+    CompletableFuture<Integer> other = CompletableFuture.completedFuture(8);
+
+    sessions.propose(0, new ClientRequestId("a", 5), round(done));
+
+    assertThat(sessions.propose(1, new ClientRequestId("a", 1), round(other))).isSameAs(other);
+    assertThat(sessions.propose(2, new ClientRequestId("a", 5), round(other))).isSameAs(other);
+    assertThat(rounds).hasValue(3);
+    assertThat(sessions.size()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,83 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.events.ClusterEvent;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.service.SystemProtocolClock;
+import com.example.pro_spring.trace.ProtocolTrace;
+import com.example.pro_spring.transport.HttpPeerTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@DisplayName("Testy ClusterEvents")
+class ClusterEventsTests {
+
+  private static final ClusterEvent SNAPSHOT =
+      new ClusterEvent(1L, 8000, 0, "SNAPSHOT", -1, -1, 8000, false, "STATE,-1,-1,-1", null);
+
+  @Test
+  @DisplayName("Bez subskrybentow zdarzenia nie sa kolejkowane")
+  void noSubscribersQueuesNothing() {
+    ClusterEvents events = new ClusterEvents();
+
+    events.publish(SNAPSHOT);
+
+    assertThat(events.active()).isFalse();
+    assertThat(events.pending()).isZero();
+  }
+
+  @Test
+  @DisplayName("Zdarzenia subskrybenta sa kolejkowane, a dispatch je wysyla")
+  void subscriberReceivesEvents() {
+    ClusterEvents events = new ClusterEvents();
+    events.subscribe(List.of(SNAPSHOT));
+
+    events.publish(SNAPSHOT);
+    events.publish(SNAPSHOT);
+
+    assertThat(events.pending()).isEqualTo(2);
+
+    events.dispatch();
+
+    assertThat(events.pending()).isZero();
+    assertThat(events.subscribers()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Zamkniety strumien jest usuwany przy wysylce")
+  void closedSubscriberIsRemoved() {
+    ClusterEvents events = new ClusterEvents();
+    SseEmitter emitter = events.subscribe(List.of(SNAPSHOT));
+    emitter.complete();
+
+    events.publish(SNAPSHOT);
+    events.dispatch();
+
+    assertThat(events.subscribers()).isZero();
+  }
+
+  @Test
+  @DisplayName("Serwer publikuje PROMISE i ACCEPT ze stanem po zmianie")
+  void serverPublishesAcceptorEvents() {
+    ClusterEvents events = new ClusterEvents();
+    PaxosServer server = new PaxosServer(
+        8000, 1, 8000, null, null, null, null, new PaxosMetrics(new SimpleMeterRegistry()),
+        new ProtocolTrace(false, 1.0), events, new HttpPeerTransport(),
+        PaxosProperties.localCluster(8000, 3), new SystemProtocolClock());
+    events.subscribe(List.of(server.snapshot()));
+
+    server.prepare(5L);
+    server.accept(5L, 10);
+    server.prepare(3L);
+
+    assertThat(events.pending()).isEqualTo(2);
+    assertThat(server.snapshot().state()).isEqualTo("STATE,5,5,10");
+  }
+}
@@ -2,12 +2,19 @@ package com.example.pro_spring;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.example.pro_spring.config.PaxosProperties;
 import com.example.pro_spring.controller.PaxosController;
+import com.example.pro_spring.exception.ServerBusyException;
+import com.example.pro_spring.service.ClientSessions;
+import com.example.pro_spring.service.PaxosGroups;
 import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.transport.HttpPeerTransport;
 import com.example.pro_spring.util.HttpUtil;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -15,13 +22,17 @@ import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(
     controllers = PaxosController.class,
     excludeAutoConfiguration = SecurityAutoConfiguration.class
 )
+@Import({ClientSessions.class, PaxosGroups.class, HttpPeerTransport.class})
 @DisplayName("Testy PaxosController")
 class ControllerTests {
 
@@ -31,6 +42,9 @@ class ControllerTests {
   @MockitoBean
   private PaxosServer server;
 
+  @MockitoBean(name = "controlExecutor")
+  private AsyncTaskExecutor controlExecutor;
+
   @Nested
   @DisplayName("/client_propose")
   class ClientProposeTests {
@@ -39,10 +53,14 @@ class ControllerTests {
     @DisplayName("Serwer nie jest liderem")
     void notLeader() throws Exception {
       when(server.getPort()).thenReturn(8001);
-        PaxosServer.setLeaderPort(8000);
+        when(server.getLeaderPort()).thenReturn(8000);
 
-      mockMvc.perform(post("/client_propose")
+      MvcResult result = mockMvc.perform(post("/client_propose")
               .param("value", "10"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
           .andExpect(status().isOk())
           .andExpect(content().string("NOT_LEADER,8000"));
 
@@ -53,15 +71,161 @@ class ControllerTests {
     @DisplayName("Serwer jest liderem")
     void isLeader() throws Exception {
       when(server.getPort()).thenReturn(8000);
-        PaxosServer.setLeaderPort(8000);
+        when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(42)).thenReturn(new CompletableFuture<>());
 
-      mockMvc.perform(post("/client_propose")
+      MvcResult result = mockMvc.perform(post("/client_propose")
               .param("value", "42"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
           .andExpect(status().isOk())
           .andExpect(content().string("OK: proposal started by leader on port 8000"));
 
       verify(server).startPaxos(42);
     }
+
+    @Test
+    @DisplayName("wait=true - odpowiedz po zatwierdzeniu wartosci")
+    void waitForCommit() throws Exception {
+      when(server.getPort()).thenReturn(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(42)).thenReturn(CompletableFuture.completedFuture(42));
+
+      MvcResult result = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("wait", "true"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(status().isOk())
+          .andExpect(content().string("COMMITTED,42"));
+    }
+
+    @Test
+    @DisplayName("wait=true - nieudana runda zwraca FAILED")
+    void waitForFailedRound() throws Exception {
+      when(server.getPort()).thenReturn(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(42)).thenReturn(CompletableFuture.completedFuture(null));
+
+      MvcResult result = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("wait", "true"))
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(content().string("FAILED"));
+    }
+
+    @Test
+    @DisplayName("Przeciazony lider odpowiada BUSY")
+    void busyLeader() throws Exception {
+      when(server.getPort()).thenReturn(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(42))
+          .thenReturn(CompletableFuture.failedFuture(new ServerBusyException("limit")));
+
+      MvcResult result = mockMvc.perform(post("/client_propose")
+              .param("value", "42"))
+          .andReturn();
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(content().string("BUSY"));
+
+      result = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("wait", "true"))
+          .andReturn();
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(content().string("BUSY"));
+    }
+
+    @Test
+    @DisplayName("wait=true - brak zatwierdzenia w zadanym czasie zwraca TIMEOUT")
+    void waitTimeout() throws Exception {
+      when(server.getPort()).thenReturn(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(42)).thenReturn(new CompletableFuture<>());
+
+      MvcResult result = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("wait", "true")
+              .param("timeoutMs", "50"))
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(content().string("TIMEOUT"));
+    }
+
+    @Test
+    @DisplayName("wait=true - serwer nie jest liderem")
+    void waitNotLeader() throws Exception {
+      when(server.getPort()).thenReturn(8001);
+      when(server.getLeaderPort()).thenReturn(8000);
+
+      MvcResult result = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("wait", "true"))
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(result))
+          .andExpect(content().string("NOT_LEADER,8000"));
+      verify(server, never()).startPaxos(anyInt());
+    }
+
+    @Test
+    @DisplayName("Ponowione zadanie z tym samym clientId i seq nie uruchamia drugiej rundy")
+    void duplicateRequest() throws Exception {
+      when(server.getPort()).thenReturn(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(42)).thenReturn(CompletableFuture.completedFuture(42));
+
+      for (int i = 0; i < 2; i++) {
+        MvcResult result = mockMvc.perform(post("/client_propose")
+                .param("value", "42")
+                .param("wait", "true")
+                .param("clientId", "dup")
+                .param("seq", "1"))
+            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(content().string("COMMITTED,42"));
+      }
+
+      verify(server, times(1)).startPaxos(42);
+    }
+
+    @Test
+    @DisplayName("Zadanie sprzed okna ostatnich zadan klienta jest odrzucane")
+    void staleRequest() throws Exception {
+      when(server.getPort()).thenReturn(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
+      when(server.startPaxos(anyInt())).thenReturn(CompletableFuture.completedFuture(42));
+
+      MvcResult accepted = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("clientId", "stale")
+              .param("seq", String.valueOf(4 + ClientSessions.WINDOW)))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(accepted))
+          .andExpect(content().string("OK: proposal started by leader on port 8000"));
+
+      MvcResult stale = mockMvc.perform(post("/client_propose")
+              .param("value", "42")
+              .param("clientId", "stale")
+              .param("seq", "4"))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+
+      mockMvc.perform(asyncDispatch(stale))
+          .andExpect(content().string("STALE_REQUEST,4"));
+
+      verify(server, times(1)).startPaxos(42);
+    }
   }
 
   @Test
@@ -75,6 +239,44 @@ class ControllerTests {
         .andExpect(content().string("PROMISE"));
   }
 
+  @Test
+  @DisplayName("/groups/0/prepare – prefiks grupy 0 trafia do tego samego serwera")
+  void prepareInGroup() throws Exception {
+    when(server.prepare(100L)).thenReturn("PROMISE");
+
+    mockMvc.perform(post("/groups/0/prepare")
+            .param("proposalId", "100"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("PROMISE"));
+  }
+
+  @Test
+  @DisplayName("/groups/{group} – nieznana grupa konczy sie bledem serwera")
+  void unknownGroup() throws Exception {
+    mockMvc.perform(post("/groups/3/prepare")
+            .param("proposalId", "100"))
+        .andExpect(status().isInternalServerError());
+
+    verify(server, never()).prepare(anyLong());
+  }
+
+  @Test
+  @DisplayName("/batch – wykonuje zadania ramki i zwraca odpowiedzi w tej samej kolejnosci")
+  void batch() throws Exception {
+    when(server.prepare(5L)).thenReturn("PROMISE,NONE");
+    when(server.accept(5L, 9)).thenReturn("ACCEPTED,5,9");
+    when(server.announce(16, 8003)).thenReturn("LEADER,8003,16");
+
+    mockMvc.perform(post("/batch")
+            .content("/prepare?proposalId=5\n/groups/0/accept?proposalId=5&value=9\n"
+                + "/groups/7/vote?term=3\n/leader_announce?term=16&leader=8003\n/crash"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "PROMISE%2CNONE\nACCEPTED%2C5%2C9\n~\nLEADER%2C8003%2C16\n~"));
+
+    verify(server, never()).crash();
+  }
+
   @Test
   @DisplayName("/accept – wywoluje server.accept")
   void accept() throws Exception {
@@ -98,13 +300,26 @@ class ControllerTests {
   }
 
   @Test
-  @DisplayName("/election – zwraca port")
-  void election() throws Exception {
-    when(server.getPort()).thenReturn(8003);
+  @DisplayName("/vote – oddaje glos w kadencji")
+  void vote() throws Exception {
+    when(server.vote(5)).thenReturn("VOTE,5");
 
-    mockMvc.perform(post("/election"))
+    mockMvc.perform(post("/vote")
+            .param("term", "5"))
         .andExpect(status().isOk())
-        .andExpect(content().string("8003"));
+        .andExpect(content().string("VOTE,5"));
+  }
+
+  @Test
+  @DisplayName("/leader_announce – przyjmuje zwyciezce elekcji")
+  void leaderAnnounce() throws Exception {
+    when(server.announce(16, 8003)).thenReturn("LEADER,8003,16");
+
+    mockMvc.perform(post("/leader_announce")
+            .param("term", "16")
+            .param("leader", "8003"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("LEADER,8003,16"));
   }
 
   @Test
@@ -139,7 +354,7 @@ class ControllerTests {
     @DisplayName("Serwer nie jest liderem")
     void clearAllNotLeader() throws Exception {
       when(server.getPort()).thenReturn(8001);
-        PaxosServer.setLeaderPort(8000);
+        when(server.getLeaderPort()).thenReturn(8000);
 
       mockMvc.perform(post("/clearall"))
           .andExpect(status().isOk())
@@ -150,8 +365,9 @@ class ControllerTests {
     @DisplayName("Serwer jest liderem - wywoluje clearall")
     void clearAllLeader() throws Exception {
 
-      PaxosServer.setLeaderPort(8000);
+      when(server.getLeaderPort()).thenReturn(8000);
       when(server.getPort()).thenReturn(8000);
+      when(server.getPeers()).thenReturn(PaxosProperties.localCluster(8000, 8).urls());
 
       try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
@@ -170,7 +386,8 @@ class ControllerTests {
     void clearAllCountsNonNullResponses() throws Exception {
       when(server.isStuck()).thenReturn(false);
       when(server.getPort()).thenReturn(8000);
-      PaxosServer.setLeaderPort(8000);
+      when(server.getPeers()).thenReturn(PaxosProperties.localCluster(8000, 8).urls());
+      when(server.getLeaderPort()).thenReturn(8000);
 
       try (MockedStatic<HttpUtil> httpMock = mockStatic(HttpUtil.class)) {
 
@@ -189,7 +406,8 @@ class ControllerTests {
     void clearAllCountsNullResponses() throws Exception {
       when(server.isStuck()).thenReturn(false);
       when(server.getPort()).thenReturn(8000);
-      PaxosServer.setLeaderPort(8000);
+      when(server.getPeers()).thenReturn(PaxosProperties.localCluster(8000, 8).urls());
+      when(server.getLeaderPort()).thenReturn(8000);
 
       try (MockedStatic<HttpUtil> httpMock = mockStatic(HttpUtil.class)) {
 
@@ -249,6 +467,18 @@ class ControllerTests {
     verify(server).rollback();
   }
 
+  @Test
+  @DisplayName("/rollback z proposalId – wycofuje wersje tej propozycji")
+  void rollbackByBallot() throws Exception {
+    mockMvc.perform(post("/rollback")
+            .param("proposalId", "7"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("ROLLED_BACK"));
+
+    verify(server).rollback(7L);
+    verify(server, never()).rollback();
+  }
+
   @Test
   @DisplayName("/stuck – ustawia serwer w stan STUCK")
   void stuckEndpoint() throws Exception {
@@ -281,8 +511,12 @@ class ControllerTests {
     when(server.isStuck()).thenReturn(true);
     when(server.getStuckMessage()).thenReturn("STUCK");
 
-    mockMvc.perform(post("/client_propose")
+    MvcResult result = mockMvc.perform(post("/client_propose")
             .param("value", "10"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
         .andExpect(status().isOk())
         .andExpect(content().string("STUCK"));
 
@@ -347,16 +581,17 @@ class ControllerTests {
   }
 
   @Test
-  @DisplayName("SERVER STUCK – /election")
-  void electionStuck() throws Exception {
+  @DisplayName("SERVER STUCK – /vote")
+  void voteStuck() throws Exception {
     when(server.isStuck()).thenReturn(true);
     when(server.getStuckMessage()).thenReturn("STUCK");
 
-    mockMvc.perform(post("/election"))
+    mockMvc.perform(post("/vote")
+            .param("term", "5"))
         .andExpect(status().isOk())
         .andExpect(content().string("STUCK"));
 
-    verify(server, never()).getPort();
+    verify(server, never()).vote(anyLong());
   }
 
   @Test
@@ -414,13 +649,23 @@ class ControllerTests {
   @Test
   @DisplayName("/leader – zwraca port lidera")
   void leaderEndpoint() throws Exception {
-    PaxosServer.setLeaderPort(8005);
+    when(server.getLeaderPort()).thenReturn(8005);
 
     mockMvc.perform(post("/leader"))
         .andExpect(status().isOk())
         .andExpect(content().string("8005"));
   }
 
+  @Test
+  @DisplayName("/leader_info – zwraca lidera z kadencja")
+  void leaderInfo() throws Exception {
+    when(server.leaderInfo()).thenReturn("LEADER,8005,16");
+
+    mockMvc.perform(post("/leader_info"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("LEADER,8005,16"));
+  }
+
 
 
 }
@@ -0,0 +1,139 @@
+package com.example.pro_spring;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.pro_spring.controller.PaxosController;
+import com.example.pro_spring.model.ClientRequestId;
+import com.example.pro_spring.service.ClientSessions;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.transport.HttpPeerTransport;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(
+    controllers = PaxosController.class,
+    excludeAutoConfiguration = SecurityAutoConfiguration.class,
+    properties = {
+        "paxos.client.forward-to-leader=true",
+        "paxos.client.commit-timeout-ms=200"
+    }
+)
+@Import({ClientSessions.class, PaxosGroups.class, HttpPeerTransport.class})
+@DisplayName("Testy PaxosController z przekazywaniem propozycji do lidera")
+class ForwardingControllerTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private PaxosServer server;
+
+  @MockitoBean(name = "controlExecutor")
+  private AsyncTaskExecutor controlExecutor;
+
+  @BeforeEach
+  void setup() {
+    when(server.getPort()).thenReturn(8001);
+    when(server.getLeaderPort()).thenReturn(8000);
+  }
+
+  @Test
+  @DisplayName("Follower przekazuje propozycje i zwraca odpowiedz lidera")
+  void forwardsProposal() throws Exception {
+    when(server.forwardToLeader(10, false, null)).thenReturn(
+        CompletableFuture.completedFuture("OK: proposal started by leader on port 8000"));
+
+    MvcResult result = mockMvc.perform(post("/client_propose")
+            .param("value", "10"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("OK: proposal started by leader on port 8000"));
+
+    verify(server, never()).startPaxos(anyInt());
+  }
+
+  @Test
+  @DisplayName("Lider, ktory nie odpowiada, daje TIMEOUT bez blokowania watku serwera")
+  void forwardTimesOut() throws Exception {
+    when(server.forwardToLeader(10, false, null)).thenReturn(new CompletableFuture<>());
+
+    MvcResult result = mockMvc.perform(post("/client_propose")
+            .param("value", "10"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("TIMEOUT"));
+  }
+
+  @Test
+  @DisplayName("Follower zwraca wynik rundy zatwierdzonej przez lidera")
+  void forwardsAndWaits() throws Exception {
+    when(server.forwardToLeader(10, true, null))
+        .thenReturn(CompletableFuture.completedFuture("COMMITTED,10"));
+
+    MvcResult result = mockMvc.perform(post("/client_propose")
+            .param("value", "10")
+            .param("wait", "true"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("COMMITTED,10"));
+  }
+
+  @Test
+  @DisplayName("Identyfikator zadania klienta jest przekazywany liderowi")
+  void forwardsRequestId() throws Exception {
+    ClientRequestId id = new ClientRequestId("c1", 3);
+    when(server.forwardToLeader(10, false, id)).thenReturn(
+        CompletableFuture.completedFuture("OK: proposal started by leader on port 8000"));
+
+    MvcResult result = mockMvc.perform(post("/client_propose")
+            .param("value", "10")
+            .param("clientId", "c1")
+            .param("seq", "3"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(content().string("OK: proposal started by leader on port 8000"));
+
+    verify(server).forwardToLeader(10, false, id);
+  }
+
+  @Test
+  @DisplayName("Zadanie juz przekazane nie jest przekazywane ponownie")
+  void forwardedRequestIsNotForwardedAgain() throws Exception {
+    MvcResult result = mockMvc.perform(post("/client_propose")
+            .param("value", "10")
+            .param("forwarded", "true"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string("NOT_LEADER,8000"));
+
+    verify(server, never()).forwardToLeader(anyInt(), anyBoolean(), any());
+  }
+}
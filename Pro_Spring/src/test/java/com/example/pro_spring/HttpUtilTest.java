@@ -58,6 +58,34 @@ class HttpUtilTest {
     mockServer.verify();
   }
 
+  @Test
+  @DisplayName("postBody – wysyla tresc zadania")
+  void postBodySendsContent() {
+    mockServer.expect(requestTo("http://test/batch"))
+        .andExpect(method(HttpMethod.POST))
+        .andExpect(content().string("/prepare?proposalId=1\n/vote?term=2"))
+        .andRespond(withSuccess("PROMISE%2CNONE\nVOTE%2C2", MediaType.TEXT_PLAIN));
+
+    String result = HttpUtil.postBody("http://test/batch", "/prepare?proposalId=1\n/vote?term=2");
+
+    mockServer.verify();
+    assertThat(result).isEqualTo("PROMISE%2CNONE\nVOTE%2C2");
+  }
+
+
+  @Test
+  @DisplayName("postParams – zakodowane parametry nie sa kodowane drugi raz")
+  void postParamsKeepsEncodedQuery() {
+    mockServer.expect(requestTo("http://test/client_propose?value=1&clientId=a%26b%3Dc+d&seq=3"))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(withSuccess("OK", MediaType.TEXT_PLAIN));
+
+    String result =
+        HttpUtil.postParams("http://test/client_propose?value=1&clientId=a%26b%3Dc+d&seq=3");
+
+    mockServer.verify();
+    assertThat(result).isEqualTo("OK");
+  }
 
   @Test
   @DisplayName("Konstruktor rzuca wyjatek")
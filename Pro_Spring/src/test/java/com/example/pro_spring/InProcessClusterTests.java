@@ -0,0 +1,309 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.pro_spring.cluster.InMemoryTransport;
+import com.example.pro_spring.cluster.InProcessCluster;
+import com.example.pro_spring.model.ClusterStatus;
+import com.example.pro_spring.service.ClusterStatusService;
+import com.example.pro_spring.service.PaxosServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@DisplayName("Testy klastra w jednej JVM")
+class InProcessClusterTests {
+
+  private InProcessCluster cluster;
+
+  @BeforeEach
+  void setup() {
+    cluster = new InProcessCluster(8000, 8);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cluster.close();
+  }
+
+  @Nested
+  @DisplayName("Runda Paxosa przez InMemoryTransport")
+  class RoundTests {
+
+    @Test
+    @DisplayName("Wartosc zostaje zaakceptowana przez wszystkie serwery")
+    void roundCommitsOnAllNodes() throws Exception {
+      assertThat(cluster.propose(42).get(5, TimeUnit.SECONDS)).isEqualTo(42);
+
+      assertThat(cluster.nodes())
+          .extracting(PaxosServer::state)
+          .allSatisfy(s -> assertThat(s).startsWith("STATE,").endsWith(",42"));
+    }
+
+    @Test
+    @DisplayName("Wiekszosc 5 z 8 wystarcza do zatwierdzenia wartosci")
+    void roundCommitsWithMinimalMajority() throws Exception {
+      cluster.disconnect(5);
+      cluster.disconnect(6);
+      cluster.disconnect(7);
+
+      cluster.propose(7).get(5, TimeUnit.SECONDS);
+
+      assertThat(cluster.node(0).state()).endsWith(",7");
+      assertThat(cluster.node(4).state()).endsWith(",7");
+      assertThat(cluster.node(7).state()).isEqualTo("STATE,-1,-1,-1");
+    }
+
+    @Test
+    @DisplayName("Bez wiekszosci zaden serwer nie akceptuje wartosci")
+    void roundFailsWithoutMajority() throws Exception {
+      for (int i = 4; i < 8; i++) {
+        cluster.disconnect(i);
+      }
+
+      assertThat(cluster.propose(7).get(5, TimeUnit.SECONDS)).isNull();
+
+      assertThat(cluster.node(0).state()).endsWith(",-1,-1");
+    }
+
+    @Test
+    @DisplayName("Kolejna runda nie zmienia juz wybranej wartosci")
+    void chosenValueIsKept() throws Exception {
+      cluster.propose(42).get(5, TimeUnit.SECONDS);
+
+      assertThat(cluster.propose(99).get(5, TimeUnit.SECONDS)).isEqualTo(42);
+
+      assertThat(cluster.node(3).state()).endsWith(",42");
+    }
+
+    @Test
+    @DisplayName("Wiecej rownoczesnych rund niz watkow puli konczy sie bez zakleszczenia")
+    void concurrentRoundsFinish() {
+      List<CompletableFuture<Integer>> rounds = new ArrayList<>();
+      for (int i = 1; i <= 40; i++) {
+        rounds.add(cluster.propose(i));
+      }
+
+      assertThat(CompletableFuture.allOf(rounds.toArray(CompletableFuture[]::new)))
+          .succeedsWithin(30, TimeUnit.SECONDS);
+      assertThat(rounds.stream().map(CompletableFuture::join).filter(Objects::nonNull).distinct())
+          .hasSizeLessThanOrEqualTo(1);
+    }
+  }
+
+  @Nested
+  @DisplayName("Zbiorczy stan klastra")
+  class StatusTests {
+
+    private ClusterStatusService statusOf(int index) {
+      return new ClusterStatusService(cluster.node(index), cluster.transport(),
+          new SimpleAsyncTaskExecutor(), new ObjectMapper(), 1000);
+    }
+
+    @Test
+    @DisplayName("Stan wszystkich wezlow po zatwierdzeniu wartosci")
+    void allNodes() throws Exception {
+      cluster.propose(42).get(5, TimeUnit.SECONDS);
+
+      ClusterStatus status = statusOf(3).collect();
+
+      assertThat(status.size()).isEqualTo(8);
+      assertThat(status.reachable()).isEqualTo(8);
+      assertThat(status.leaderPort()).isEqualTo(8000);
+      assertThat(status.nodes()).allSatisfy(p -> {
+        assertThat(p.lag()).isZero();
+        assertThat(p.node().acceptedValue()).isEqualTo(42);
+      });
+      assertThat(status.nodes().get(0).node().metrics().roundsCommitted()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Odlaczony wezel jest nieosiagalny, a wezel bez wartosci ma opoznienie")
+    void unreachableAndLagging() throws Exception {
+      cluster.disconnect(7);
+      cluster.propose(42).get(5, TimeUnit.SECONDS);
+      cluster.reconnect(7);
+      cluster.disconnect(6);
+      cluster.node(5).stuck("ERR");
+
+      ClusterStatus status = statusOf(0).collect();
+
+      assertThat(status.reachable()).isEqualTo(7);
+      assertThat(status.nodes().get(6).reachable()).isFalse();
+      assertThat(status.nodes().get(5).node().stuck()).isTrue();
+      assertThat(status.nodes().get(7).lag())
+          .isEqualTo(status.highestAcceptedProposal() + 1);
+    }
+  }
+
+  @Nested
+  @DisplayName("Przekazywanie propozycji do lidera")
+  class ForwardingTests {
+
+    @Test
+    @DisplayName("Follower przekazuje propozycje i zwraca wynik rundy lidera")
+    void followerRelaysCommit() throws Exception {
+      assertThat(cluster.node(3).forwardToLeader(7, true, null).get(5, TimeUnit.SECONDS))
+          .isEqualTo("COMMITTED,7");
+
+      assertThat(cluster.node(3).state()).endsWith(",7");
+    }
+
+    @Test
+    @DisplayName("Niedostepny lider - follower zwraca NOT_LEADER")
+    void unreachableLeader() throws Exception {
+      cluster.disconnect(0);
+
+      assertThat(cluster.node(3).forwardToLeader(7, true, null).get(5, TimeUnit.SECONDS))
+          .isEqualTo("NOT_LEADER,8000");
+    }
+  }
+
+  @Nested
+  @DisplayName("Lider w ramach instancji")
+  class LeaderTests {
+
+    @Test
+    @DisplayName("Ogloszenie nowej kadencji zmienia lidera tylko w swoim klastrze")
+    void clustersKeepSeparateLeaders() {
+      try (InProcessCluster other = new InProcessCluster(9000, 3)) {
+        InMemoryTransport transport = cluster.transport();
+        for (int i = 0; i < 8; i++) {
+          assertThat(transport.post("http://localhost:" + (8000 + i)
+              + "/leader_announce?term=5&leader=8001")).isEqualTo("LEADER,8001,5");
+        }
+
+        assertThat(cluster.leader().getPort()).isEqualTo(8001);
+        assertThat(cluster.nodes()).allMatch(n -> n.getLeaderTerm() == 5);
+        assertThat(other.leader().getPort()).isEqualTo(9000);
+        assertThat(other.nodes()).allMatch(n -> n.getLeaderPort() == 9000);
+      }
+    }
+
+    @Test
+    @DisplayName("Serwer odciety od ogloszenia zachowuje wlasny widok lidera")
+    void nodeKeepsOwnLeaderView() {
+      cluster.node(3).setLeaderPort(-1);
+
+      assertThat(cluster.node(3).getLeaderPort()).isEqualTo(-1);
+      assertThat(cluster.node(2).getLeaderPort()).isEqualTo(8000);
+      assertThat(cluster.leader().getPort()).isEqualTo(8000);
+    }
+  }
+
+  @Nested
+  @DisplayName("InMemoryTransport")
+  class TransportTests {
+
+    @Test
+    @DisplayName("Nieznany adres i odlaczony serwer nie odpowiadaja")
+    void unknownAndDisconnectedNodes() {
+      InMemoryTransport transport = cluster.transport();
+
+      assertThat(transport.post("http://localhost:9000/accepted_state")).isNull();
+
+      cluster.disconnect(1);
+      assertThat(transport.post("http://localhost:8001/accepted_state")).isNull();
+
+      cluster.reconnect(1);
+      assertThat(transport.post("http://localhost:8001/accepted_state"))
+          .isEqualTo("STATE,-1,-1,-1");
+    }
+
+    @Test
+    @DisplayName("Zadania sa kierowane do metod serwera jak w kontrolerze")
+    void routesEndpoints() {
+      InMemoryTransport transport = cluster.transport();
+
+      assertThat(transport.post("http://localhost:8002/prepare?proposalId=5"))
+          .isEqualTo("PROMISE,NONE");
+      assertThat(transport.post("http://localhost:8002/accept?proposalId=5&value=9"))
+          .isEqualTo("ACCEPTED,5,9");
+      assertThat(transport.post("http://localhost:8002/vote?term=3")).isEqualTo("VOTE,3");
+      assertThat(transport.post("http://localhost:8002/vote?term=2")).isEqualTo("REJECT,3");
+      assertThat(transport.post("http://localhost:8002/leader")).isEqualTo("8000");
+      assertThat(transport.post("http://localhost:8002/leader_info")).isEqualTo("LEADER,8000,0");
+      assertThat(transport.post("http://localhost:8002/clear")).isEqualTo("STATE_CLEARED");
+      assertThat(transport.post("http://localhost:8002/unknown")).isNull();
+    }
+
+    @Test
+    @DisplayName("Propozycja klienta przechodzi przez kontroler, z deduplikacja zadan")
+    void proposeGoesThroughController() {
+      InMemoryTransport transport = cluster.transport();
+      String request = "/client_propose?value=42&wait=true&clientId=a%26b&seq=1";
+
+      assertThat(transport.post("http://localhost:8000" + request)).isEqualTo("COMMITTED,42");
+      assertThat(transport.post("http://localhost:8000" + request)).isEqualTo("COMMITTED,42");
+      assertThat(transport.post("http://localhost:8003/client_propose?value=7"))
+          .isEqualTo("NOT_LEADER,8000");
+    }
+
+    @Test
+    @DisplayName("Zaciety serwer zwraca komunikat blokady")
+    void stuckNode() {
+      cluster.node(3).stuck("ZACIETY");
+
+      assertThat(cluster.transport().post("http://localhost:8003/prepare?proposalId=5"))
+          .isEqualTo("ZACIETY");
+    }
+  }
+
+  @Nested
+  @DisplayName("Kilka grup Paxosa na wezlach")
+  class GroupTests {
+
+    private InProcessCluster groups;
+
+    @BeforeEach
+    void setUp() {
+      groups = new InProcessCluster(8100, 5, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+      groups.close();
+    }
+
+    @Test
+    @DisplayName("Kazda grupa zatwierdza wlasna wartosc u wlasnego lidera")
+    void groupsCommitIndependently() throws Exception {
+      for (int g = 0; g < 3; g++) {
+        assertThat(groups.leader(g).getPort()).isEqualTo(8100 + g);
+        assertThat(groups.propose(g, 10 + g).get(5, TimeUnit.SECONDS)).isEqualTo(10 + g);
+      }
+
+      for (int i = 0; i < 5; i++) {
+        for (int g = 0; g < 3; g++) {
+          assertThat(groups.node(i, g).state()).endsWith("," + (10 + g));
+        }
+      }
+    }
+
+    @Test
+    @DisplayName("Prefiks /groups/{group} kieruje zadanie do serwera wskazanej grupy")
+    void routesGroupPrefix() {
+      InMemoryTransport transport = groups.transport();
+
+      assertThat(transport.post("http://localhost:8101/groups/2/prepare?proposalId=5"))
+          .isEqualTo("PROMISE,NONE");
+      assertThat(transport.post("http://localhost:8101/groups/2/accept?proposalId=5&value=9"))
+          .isEqualTo("ACCEPTED,5,9");
+      assertThat(transport.post("http://localhost:8101/groups/2/leader_info"))
+          .isEqualTo("LEADER,8102,0");
+      assertThat(transport.post("http://localhost:8101/accepted_state"))
+          .isEqualTo("STATE,-1,-1,-1");
+      assertThat(groups.node(1, 2).state()).isEqualTo("STATE,5,5,9");
+      assertThat(transport.post("http://localhost:8101/groups/3/accepted_state")).isNull();
+    }
+  }
+}
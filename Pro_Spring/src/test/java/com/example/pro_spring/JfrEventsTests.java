@@ -0,0 +1,157 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.sim.VirtualClock;
+import com.example.pro_spring.trace.ProtocolTrace;
+import com.example.pro_spring.transport.HttpPeerTransport;
+import com.example.pro_spring.util.HttpUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.MockedStatic;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@DisplayName("Zdarzenia JFR")
+class JfrEventsTests {
+
+  private static final String ACCEPTOR_CALL = "com.example.pro_spring.AcceptorCall";
+  private static final String PAXOS_ROUND = "com.example.pro_spring.PaxosRound";
+  private static final String LEADER_ELECTION = "com.example.pro_spring.LeaderElection";
+
+  @TempDir
+  Path dir;
+
+  private PaxosServer server;
+  private ThreadPoolTaskExecutor executor;
+  private VirtualClock clock;
+
+  @BeforeEach
+  void setup() {
+    executor = mock(ThreadPoolTaskExecutor.class);
+    clock = new VirtualClock(System.currentTimeMillis(), new Random(1));
+
+    server = new PaxosServer(
+        8000, 1, 8000, executor, executor, executor, mock(ConfigurableApplicationContext.class),
+        new PaxosMetrics(new SimpleMeterRegistry()), new ProtocolTrace(false, 1.0),
+        new ClusterEvents(), new HttpPeerTransport(), PaxosProperties.localCluster(8000, 8),
+        clock
+    );
+  }
+
+  @Test
+  @DisplayName("prepare i accept emituja AcceptorCall bez ponowien CAS przy jednym watku")
+  void acceptorCallEvents() throws Exception {
+    List<RecordedEvent> events = record(ACCEPTOR_CALL, () -> {
+      server.prepare(5L);
+      server.accept(5L, 10);
+      server.prepare(3L);
+    });
+
+    assertThat(events).hasSize(3);
+    assertThat(events).extracting(e -> e.getString("phase"))
+        .containsExactly("prepare", "accept", "prepare");
+    assertThat(events).extracting(e -> e.getString("response"))
+        .containsExactly("PROMISE", "ACCEPTED", "REJECT");
+    assertThat(events.get(1).getInt("value")).isEqualTo(10);
+    assertThat(events).allMatch(e -> e.getInt("casRetries") == 0);
+  }
+
+  @Test
+  @DisplayName("Runda emituje PaxosRound z liczba obietnic i akceptacji")
+  void paxosRoundEvent() throws Exception {
+
+    doAnswer(inv -> {
+      Runnable r = inv.getArgument(0);
+      r.run();
+      return null;
+    }).when(executor).submit(any(Runnable.class));
+
+    List<RecordedEvent> events;
+    try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+      http.when(() -> HttpUtil.postParams(anyString()))
+          .thenAnswer(inv -> {
+            String url = inv.getArgument(0);
+
+            if (url.contains("/accepted_state")) {
+              return "STATE,-1,-1,-1";
+            }
+
+            if (url.contains("/prepare")) {
+              return "PROMISE,NONE";
+            }
+
+            return "ACCEPTED,1,10";
+          });
+
+      events = record(PAXOS_ROUND, () -> server.startPaxos(10));
+    }
+
+    assertThat(events).hasSize(1);
+    RecordedEvent round = events.get(0);
+    assertThat(round.getString("outcome")).isEqualTo("COMMITTED");
+    assertThat(round.getInt("promises")).isEqualTo(8);
+    assertThat(round.getInt("accepts")).isEqualTo(8);
+    assertThat(round.getInt("chosenValue")).isEqualTo(10);
+    assertThat(round.getInt("attempt")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Wybor lidera emituje LeaderElection")
+  void leaderElectionEvent() throws Exception {
+    server.setLeaderPort(9000);
+
+    doAnswer(inv -> {
+      Runnable r = inv.getArgument(0);
+      r.run();
+      return null;
+    }).when(executor).submit(any(Runnable.class));
+    clock.advance(6001);
+
+    List<RecordedEvent> events;
+    try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+      http.when(() -> HttpUtil.postParams(contains("/vote")))
+          .thenReturn("VOTE,1");
+
+      events = record(LEADER_ELECTION, server::watcher);
+    }
+
+    assertThat(events).hasSize(1);
+    assertThat(events.get(0).getInt("previousLeader")).isEqualTo(9000);
+    assertThat(events.get(0).getInt("winner")).isEqualTo(8000);
+    assertThat(events.get(0).getInt("votes")).isEqualTo(8);
+    assertThat(events.get(0).getLong("term")).isEqualTo(server.getLeaderTerm());
+  }
+
+  private List<RecordedEvent> record(String eventName, Runnable action) throws Exception {
+    Path file = dir.resolve(eventName + ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withoutThreshold();
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    assertThat(Files.exists(file)).isTrue();
+    return RecordingFile.readAllEvents(file).stream()
+        .filter(e -> e.getEventType().getName().equals(eventName))
+        .toList();
+  }
+}
@@ -0,0 +1,323 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.controller.PaxosController;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.exception.ServerException;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.service.ClientSessions;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.service.SystemProtocolClock;
+import com.example.pro_spring.sim.VirtualClock;
+import com.example.pro_spring.trace.ProtocolTrace;
+import com.example.pro_spring.transport.HttpPeerTransport;
+import com.example.pro_spring.transport.PeerTransport;
+import com.example.pro_spring.util.HttpUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@DisplayName("Testy rejestru grup Paxosa")
+class PaxosGroupsTests {
+
+  private PaxosServer server;
+  private PaxosGroups groups;
+  private ThreadPoolTaskExecutor executor;
+
+  @BeforeEach
+  void setup() {
+    executor = mock(ThreadPoolTaskExecutor.class);
+    doAnswer(inv -> {
+      Runnable r = inv.getArgument(0);
+      r.run();
+      return null;
+    }).when(executor).submit(any(Runnable.class));
+
+    server = new PaxosServer(
+        8001, 1, 8000, executor, executor, executor, mock(ConfigurableApplicationContext.class),
+        new PaxosMetrics(new SimpleMeterRegistry()), new ProtocolTrace(false, 1.0),
+        new ClusterEvents(), new HttpPeerTransport(), PaxosProperties.localCluster(8000, 3),
+        new SystemProtocolClock()
+    );
+    groups = new PaxosGroups(server, new HttpPeerTransport(), executor, 5);
+  }
+
+  @Test
+  @DisplayName("Grupa 0 to serwer z kontekstu, kolejne grupy maja wlasne prefiksy adresow")
+  void groupsHavePrefixedPeers() {
+    assertThat(groups.get(null)).isSameAs(server);
+    assertThat(groups.get(0).getPeers()).containsExactly(
+        "http://localhost:8000", "http://localhost:8001", "http://localhost:8002");
+    assertThat(groups.get(2).getGroup()).isEqualTo(2);
+    assertThat(groups.get(2).getPort()).isEqualTo(8001);
+    assertThat(groups.get(2).getPeers()).containsExactly(
+        "http://localhost:8000/groups/2", "http://localhost:8001/groups/2",
+        "http://localhost:8002/groups/2");
+  }
+
+  @Test
+  @DisplayName("Zdarzenia dla panelu niosa numer grupy, z ktorej pochodza")
+  void eventsCarryGroup() {
+    groups.get(2).accept(7, 43);
+
+    assertThat(groups.get(0).snapshot().group()).isZero();
+    assertThat(groups.get(2).snapshot().group()).isEqualTo(2);
+    assertThat(groups.get(2).snapshot().state()).isEqualTo("STATE,7,7,43");
+  }
+
+  @Test
+  @DisplayName("Poczatkowi liderzy grup sa rozlozeni na wszystkie wezly")
+  void leadersSpreadAcrossNodes() {
+    assertThat(groups.all()).extracting(PaxosServer::getLeaderPort)
+        .containsExactly(8000, 8001, 8002, 8000, 8001);
+  }
+
+  @Test
+  @DisplayName("Grupy maja niezalezny stan acceptora i lidera")
+  void groupsAreIndependent() {
+    groups.get(1).accept(7, 42);
+    groups.get(3).setLeaderPort(8002);
+
+    assertThat(groups.get(1).state()).isEqualTo("STATE,7,7,42");
+    assertThat(groups.get(0).state()).isEqualTo("STATE,-1,-1,-1");
+    assertThat(groups.get(2).state()).isEqualTo("STATE,-1,-1,-1");
+    assertThat(groups.get(0).getLeaderPort()).isEqualTo(8000);
+    assertThat(groups.get(3).getLeaderPort()).isEqualTo(8002);
+  }
+
+  @Test
+  @DisplayName("Klucz zawsze trafia do tej samej grupy z zakresu")
+  void keyHashing() {
+    for (int i = 0; i < 1000; i++) {
+      String key = "klucz-" + i;
+      assertThat(groups.groupFor(key)).isBetween(0, 4).isEqualTo(groups.groupFor(key));
+    }
+    assertThat(groups.groupFor("a")).isEqualTo(Math.floorMod("a".hashCode(), 5));
+  }
+
+  @Test
+  @DisplayName("Nieznana grupa konczy sie ServerException")
+  void unknownGroup() {
+    assertThatThrownBy(() -> groups.get(5)).isInstanceOf(ServerException.class);
+    assertThatThrownBy(() -> groups.get(-1)).isInstanceOf(ServerException.class);
+  }
+
+  @Test
+  @DisplayName("Follower przekazuje propozycje do lidera swojej grupy")
+  void forwardsWithinGroup() throws Exception {
+    try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+      http.when(() -> HttpUtil.postParams(anyString())).thenReturn("COMMITTED,9");
+
+      assertThat(groups.get(3).forwardToLeader(9, true, null).get(5, TimeUnit.SECONDS))
+          .isEqualTo("COMMITTED,9");
+
+      http.verify(() -> HttpUtil.postParams(
+          "http://localhost:8000/groups/3/client_propose?value=9&wait=true&forwarded=true"));
+    }
+  }
+
+  @Test
+  @DisplayName("heartbeat – lider oglasza kadencje pozostalym serwerom")
+  void heartbeatAnnouncesTerm() {
+    server.setLeaderPort(8001);
+    PeerTransport transport = mock(PeerTransport.class);
+    when(transport.postBatch(anyString(), anyList())).thenReturn(List.of("LEADER,8001,0"));
+    PaxosGroups single = new PaxosGroups(server, transport, executor, 1);
+
+    single.heartbeat();
+
+    List<String> frame = List.of("/leader_announce?term=0&leader=8001");
+    verify(transport).postBatch("http://localhost:8000", frame);
+    verify(transport).postBatch("http://localhost:8002", frame);
+    verifyNoMoreInteractions(transport);
+    assertThat(server.getLeaderPort()).isEqualTo(8001);
+  }
+
+  @Test
+  @DisplayName("heartbeat – follower nie wysyla ogloszen")
+  void heartbeatFollowerIdle() {
+    PeerTransport transport = mock(PeerTransport.class);
+    PaxosGroups single = new PaxosGroups(server, transport, executor, 1);
+
+    single.heartbeat();
+
+    verifyNoInteractions(transport);
+  }
+
+  @Test
+  @DisplayName("heartbeat – zastapiony lider oddaje przywodztwo")
+  void heartbeatStepsDown() {
+    server.setLeaderPort(8001);
+    PeerTransport transport = mock(PeerTransport.class);
+    when(transport.postBatch(anyString(), anyList())).thenReturn(List.of("REJECT,40"));
+    PaxosGroups single = new PaxosGroups(server, transport, executor, 1);
+
+    single.heartbeat();
+
+    assertThat(server.getLeaderPort()).isEqualTo(-1);
+    assertThat(server.getLeaderTerm()).isEqualTo(40);
+    assertThat(server.vote(40)).isEqualTo("REJECT,40");
+  }
+
+  @Test
+  @DisplayName("Adres lidera jest brany ze skladu klastra, a nie z localhost")
+  void forwardsToLeaderHost() throws Exception {
+    PaxosServer remote = new PaxosServer(
+        8001, 1, 8000, executor, executor, executor, mock(ConfigurableApplicationContext.class),
+        new PaxosMetrics(new SimpleMeterRegistry()), new ProtocolTrace(false, 1.0),
+        new ClusterEvents(), new HttpPeerTransport(),
+        new PaxosProperties(List.of("node-a:8000", "node-b:8001", "node-c:8002")),
+        new SystemProtocolClock()
+    );
+    PaxosGroups remoteGroups = new PaxosGroups(remote, new HttpPeerTransport(), executor, 4);
+
+    try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+      http.when(() -> HttpUtil.postParams(anyString())).thenReturn("OK");
+
+      remote.forwardToLeader(9, false, null).get(5, TimeUnit.SECONDS);
+      remoteGroups.get(3).forwardToLeader(9, false, null).get(5, TimeUnit.SECONDS);
+
+      http.verify(() -> HttpUtil.postParams(
+          "http://node-a:8000/client_propose?value=9&forwarded=true"));
+      http.verify(() -> HttpUtil.postParams(
+          "http://node-a:8000/groups/3/client_propose?value=9&forwarded=true"));
+    }
+  }
+
+  @Test
+  @DisplayName("Ogloszenia wszystkich prowadzonych grup ida jedna ramka do kazdego serwera")
+  void heartbeatSendsOneFramePerPeer() {
+    PeerTransport transport = mock(PeerTransport.class);
+    when(transport.postBatch(anyString(), anyList()))
+        .thenReturn(List.of("LEADER,8001,0", "REJECT,9"));
+    PaxosGroups shared = new PaxosGroups(server, transport, executor, 5);
+    String term1 = "term=" + shared.get(1).getLeaderTerm();
+    String term4 = "term=" + shared.get(4).getLeaderTerm();
+
+    shared.heartbeat();
+
+    List<String> frame = List.of(
+        "/groups/1/leader_announce?" + term1 + "&leader=8001",
+        "/groups/4/leader_announce?" + term4 + "&leader=8001");
+    verify(transport).postBatch("http://localhost:8000", frame);
+    verify(transport).postBatch("http://localhost:8002", frame);
+    verifyNoMoreInteractions(transport);
+    assertThat(shared.get(1).getLeaderPort()).isEqualTo(8001);
+    assertThat(shared.get(4).getLeaderPort()).isEqualTo(-1);
+    assertThat(shared.get(4).getLeaderTerm()).isEqualTo(9);
+  }
+
+  @Test
+  @DisplayName("Serwer, ktory nie odpowiedzial na poprzednia ramke, nie dostaje kolejnej")
+  void heartbeatSkipsPeerInFlight() {
+    List<Runnable> submitted = new ArrayList<>();
+    ThreadPoolTaskExecutor queued = mock(ThreadPoolTaskExecutor.class);
+    doAnswer(inv -> {
+      submitted.add(inv.getArgument(0));
+      return null;
+    }).when(queued).submit(any(Runnable.class));
+    PeerTransport transport = mock(PeerTransport.class);
+    when(transport.postBatch(anyString(), anyList()))
+        .thenReturn(List.of("LEADER,8001,0", "LEADER,8001,0"));
+    PaxosGroups shared = new PaxosGroups(server, transport, queued, 5);
+
+    shared.heartbeat();
+    assertThat(submitted).hasSize(2);
+
+    shared.heartbeat();
+    assertThat(submitted).hasSize(2);
+
+    submitted.get(0).run();
+    shared.heartbeat();
+    assertThat(submitted).hasSize(3);
+    verify(transport).postBatch(eq("http://localhost:8000"), anyList());
+    verifyNoMoreInteractions(transport);
+  }
+
+  @Test
+  @DisplayName("Elekcje kilku grup wysylaja glosowania i ogloszenia jedna ramka do serwera")
+  void electionsShareFrames() {
+    VirtualClock clock = new VirtualClock(1_000_000, new Random(7));
+    PeerTransport transport = mock(PeerTransport.class);
+    when(transport.postBatch(anyString(), anyList())).thenAnswer(inv -> {
+      List<String> requests = inv.getArgument(1);
+      return requests.stream()
+          .map(r -> r.contains("/vote") ? "VOTE,1" : "LEADER,8001,1")
+          .toList();
+    });
+    PaxosServer node = new PaxosServer(
+        8001, 1, 8000, executor, executor, executor, mock(ConfigurableApplicationContext.class),
+        new PaxosMetrics(new SimpleMeterRegistry()), new ProtocolTrace(false, 1.0),
+        new ClusterEvents(), transport, PaxosProperties.localCluster(8000, 3), clock
+    );
+    PaxosGroups shared = new PaxosGroups(node, transport, executor, 5);
+    clock.advance(60_000);
+
+    shared.watcher();
+
+    verify(transport).post("http://localhost:8000/accepted_state");
+    verify(transport).post("http://localhost:8002/groups/2/accepted_state");
+    verify(transport, times(6)).postBatch(anyString(), anyList());
+    for (String peer : node.getPeers()) {
+      verify(transport).postBatch(eq(peer), argThat(frame -> frame.size() == 3
+          && frame.get(0).startsWith("/vote?term=")
+          && frame.get(1).startsWith("/groups/2/vote?term=")
+          && frame.get(2).startsWith("/groups/3/vote?term=")));
+      verify(transport).postBatch(eq(peer), argThat(frame -> frame.size() == 3
+          && frame.stream().allMatch(r -> r.contains("/leader_announce?term=")
+              && r.endsWith("&leader=8001"))));
+    }
+    assertThat(shared.all()).extracting(PaxosServer::getLeaderPort)
+        .containsExactly(8001, 8001, 8001, 8001, 8001);
+  }
+
+  @Test
+  @DisplayName("/stuck blokuje wezel we wszystkich grupach, /unstuck je odblokowuje")
+  void stuckCoversAllGroups() {
+    PaxosController controller = new PaxosController(server, groups, new ClientSessions(10),
+        5000, false);
+
+    controller.stuck("AWARIA");
+
+    assertThat(groups.all()).allMatch(PaxosServer::isStuck);
+    assertThat(controller.vote(3, 100)).isEqualTo("AWARIA");
+    assertThat(controller.prepare(4, 100)).isEqualTo("AWARIA");
+    assertThat(groups.get(4).announcement()).isNull();
+
+    try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+      controller.unstuck();
+    }
+
+    assertThat(groups.all()).noneMatch(PaxosServer::isStuck);
+  }
+
+  @Test
+  @DisplayName("/clear i /inject z prefiksem grupy zmieniaja tylko te grupe")
+  void clearAndInjectPerGroup() {
+    PaxosController controller = new PaxosController(server, groups, new ClientSessions(10),
+        5000, false);
+    groups.get(1).accept(7, 42);
+    groups.get(2).accept(7, 43);
+
+    assertThat(controller.clear(1)).isEqualTo("STATE_CLEARED");
+    assertThat(controller.inject(3, 9, 8, 5)).isEqualTo("INJECT_OK");
+
+    assertThat(groups.get(1).state()).isEqualTo("STATE,-1,-1,-1");
+    assertThat(groups.get(2).state()).isEqualTo("STATE,7,7,43");
+    assertThat(groups.get(3).state()).isEqualTo("STATE,9,8,5");
+    assertThat(groups.get(0).state()).isEqualTo("STATE,-1,-1,-1");
+  }
+}
@@ -1,16 +1,31 @@
 package com.example.pro_spring;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.exception.ServerBusyException;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.model.NodeMetrics;
 import com.example.pro_spring.model.Promise;
 import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.service.SystemProtocolClock;
+import com.example.pro_spring.sim.VirtualClock;
+import com.example.pro_spring.trace.ProtocolTrace;
+import com.example.pro_spring.transport.HttpPeerTransport;
 import com.example.pro_spring.util.HttpUtil;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,14 +41,19 @@ class PaxosServerTests {
   private PaxosServer server;
   private ThreadPoolTaskExecutor executor;
   private ConfigurableApplicationContext ctx;
+  private SimpleMeterRegistry registry;
 
   @BeforeEach
   void setup() {
     executor = mock(ThreadPoolTaskExecutor.class);
     ctx = mock(ConfigurableApplicationContext.class);
 
+    registry = new SimpleMeterRegistry();
+
     server = new PaxosServer(
-        8000, 1, 8000, executor, ctx
+        8000, 1, 8000, executor, executor, executor, ctx, new PaxosMetrics(registry),
+        new ProtocolTrace(false, 1.0), new ClusterEvents(), new HttpPeerTransport(),
+        PaxosProperties.localCluster(8000, 8), new SystemProtocolClock()
     );
   }
 
@@ -93,10 +113,125 @@ class PaxosServerTests {
     }
 
     @Test
-    @DisplayName("proposalId <= promised - odpowiedz REJECT")
+    @DisplayName("proposalId <= promised - odpowiedz REJECT z obiecanym numerem")
     void prepareReject() {
       server.injectPromised(10);
-      assertThat(server.prepare(5L)).isEqualTo("REJECT");
+      assertThat(server.prepare(5L)).isEqualTo("REJECT,10");
+    }
+  }
+
+  @Nested
+  @DisplayName("Metryki protokolu")
+  class MetricsTests {
+
+    @Test
+    @DisplayName("prepare i accept zliczaja odpowiedzi PROMISE, ACCEPTED i REJECT")
+    void acceptorResponsesCounted() {
+      server.prepare(5L);
+      server.accept(5L, 10);
+      server.prepare(3L);
+      server.accept(3L, 11);
+
+      assertThat(registry.get("paxos.acceptor.responses")
+          .tags("phase", "prepare", "type", "PROMISE").counter().count()).isEqualTo(1);
+      assertThat(registry.get("paxos.acceptor.responses")
+          .tags("phase", "prepare", "type", "REJECT").counter().count()).isEqualTo(1);
+      assertThat(registry.get("paxos.acceptor.responses")
+          .tags("phase", "accept", "type", "ACCEPTED").counter().count()).isEqualTo(1);
+      assertThat(registry.get("paxos.acceptor.responses")
+          .tags("phase", "accept", "type", "REJECT").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Runda rejestruje czas faz i czas calej rundy")
+    void roundTimersRecorded() {
+
+      doAnswer(inv -> {
+        Runnable r = inv.getArgument(0);
+        r.run();
+        return null;
+      }).when(executor).submit(any(Runnable.class));
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+        http.when(() -> HttpUtil.postParams(anyString()))
+            .thenAnswer(inv -> {
+              String url = inv.getArgument(0);
+
+              if (url.contains("/accepted_state")) {
+                return "STATE,-1,-1,-1";
+              }
+
+              if (url.contains("/prepare")) {
+                return "PROMISE,NONE";
+              }
+
+              return "ACCEPTED,1,10";
+            });
+
+        server.startPaxos(10);
+      }
+
+      assertThat(registry.get("paxos.phase").tag("phase", "prepare").timer().count())
+          .isEqualTo(1);
+      assertThat(registry.get("paxos.phase").tag("phase", "accept").timer().count())
+          .isEqualTo(1);
+      assertThat(registry.get("paxos.round").tag("outcome", "committed").timer().count())
+          .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Migawka metryk zawiera percentyle czasu zatwierdzonych rund")
+    void snapshotPercentiles() {
+      PaxosMetrics metrics = new PaxosMetrics(new SimpleMeterRegistry());
+      for (int ms = 1; ms <= 100; ms++) {
+        metrics.round(true, TimeUnit.MILLISECONDS.toNanos(ms));
+      }
+
+      NodeMetrics snapshot = metrics.snapshot();
+
+      assertThat(snapshot.roundsCommitted()).isEqualTo(100);
+      assertThat(snapshot.roundP50Ms()).isBetween(45.0, 55.0);
+      assertThat(snapshot.roundP99Ms()).isGreaterThan(snapshot.roundP95Ms());
+      assertThat(snapshot.rpc()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Zmiany lidera sa liczone osobno dla kazdej grupy")
+    void leaderChangesPerGroup() {
+      SimpleMeterRegistry registry = new SimpleMeterRegistry();
+      PaxosMetrics metrics = new PaxosMetrics(registry);
+
+      metrics.leaderChanged(0);
+      metrics.leaderChanged(2);
+      metrics.leaderChanged(2);
+
+      assertThat(registry.get("paxos.leader.changes").tag("group", "0").counter().count())
+          .isEqualTo(1);
+      assertThat(registry.get("paxos.leader.changes").tag("group", "2").counter().count())
+          .isEqualTo(2);
+      assertThat(metrics.snapshot().leaderChanges()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Wywolania HTTP do wszystkich grup trafiaja do jednego timera endpointu")
+    void rpcTimerWithoutGroupPrefix() {
+      SimpleMeterRegistry registry = new SimpleMeterRegistry();
+      Metrics.addRegistry(registry);
+      try {
+        PaxosMetrics.recordRpc("http://localhost:9101/accept?proposalId=1&value=2", true, 1000);
+        PaxosMetrics.recordRpc("http://localhost:9101/groups/3/accept?proposalId=1", true, 1000);
+        PaxosMetrics.recordRpc("http://localhost:9101/groups/12/accept", true, 1000);
+
+        assertThat(registry.find("paxos.rpc").tag("peer", "localhost:9101").timers())
+            .singleElement()
+            .satisfies(t -> {
+              assertThat(t.getId().getTag("endpoint")).isEqualTo("/accept");
+              assertThat(t.count()).isEqualTo(3);
+            });
+      } finally {
+        Metrics.removeRegistry(registry);
+      }
     }
   }
 
@@ -121,10 +256,39 @@ class PaxosServerTests {
     }
 
     @Test
-    @DisplayName("proposalId < promised - odpowiedz REJECT")
+    @DisplayName("proposalId < promised - odpowiedz REJECT z obiecanym numerem")
     void acceptReject() {
       server.injectPromised(10);
-      assertThat(server.accept(5L, 77)).startsWith("REJECT");
+      assertThat(server.accept(5L, 77)).isEqualTo("REJECT,5,77,10");
+    }
+
+    @Test
+    @DisplayName("Rownoczesne PREPARE - obietnica konczy sie na najwyzszym numerze")
+    void concurrentPrepare() throws Exception {
+      int threads = 8;
+      int perThread = 2000;
+      AtomicInteger promises = new AtomicInteger();
+      List<Thread> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t;
+        Thread w = new Thread(() -> {
+          for (int i = 1; i <= perThread; i++) {
+            if (server.prepare((long) i * threads + offset).startsWith("PROMISE")) {
+              promises.incrementAndGet();
+            }
+          }
+        });
+        w.start();
+        workers.add(w);
+      }
+      for (Thread w : workers) {
+        w.join();
+      }
+
+      long max = (long) perThread * threads + threads - 1;
+      assertThat(server.state()).isEqualTo("STATE," + max + ",-1,-1");
+      assertThat(promises.get()).isPositive();
+      assertThat(server.prepare(max)).isEqualTo("REJECT," + max);
     }
   }
 
@@ -142,6 +306,21 @@ class PaxosServerTests {
       assertThat(server.state()).contains(",5,10");
     }
 
+    @Test
+    @DisplayName("rollback po numerze propozycji nie cofa zmian nowszej propozycji")
+    void rollbackByBallot() {
+      server.prepare(5L);
+      server.accept(5L, 10);
+      server.prepare(8L);
+
+      server.rollback(5L);
+      assertThat(server.state()).isEqualTo("STATE,8,5,10");
+
+      server.rollback(8L);
+      assertThat(server.state()).isEqualTo("STATE,5,5,10");
+      assertThat(server.history()).hasSize(3);
+    }
+
     @Test
     @DisplayName("clear resetuje caly stan serwera")
     void clearReset() {
@@ -189,6 +368,39 @@ class PaxosServerTests {
       verify(executor).submit(any(Runnable.class));
     }
 
+    @Test
+    @DisplayName("Runda ponad limit rund w toku jest odrzucana bez kolejkowania")
+    void startPaxosRejectsWhenBusy() {
+      for (int i = 0; i < PaxosServer.MAX_ROUNDS_IN_FLIGHT; i++) {
+        assertThat(server.startPaxos(i)).isNotDone();
+      }
+
+      assertThatThrownBy(() -> server.startPaxos(99).join())
+          .hasCauseInstanceOf(ServerBusyException.class);
+      verify(executor, times(PaxosServer.MAX_ROUNDS_IN_FLIGHT)).submit(any(Runnable.class));
+      assertThat(registry.get("paxos.round.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Zakonczona runda zwalnia miejsce dla kolejnej")
+    void finishedRoundReleasesSlot() {
+      List<Runnable> queued = new ArrayList<>();
+      doAnswer(inv -> {
+        queued.add(inv.getArgument(0));
+        return null;
+      }).when(executor).submit(any(Runnable.class));
+      for (int i = 0; i < PaxosServer.MAX_ROUNDS_IN_FLIGHT; i++) {
+        server.startPaxos(i);
+      }
+
+      try (MockedStatic<HttpUtil> mocked = mockStatic(HttpUtil.class)) {
+        mocked.when(() -> HttpUtil.postParams(anyString())).thenReturn(null);
+        queued.get(0).run();
+      }
+
+      assertThat(server.startPaxos(99)).isNotDone();
+    }
+
     @Test
     @DisplayName("Pelny poprawny przebieg PREPARE + ACCEPT")
     void paxosHappyPath() {
@@ -234,8 +446,8 @@ class PaxosServerTests {
     }
 
     @Test
-    @DisplayName("Brak wiekszosci w PREPARE - ROLLBACK")
-    void paxosRollbackNoMajorityInPrepare() {
+    @DisplayName("Brak wiekszosci w PREPARE - runda porzucona bez rozsylania ROLLBACK")
+    void paxosNoMajorityInPrepareWithoutRollback() {
 
       doAnswer(inv -> {
         Runnable r = inv.getArgument(0);
@@ -261,10 +473,6 @@ class PaxosServerTests {
                     : "REJECT";
               }
 
-              if (url.contains("/rollback")) {
-                return "ROLLED_BACK";
-              }
-
               return null;
             });
 
@@ -284,7 +492,96 @@ class PaxosServerTests {
 
         http.verify(
             () -> HttpUtil.postParams(contains("/rollback")),
-            atLeastOnce()
+            never()
+        );
+      }
+    }
+
+    @Test
+    @DisplayName("REJECT z wyzszym numerem - ponowienie rundy powyzej konkurenta")
+    void paxosRetryAboveCompetingBallot() {
+
+      doAnswer(inv -> {
+        Runnable r = inv.getArgument(0);
+        r.run();
+        return null;
+      }).when(executor).submit(any(Runnable.class));
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+        AtomicInteger prepareCount = new AtomicInteger();
+
+        http.when(() -> HttpUtil.postParams(anyString()))
+            .thenAnswer(inv -> {
+              String url = inv.getArgument(0);
+
+              if (url.contains("/accepted_state")) {
+                return "STATE,-1,-1,-1";
+              }
+
+              if (url.contains("/prepare")) {
+                return prepareCount.incrementAndGet() <= 8
+                    ? "REJECT,300000000"
+                    : "PROMISE,NONE";
+              }
+
+              if (url.contains("/accept")) {
+                return "ACCEPTED,300000009,10";
+              }
+
+              return "ROLLED_BACK";
+            });
+
+        server.startPaxos(10);
+
+        http.verify(
+            () -> HttpUtil.postParams(contains("/prepare?proposalId=300000009")),
+            times(8)
+        );
+        http.verify(
+            () -> HttpUtil.postParams(contains("/accept?proposalId=300000009&value=10")),
+            times(8)
+        );
+      }
+    }
+
+    @Test
+    @DisplayName("Ciagle REJECT - runda konczy sie po limicie prob")
+    void paxosGivesUpAfterMaxAttempts() {
+
+      doAnswer(inv -> {
+        Runnable r = inv.getArgument(0);
+        r.run();
+        return null;
+      }).when(executor).submit(any(Runnable.class));
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+        http.when(() -> HttpUtil.postParams(anyString()))
+            .thenAnswer(inv -> {
+              String url = inv.getArgument(0);
+
+              if (url.contains("/accepted_state")) {
+                return "STATE,-1,-1,-1";
+              }
+
+              if (url.contains("/prepare")) {
+                long proposalId = Long.parseLong(url.replaceAll(".*proposalId=", ""));
+                return "REJECT," + (proposalId + 1);
+              }
+
+              return "ROLLED_BACK";
+            });
+
+        server.startPaxos(10);
+
+        http.verify(
+            () -> HttpUtil.postParams(contains("/prepare")),
+            times(5 * 8)
+        );
+        http.verify(
+            () -> HttpUtil.postParams(contains("/accept?")),
+            never()
         );
       }
     }
@@ -299,9 +596,29 @@ class PaxosServerTests {
   @DisplayName("watcher() – wybor lidera")
   class WatcherTests {
 
+    private VirtualClock clock;
+
+    @BeforeEach
+    void virtualClock() {
+      doAnswer(inv -> {
+        Runnable r = inv.getArgument(0);
+        r.run();
+        return null;
+      }).when(executor).submit(any(Runnable.class));
+
+      clock = new VirtualClock(1_000_000, new Random(7));
+      server = new PaxosServer(
+          8000, 1, 8000, executor, executor, executor, ctx, new PaxosMetrics(registry),
+          new ProtocolTrace(false, 1.0), new ClusterEvents(), new HttpPeerTransport(),
+          PaxosProperties.localCluster(8000, 8), clock
+      );
+    }
+
     @Test
+    @DisplayName("watcher – po uplywie limitu czasu bez ogloszen lidera startuje elekcja")
     void watcherElect() {
-      PaxosServer.setLeaderPort(9000);
+      server.setLeaderPort(9000);
+      clock.advance(6001);
 
       try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
@@ -309,47 +626,145 @@ class PaxosServerTests {
             HttpUtil.postParams("http://localhost:9000/accepted_state")
         ).thenReturn(null);
 
-        http.when(() -> HttpUtil.postParams(contains("/election")))
+        http.when(() -> HttpUtil.postParams(contains("/vote")))
+            .thenAnswer(inv -> "VOTE," + server.getLeaderTerm());
+
+        server.watcher();
+
+        assertThat(server.getLeaderPort()).isEqualTo(8000);
+      }
+    }
+
+    @Test
+    @DisplayName("watcher – elekcja jest zlecana executorowi i nie startuje dwa razy naraz")
+    void watcherElectionOnExecutor() {
+      List<Runnable> submitted = new ArrayList<>();
+      doAnswer(inv -> {
+        submitted.add(inv.getArgument(0));
+        return null;
+      }).when(executor).submit(any(Runnable.class));
+      server.setLeaderPort(9000);
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+        clock.advance(6001);
+        server.watcher();
+        clock.advance(6001);
+        server.watcher();
+
+        assertThat(submitted).hasSize(1);
+        http.verifyNoInteractions();
+        assertThat(server.getLeaderPort()).isEqualTo(9000);
+      }
+    }
+
+    @Test
+    @DisplayName("watcher – przed uplywem limitu czasu nie wysyla zadnych zapytan")
+    void watcherQuietWhileLeaderAnnounces() {
+      server.setLeaderPort(8003);
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+        for (int i = 0; i < 20; i++) {
+          clock.advance(1000);
+          assertThat(server.announce(0, 8003)).isEqualTo("LEADER,8003,0");
+          server.watcher();
+        }
+
+        http.verifyNoInteractions();
+        assertThat(server.getLeaderPort()).isEqualTo(8003);
+      }
+    }
+
+    @Test
+    @DisplayName("watcher – lider nie sprawdza samego siebie")
+    void watcherLeaderIdle() {
+      server.setLeaderPort(8000);
+      clock.advance(60_000);
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+        server.watcher();
+        http.verifyNoInteractions();
+      }
+    }
+
+    @Test
+    @DisplayName("electNewLeader – wiekszosc glosow wybiera kandydata w nowej kadencji")
+    void electNewLeaderReflection() throws Exception {
+
+      server.setLeaderPort(9999);
+
+      try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
+
+        http.when(() -> HttpUtil.postParams(contains("/vote")))
             .thenAnswer(inv -> {
               String url = inv.getArgument(0);
-              return url.replaceAll("\\D+", "");
+              return url.matches(".*:800[0-4]/.*") ? "VOTE,1" : null;
             });
 
-        server.watcher();
+        Method m = PaxosServer.class.getDeclaredMethod("electNewLeader");
+        m.setAccessible(true);
+        m.invoke(server);
 
-        assertThat(PaxosServer.getLeaderPort()).isEqualTo(8000);
+        assertThat(server.getLeaderPort()).isEqualTo(8000);
+        assertThat(server.getLeaderTerm()).isPositive();
+        http.verify(() -> HttpUtil.postParams(
+            contains("/leader_announce?term=" + server.getLeaderTerm() + "&leader=8000")),
+            times(8));
       }
     }
 
     @Test
-    @DisplayName("electNewLeader – wybiera najmniejszy port z odpowiedzi")
-    void electNewLeaderReflection() throws Exception {
+    @DisplayName("electNewLeader – bez wiekszosci glosow lider sie nie zmienia")
+    void electNewLeaderWithoutMajority() throws Exception {
 
-      PaxosServer.setLeaderPort(9999);
+      server.setLeaderPort(9999);
 
       try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
-        http.when(() -> HttpUtil.postParams(contains("/election")))
+        http.when(() -> HttpUtil.postParams(contains("/vote")))
             .thenAnswer(inv -> {
               String url = inv.getArgument(0);
-              if (url.contains("8001")) return "8001";
-              if (url.contains("8002")) return "8002";
-              return null;
+              return url.matches(".*:800[0-3]/.*") ? "VOTE,1" : "REJECT,500";
             });
 
         Method m = PaxosServer.class.getDeclaredMethod("electNewLeader");
         m.setAccessible(true);
         m.invoke(server);
 
-        assertThat(PaxosServer.getLeaderPort()).isEqualTo(8000);
+        assertThat(server.getLeaderPort()).isEqualTo(9999);
+        http.verify(() -> HttpUtil.postParams(contains("/leader_announce")), never());
+        assertThat(server.vote(500)).isEqualTo("REJECT,500");
       }
     }
 
+    @Test
+    @DisplayName("vote – glos tylko na kadencje wyzsza od kazdej poprzedniej")
+    void voteOnlyForHigherTerm() {
+      assertThat(server.vote(10)).isEqualTo("VOTE,10");
+      assertThat(server.vote(10)).isEqualTo("REJECT,10");
+      assertThat(server.vote(5)).isEqualTo("REJECT,10");
+      assertThat(server.vote(11)).isEqualTo("VOTE,11");
+    }
+
+    @Test
+    @DisplayName("announce – spoznione ogloszenie starszej kadencji jest odrzucane")
+    void announceRejectsStaleTerm() {
+      server.setLeaderPort(8000);
+      server.vote(16);
+
+      assertThat(server.announce(8, 8003)).isEqualTo("REJECT,16");
+      assertThat(server.getLeaderPort()).isEqualTo(8000);
+
+      assertThat(server.announce(16, 8005)).isEqualTo("LEADER,8005,16");
+      assertThat(server.getLeaderPort()).isEqualTo(8005);
+      assertThat(server.leaderInfo()).isEqualTo("LEADER,8005,16");
+    }
+
     @Test
     @DisplayName("@PostConstruct – lider istnieje, brak elekcji")
     void discoverLeaderOnStartupLeaderAlive() {
 
-      PaxosServer.setLeaderPort(8001);
+      server.setLeaderPort(8001);
 
       doAnswer(inv -> {
         Runnable r = inv.getArgument(0);
@@ -365,7 +780,7 @@ class PaxosServerTests {
 
         server.discoverLeaderOnStartup();
 
-        assertThat(PaxosServer.getLeaderPort()).isEqualTo(8001);
+        assertThat(server.getLeaderPort()).isEqualTo(8001);
       }
     }
 
@@ -373,7 +788,7 @@ class PaxosServerTests {
     @DisplayName("@PostConstruct – lider martwy, wywolanie elekcji")
     void discoverLeaderOnStartupElect() {
 
-      PaxosServer.setLeaderPort(9000);
+      server.setLeaderPort(9000);
 
       doAnswer(inv -> {
         Runnable r = inv.getArgument(0);
@@ -387,12 +802,12 @@ class PaxosServerTests {
             HttpUtil.postParams("http://localhost:9000/accepted_state")
         ).thenReturn(null);
 
-        http.when(() -> HttpUtil.postParams(contains("/election")))
-            .thenReturn("8000");
+        http.when(() -> HttpUtil.postParams(contains("/vote")))
+            .thenReturn("VOTE,1");
 
         server.discoverLeaderOnStartup();
 
-        assertThat(PaxosServer.getLeaderPort()).isEqualTo(8000);
+        assertThat(server.getLeaderPort()).isEqualTo(8000);
       }
     }
 
@@ -401,7 +816,7 @@ class PaxosServerTests {
 
 
   @Test
-  @DisplayName("chooseValueFromPromises – majority acceptedValue")
+  @DisplayName("chooseValueFromPromises – wartosc z najwyzszym acceptedProposal")
   void chooseValueFromPromisesReflection() throws Exception {
 
     Method method = PaxosServer.class.getDeclaredMethod(
@@ -415,19 +830,40 @@ class PaxosServerTests {
         new Promise(true, 3, 99),
         new Promise(true, 4, 99),
         new Promise(true, 5, 99),
-        new Promise(true, 6, 11),
+        new Promise(true, 8, 33),
         new Promise(true, 7, 22),
-        new Promise(true, 8, 33)
+        new Promise(true, 6, 11)
     );
 
-    Integer result = (Integer) method.invoke(server, promises, 42);
+    int result = (int) method.invoke(server, promises, 42);
 
-    assertThat(result).isEqualTo(99);
+    assertThat(result).isEqualTo(33);
   }
 
+  @Test
+  @DisplayName("chooseValueFromPromises – wartosc z mniejszosci acceptorow nie jest porzucana")
+  void chooseValueFromMinority() throws Exception {
 
+    Method method = PaxosServer.class.getDeclaredMethod(
+        "chooseValueFromPromises", List.class, int.class
+    );
+    method.setAccessible(true);
+
+    List<Promise> promises = List.of(
+        new Promise(true, 17, 5),
+        new Promise(true, 17, 5),
+        new Promise(true, 17, 5),
+        new Promise(true, 17, 5),
+        new Promise(true, -1, -1),
+        new Promise(true, -1, -1),
+        new Promise(true, -1, -1),
+        new Promise(true, -1, -1)
+    );
 
+    int result = (int) method.invoke(server, promises, 42);
 
+    assertThat(result).isEqualTo(5);
+  }
 
 
   @Test
@@ -517,7 +953,7 @@ class PaxosServerTests {
         .getDeclaredMethod("chooseValueFromPromises", List.class, int.class);
     m.setAccessible(true);
 
-    Integer result = (Integer) m.invoke(server, promises, 42);
+    int result = (int) m.invoke(server, promises, 42);
 
     assertThat(result).isEqualTo(42);
   }
@@ -526,12 +962,12 @@ class PaxosServerTests {
   @DisplayName("discoverLeaderOnRecovery – odnaleziony lider z klastra")
   void discoverLeaderOnRecoveryFound() throws Exception {
 
-    PaxosServer.setLeaderPort(-1);
+    server.setLeaderPort(-1);
 
     try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
-      http.when(() -> HttpUtil.postParams(contains("/leader")))
-          .thenReturn("8003");
+      http.when(() -> HttpUtil.postParams(contains("/leader_info")))
+          .thenReturn("LEADER,8003,24");
 
       http.when(() -> HttpUtil.postParams(contains("/accepted_state")))
           .thenReturn("STATE,-1,-1,-1");
@@ -542,7 +978,7 @@ class PaxosServerTests {
 
       m.invoke(server);
 
-      assertThat(PaxosServer.getLeaderPort()).isEqualTo(8003);
+      assertThat(server.getLeaderPort()).isEqualTo(8003);
     }
   }
 
@@ -550,15 +986,21 @@ class PaxosServerTests {
   @DisplayName("discoverLeaderOnRecovery – brak lidera, start elekcji")
   void discoverLeaderOnRecoveryElect() throws Exception {
 
-    PaxosServer.setLeaderPort(-1);
+    server.setLeaderPort(-1);
+
+    doAnswer(inv -> {
+      Runnable r = inv.getArgument(0);
+      r.run();
+      return null;
+    }).when(executor).submit(any(Runnable.class));
 
     try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
-      http.when(() -> HttpUtil.postParams(contains("/leader")))
+      http.when(() -> HttpUtil.postParams(contains("/leader_info")))
           .thenReturn(null);
 
-      http.when(() -> HttpUtil.postParams(contains("/election")))
-          .thenReturn("8000");
+      http.when(() -> HttpUtil.postParams(contains("/vote")))
+          .thenReturn("VOTE,1");
 
       Method m = PaxosServer.class
           .getDeclaredMethod("discoverLeaderOnRecovery");
@@ -566,40 +1008,40 @@ class PaxosServerTests {
 
       m.invoke(server);
 
-      assertThat(PaxosServer.getLeaderPort()).isEqualTo(8000);
+      assertThat(server.getLeaderPort()).isEqualTo(8000);
     }
   }
 
   @Test
-  @DisplayName("electNewLeader – ignoruje STUCK serwer (NumberFormatException)")
+  @DisplayName("electNewLeader – odpowiedzi STUCK nie sa liczone jako glosy")
   void electNewLeaderSkipsStuckServer() throws Exception {
 
-    PaxosServer.setLeaderPort(-1);
+    server.setLeaderPort(-1);
 
     try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
-      http.when(() -> HttpUtil.postParams(contains("/election")))
-          .thenReturn("NOT_A_NUMBER");
+      http.when(() -> HttpUtil.postParams(contains("/vote")))
+          .thenReturn("SERVER STUCK");
 
       Method m = PaxosServer.class.getDeclaredMethod("electNewLeader");
       m.setAccessible(true);
 
       m.invoke(server);
 
-      assertThat(PaxosServer.getLeaderPort()).isEqualTo(8000);
+      assertThat(server.getLeaderPort()).isEqualTo(-1);
     }
   }
 
   @Test
-  @DisplayName("electNewLeader – brak kandydatow na lidera")
+  @DisplayName("electNewLeader – zablokowany serwer nie kandyduje")
   void electNewLeaderNoCandidates() throws Exception {
 
-    PaxosServer.setLeaderPort(1234);
+    server.setLeaderPort(1234);
     server.stuck("ERROR");
 
     try (MockedStatic<HttpUtil> http = mockStatic(HttpUtil.class)) {
 
-      http.when(() -> HttpUtil.postParams(contains("/election")))
+      http.when(() -> HttpUtil.postParams(contains("/vote")))
           .thenReturn(null);
 
       Method m = PaxosServer.class.getDeclaredMethod("electNewLeader");
@@ -607,7 +1049,7 @@ class PaxosServerTests {
 
       m.invoke(server);
 
-      assertThat(PaxosServer.getLeaderPort()).isEqualTo(1234);
+      assertThat(server.getLeaderPort()).isEqualTo(1234);
     }
   }
 
@@ -1,19 +1,48 @@
 package com.example.pro_spring;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @SpringBootTest
 class ProSpringApplicationTests {
 
+  @Autowired
+  private ThreadPoolTaskExecutor executor;
+
+  @Autowired
+  @Qualifier("controlExecutor")
+  private ThreadPoolTaskExecutor controlExecutor;
+
+  @Autowired
+  private PaxosServer server;
+
+  @Autowired
+  private PaxosGroups groups;
+
   @Test
   void contextLoads() {
     //contextLoads
   }
 
+  @Test
+  @DisplayName("Ogloszenia lidera i elekcje nie dziela puli z rundami")
+  void controlPoolIsSeparate() {
+    assertThat(controlExecutor).isNotSameAs(executor);
+    assertThat(controlExecutor.getQueueCapacity()).isZero();
+    assertThat(ReflectionTestUtils.getField(groups, "executor")).isSameAs(controlExecutor);
+    assertThat(ReflectionTestUtils.getField(server, "controlExecutor")).isSameAs(controlExecutor);
+  }
+
   @Test
   @DisplayName("main app")
   void mainStartApplication() {
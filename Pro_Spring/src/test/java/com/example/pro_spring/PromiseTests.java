@@ -17,4 +17,22 @@ class PromiseTests {
     assertThat(p.acceptedProposal()).isEqualTo(10);
     assertThat(p.acceptedValue()).isEqualTo(42);
   }
+
+  @Test
+  void fromResponseWithAcceptedValue() {
+    Promise p = Promise.fromResponse("PROMISE,3,99");
+
+    assertThat(p).isEqualTo(new Promise(true, 3, 99));
+  }
+
+  @Test
+  void fromResponseWithoutAcceptedValue() {
+    assertThat(Promise.fromResponse("PROMISE,NONE")).isEqualTo(new Promise(true, -1, -1));
+  }
+
+  @Test
+  void fromResponseReject() {
+    assertThat(Promise.fromResponse("REJECT,10")).isNull();
+    assertThat(Promise.fromResponse(null)).isNull();
+  }
 }
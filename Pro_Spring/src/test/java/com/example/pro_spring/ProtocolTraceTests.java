@@ -0,0 +1,87 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.pro_spring.trace.ProtocolEvent;
+import com.example.pro_spring.trace.ProtocolTrace;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Testy ProtocolTrace")
+class ProtocolTraceTests {
+
+  @Test
+  @DisplayName("Wylaczone sledzenie nie kolejkuje zdarzen")
+  void disabledRecordsNothing() {
+    ProtocolTrace trace = new ProtocolTrace(false, 1.0);
+
+    trace.record(8000, "PREPARE", 5, -1, null, "PROMISE,NONE");
+
+    assertThat(trace.pending()).isZero();
+  }
+
+  @Test
+  @DisplayName("Wlaczone sledzenie kolejkuje zdarzenia, a drain je oproznia")
+  void enabledRecordsAndDrains() {
+    ProtocolTrace trace = new ProtocolTrace(true, 1.0);
+
+    trace.record(8000, "PREPARE", 5, -1, null, "PROMISE,NONE");
+    trace.record(8000, "ACCEPT", 5, 10, null, "ACCEPTED,5,10");
+
+    assertThat(trace.pending()).isEqualTo(2);
+
+    trace.drain();
+
+    assertThat(trace.pending()).isZero();
+  }
+
+  @Test
+  @DisplayName("sampleRate 0 odrzuca wszystkie zdarzenia")
+  void zeroSampleRate() {
+    ProtocolTrace trace = new ProtocolTrace(true, 0.0);
+
+    for (int i = 0; i < 100; i++) {
+      trace.record(8000, "PREPARE", i, -1, null, null);
+    }
+
+    assertThat(trace.pending()).isZero();
+  }
+
+  @Test
+  @DisplayName("configure przelacza sledzenie w trakcie dzialania i przycina sampleRate")
+  void configureAtRuntime() {
+    ProtocolTrace trace = new ProtocolTrace(false, 1.0);
+
+    trace.configure(true, 7.0);
+    trace.record(8000, "PREPARE", 1, -1, null, null);
+
+    assertThat(trace.isEnabled()).isTrue();
+    assertThat(trace.getSampleRate()).isEqualTo(1.0);
+    assertThat(trace.pending()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Pelna kolejka odrzuca i zlicza zdarzenia")
+  void overflowDropsEvents() {
+    ProtocolTrace trace = new ProtocolTrace(true, 1.0);
+
+    for (int i = 0; i < 8192 + 10; i++) {
+      trace.record(8000, "PREPARE", i, -1, null, null);
+    }
+
+    assertThat(trace.pending()).isEqualTo(8192);
+    assertThat(trace.dropped()).isEqualTo(10);
+  }
+
+  @Test
+  @DisplayName("ProtocolEvent formatuje linie klucz=wartosc")
+  void eventFormat() {
+    ProtocolEvent event = new ProtocolEvent(
+        1L, 8000, "SEND_PREPARE", 5, -1, "http://localhost:8001", List.of("PROMISE"));
+
+    assertThat(event.format()).isEqualTo(
+        "ts=1 node=8000 type=SEND_PREPARE ballot=5 value=-1 peer=http://localhost:8001"
+            + " detail=[PROMISE]");
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.pro_spring.sim.DelayDistribution;
+import com.example.pro_spring.sim.NetworkProfile;
+import com.example.pro_spring.sim.SafetyChecker;
+import com.example.pro_spring.sim.Simulation;
+import com.example.pro_spring.sim.SimulationResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Testy deterministycznej symulacji")
+class SimulationTests {
+
+  private static final int SEEDS = 200;
+  private static final int STEPS = 300;
+
+  private static void assertSafe(NetworkProfile profile) {
+    for (long seed = 0; seed < SEEDS; seed++) {
+      SimulationResult result = new Simulation(seed, 8, profile).run(STEPS);
+      assertThat(result.violations())
+          .as("seed %d", seed)
+          .isEmpty();
+      assertThat(result.chosen())
+          .as("seed %d", seed)
+          .hasSizeLessThanOrEqualTo(1);
+    }
+  }
+
+  @Nested
+  @DisplayName("Niezmiennik: co najwyzej jedna wybrana wartosc")
+  class SafetyTests {
+
+    @Test
+    @DisplayName("Awarie i podzialy sieci przy niezawodnym laczu")
+    void crashesAndPartitions() {
+      assertSafe(NetworkProfile.reliable());
+    }
+
+    @Test
+    @DisplayName("Zduplikowane wiadomosci")
+    void duplicates() {
+      assertSafe(new NetworkProfile(DelayDistribution.uniform(1, 20), 500, 0.0, 0.2));
+    }
+
+    @Test
+    @DisplayName("Gubienie wiadomosci i dostarczanie po timeoucie")
+    void lossAndReordering() {
+      assertSafe(NetworkProfile.lossy());
+    }
+  }
+
+  @Nested
+  @DisplayName("Postep: klaster nie blokuje sie na stale")
+  class LivenessTests {
+
+    @Test
+    @DisplayName("Po gubiacym wiadomosci przebiegu i naprawie sieci wartosc zostaje zatwierdzona")
+    void lossyRunStillCommits() {
+      for (long seed = 0; seed < SEEDS; seed++) {
+        SimulationResult result = new Simulation(seed, 8, NetworkProfile.lossy()).run(STEPS);
+        assertThat(result.committedAfterHeal())
+            .as("seed %d, stany %s", seed, result.finalStates())
+            .isTrue();
+        assertThat(result.chosen())
+            .as("seed %d", seed)
+            .hasSize(1);
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Powtarzalnosc")
+  class DeterminismTests {
+
+    @Test
+    @DisplayName("Ten sam seed daje ten sam przebieg")
+    void sameSeedSameRun() {
+      SimulationResult first = new Simulation(42, 8, NetworkProfile.lossy()).run(STEPS);
+      SimulationResult second = new Simulation(42, 8, NetworkProfile.lossy()).run(STEPS);
+
+      assertThat(second).isEqualTo(first);
+      assertThat(first.sent()).isPositive();
+      assertThat(first.delayed()).isPositive();
+      assertThat(first.duplicated()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Rozne seedy daja rozne przebiegi")
+    void differentSeeds() {
+      SimulationResult first = new Simulation(1, 8, NetworkProfile.lossy()).run(STEPS);
+      SimulationResult second = new Simulation(2, 8, NetworkProfile.lossy()).run(STEPS);
+
+      assertThat(second).isNotEqualTo(first);
+    }
+  }
+
+  @Nested
+  @DisplayName("SafetyChecker")
+  class CheckerTests {
+
+    @Test
+    @DisplayName("Wartosc jest wybrana dopiero przez wiekszosc")
+    void chosenByMajority() {
+      SafetyChecker checker = new SafetyChecker(2);
+
+      checker.accepted("a", 5, 7, 0);
+      assertThat(checker.chosen()).isEmpty();
+
+      checker.accepted("a", 5, 7, 1);
+      assertThat(checker.chosen()).isEmpty();
+
+      checker.accepted("b", 5, 7, 2);
+      assertThat(checker.chosen()).containsExactly(7);
+      assertThat(checker.violations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Druga wybrana wartosc jest naruszeniem")
+    void secondChosenValue() {
+      SafetyChecker checker = new SafetyChecker(2);
+
+      checker.accepted("a", 5, 7, 0);
+      checker.accepted("b", 5, 7, 0);
+      checker.accepted("a", 9, 8, 1);
+      checker.accepted("c", 9, 8, 1);
+
+      assertThat(checker.chosen()).containsExactlyInAnyOrder(7, 8);
+      assertThat(checker.violations()).singleElement().asString().contains("druga wartosc 8");
+    }
+
+    @Test
+    @DisplayName("Dwie wartosci z tym samym numerem propozycji sa naruszeniem")
+    void twoValuesForOneBallot() {
+      SafetyChecker checker = new SafetyChecker(2);
+
+      checker.accepted("a", 5, 7, 0);
+      checker.accepted("b", 5, 8, 0);
+
+      assertThat(checker.violations()).singleElement().asString().contains("dwie wartosci");
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.pro_spring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.pro_spring.controller.StatusController;
+import com.example.pro_spring.events.ClusterEvent;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.model.ClusterStatus;
+import com.example.pro_spring.model.NodeMetrics;
+import com.example.pro_spring.model.NodeStatus;
+import com.example.pro_spring.model.PeerStatus;
+import com.example.pro_spring.model.RpcMetrics;
+import com.example.pro_spring.service.ClusterStatusService;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(
+    controllers = StatusController.class,
+    excludeAutoConfiguration = SecurityAutoConfiguration.class
+)
+@Import(ClusterEvents.class)
+@DisplayName("Testy StatusController")
+class StatusControllerTests {
+
+  private static final NodeMetrics METRICS = new NodeMetrics(3, 1, 2, 4.5, 9.0, 4.0, 8.5, 9.0,
+      5, 1, 4, 0, 0, 1, Map.of("localhost:8001", new RpcMetrics(10, 1, 25.0, 7.0)));
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private PaxosServer server;
+
+  @MockitoBean
+  private PaxosGroups groups;
+
+  @MockitoBean
+  private ClusterStatusService clusterStatus;
+
+  @Autowired
+  private ClusterEvents events;
+
+  @Test
+  @DisplayName("/node_status - stan wezla jako JSON, rowniez dla zablokowanego wezla")
+  void nodeStatus() throws Exception {
+    when(groups.get(null)).thenReturn(server);
+    when(server.status()).thenReturn(
+        new NodeStatus(1, 8001, 0, 8000, true, "ERR", 12, 10, 42, METRICS));
+
+    mockMvc.perform(post("/node_status"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.port").value(8001))
+        .andExpect(jsonPath("$.group").value(0))
+        .andExpect(jsonPath("$.stuck").value(true))
+        .andExpect(jsonPath("$.stuckMessage").value("ERR"))
+        .andExpect(jsonPath("$.acceptedValue").value(42))
+        .andExpect(jsonPath("$.metrics.roundsCommitted").value(3))
+        .andExpect(jsonPath("$.metrics.roundP95Ms").value(8.5))
+        .andExpect(jsonPath("$.metrics.rpc['localhost:8001'].calls").value(10));
+  }
+
+  @Test
+  @DisplayName("/groups/{group}/node_status - stan wezla we wskazanej grupie")
+  void nodeStatusOfGroup() throws Exception {
+    PaxosServer groupServer = mock(PaxosServer.class);
+    when(groups.get(2)).thenReturn(groupServer);
+    when(groupServer.status()).thenReturn(
+        new NodeStatus(1, 8001, 2, 8002, false, null, 7, 7, 9, METRICS));
+
+    mockMvc.perform(post("/groups/2/node_status"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.group").value(2))
+        .andExpect(jsonPath("$.leaderPort").value(8002))
+        .andExpect(jsonPath("$.acceptedValue").value(9));
+  }
+
+  @Test
+  @DisplayName("/cluster_status - stan wszystkich wezlow w jednym dokumencie")
+  void clusterStatus() throws Exception {
+    NodeStatus node = new NodeStatus(0, 8000, 0, 8000, false, null, 12, 12, 42, METRICS);
+    when(clusterStatus.collect()).thenReturn(new ClusterStatus(8000, 2, 1, 12, List.of(
+        new PeerStatus("http://localhost:8000", true, 3, 0, node),
+        new PeerStatus("http://localhost:8001", false, 1000, -1, null))));
+
+    mockMvc.perform(post("/cluster_status"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.leaderPort").value(8000))
+        .andExpect(jsonPath("$.reachable").value(1))
+        .andExpect(jsonPath("$.nodes.length()").value(2))
+        .andExpect(jsonPath("$.nodes[0].node.acceptedValue").value(42))
+        .andExpect(jsonPath("$.nodes[1].reachable").value(false));
+  }
+
+  @Test
+  @DisplayName("/members - sklad klastra jako lista adresow")
+  void members() throws Exception {
+    when(server.getPeers()).thenReturn(List.of("http://localhost:8000", "http://node-b:9000"));
+
+    mockMvc.perform(post("/members"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[1]").value("http://node-b:9000"));
+  }
+
+  @Test
+  @DisplayName("/events - strumien zaczyna sie od stanu kazdej grupy, a potem niesie zdarzenia")
+  void events() throws Exception {
+    PaxosServer groupServer = mock(PaxosServer.class);
+    when(groups.all()).thenReturn(List.of(server, groupServer));
+    when(server.snapshot()).thenReturn(
+        new ClusterEvent(1L, 8001, 0, "SNAPSHOT", -1, -1, 8000, false, "STATE,-1,-1,-1", null));
+    when(groupServer.snapshot()).thenReturn(
+        new ClusterEvent(1L, 8001, 1, "SNAPSHOT", -1, -1, 8001, false, "STATE,7,7,9", null));
+
+    MvcResult result = mockMvc.perform(get("/events"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    events.publish(
+        new ClusterEvent(2L, 8001, 2, "COMMIT", 12, 42, 8000, false, "STATE,12,12,42", null));
+    events.dispatch();
+
+    String body = result.getResponse().getContentAsString();
+    assertThat(body)
+        .contains("event:SNAPSHOT")
+        .contains("\"state\":\"STATE,7,7,9\"")
+        .contains("event:COMMIT")
+        .contains("\"state\":\"STATE,12,12,42\"")
+        .contains("\"group\":2");
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.pro_spring;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.pro_spring.controller.TraceController;
+import com.example.pro_spring.trace.ProtocolTrace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = TraceController.class)
+@Import(ProtocolTrace.class)
+@DisplayName("Testy TraceController")
+class TraceControllerTests {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ProtocolTrace trace;
+
+  @BeforeEach
+  void reset() {
+    trace.configure(false, 1.0);
+  }
+
+  @Test
+  @DisplayName("/trace bez parametrow zwraca aktualne ustawienia")
+  void readSettings() throws Exception {
+    mockMvc.perform(post("/trace"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("TRACE,false,1.0,0,0"));
+  }
+
+  @Test
+  @DisplayName("/trace wlacza sledzenie z probkowaniem")
+  void enableWithSampling() throws Exception {
+    mockMvc.perform(post("/trace")
+            .param("enabled", "true")
+            .param("sampleRate", "0.25"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("TRACE,true,0.25,0,0"));
+  }
+}
@@ -0,0 +1,161 @@
+package com.example.pro_spring.cluster;
+
+import com.example.pro_spring.controller.PaxosController;
+import com.example.pro_spring.service.ClientSessions;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.transport.BatchFrame;
+import com.example.pro_spring.transport.PeerTransport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kanal komunikacji w pamieci. Zadanie jest kierowane do wezla zarejestrowanego pod adresem z
+ * URL i obslugiwane przez jego {@link PaxosController}, tak jak zadanie HTTP, lacznie z
+ * prefiksem /groups/{group}, deduplikacja zadan klientow i ramkami /batch. Propozycja klienta
+ * dostaje odpowiedz kontrolera, ktora przy wait=true jest ograniczona jego timeoutem. Pozwala
+ * uruchomic caly klaster w jednej JVM, bez narzutu HTTP.
+ */
+public class InMemoryTransport implements PeerTransport {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final long COMMIT_TIMEOUT_MS = 5000;
+
+  private record Node(PaxosGroups groups, PaxosController controller) {
+  }
+
+  private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+  private final Set<String> disconnected = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Rejestruje wszystkie grupy wezla pod podanym adresem.
+   *
+   * @param baseUrl adres serwera w postaci http://host:port
+   * @param groups  grupy Paxosa wezla
+   */
+  public void register(String baseUrl, PaxosGroups groups) {
+    PaxosController controller = new PaxosController(groups.get(0), groups,
+        new ClientSessions(10_000), COMMIT_TIMEOUT_MS, false);
+    nodes.put(baseUrl, new Node(groups, controller));
+  }
+
+  /**
+   * Odcina serwer od sieci. Zadania do niego koncza sie brakiem odpowiedzi, jak przy awarii.
+   *
+   * @param baseUrl adres serwera
+   */
+  public void disconnect(String baseUrl) {
+    disconnected.add(baseUrl);
+  }
+
+  /**
+   * Przywraca polaczenie z serwerem.
+   *
+   * @param baseUrl adres serwera
+   */
+  public void reconnect(String baseUrl) {
+    disconnected.remove(baseUrl);
+  }
+
+  @Override
+  public String post(String url) {
+    int pathStart = url.indexOf('/', url.indexOf("//") + 2);
+    if (pathStart < 0) {
+      return null;
+    }
+    Node node = reachable(url.substring(0, pathStart));
+    if (node == null) {
+      return null;
+    }
+
+    String request = url.substring(pathStart);
+    try {
+      return dispatch(node, request);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public List<String> postBatch(String baseUrl, List<String> requests) {
+    Node node = reachable(baseUrl);
+    if (node == null) {
+      return new ArrayList<>(Collections.nCopies(requests.size(), null));
+    }
+    String body = node.controller().batch(BatchFrame.encodeRequests(requests));
+    return BatchFrame.decodeResponses(body, requests.size());
+  }
+
+  private Node reachable(String baseUrl) {
+    return disconnected.contains(baseUrl) ? null : nodes.get(baseUrl);
+  }
+
+  private static String dispatch(Node node, String request) {
+    PaxosController controller = node.controller();
+    Integer group = BatchFrame.group(request);
+    return switch (BatchFrame.endpoint(request)) {
+      case "/prepare" -> controller.prepare(group, longParam(request, "proposalId"));
+      case "/accept" -> controller.accept(group, longParam(request, "proposalId"),
+          intParam(request, "value"));
+      case "/accepted_state" -> controller.state(group);
+      case "/client_propose" -> propose(controller, group, request);
+      case "/vote" -> controller.vote(group, longParam(request, "term"));
+      case "/leader_announce" -> controller.leaderAnnounce(group, longParam(request, "term"),
+          intParam(request, "leader"));
+      case "/leader" -> controller.leader(group);
+      case "/leader_info" -> controller.leaderInfo(group);
+      case "/node_status" -> toJson(node.groups().get(group));
+      case "/rollback" -> controller.rollback(group, param(request, "proposalId") != null
+          ? longParam(request, "proposalId") : null);
+      case "/clear" -> controller.clear(group);
+      default -> null;
+    };
+  }
+
+  /**
+   * Przekazuje propozycje klienta do kontrolera. Odpowiedz kontrolera konczy sie najpozniej po
+   * jego timeoucie, wiec oczekiwanie na nia jest ograniczone.
+   */
+  private static String propose(PaxosController controller, Integer group, String request) {
+    String key = param(request, "key");
+    int value = intParam(request, "value");
+    boolean forwarded = Boolean.parseBoolean(param(request, "forwarded"));
+    String clientId = param(request, "clientId");
+    Long seq = param(request, "seq") != null ? longParam(request, "seq") : null;
+    if (!Boolean.parseBoolean(param(request, "wait"))) {
+      return controller.propose(group, key, value, forwarded, clientId, seq).join();
+    }
+    Long timeoutMs = param(request, "timeoutMs") != null ? longParam(request, "timeoutMs") : null;
+    return controller.proposeAndWait(group, key, value, timeoutMs, forwarded, clientId, seq)
+        .join();
+  }
+
+  private static String toJson(PaxosServer server) {
+    try {
+      return JSON.writeValueAsString(server.status());
+    } catch (JsonProcessingException e) {
+      return null;
+    }
+  }
+
+  private static String param(String request, String name) {
+    String value = BatchFrame.param(request, name);
+    return value != null ? URLDecoder.decode(value, StandardCharsets.UTF_8) : null;
+  }
+
+  private static long longParam(String request, String name) {
+    return Long.parseLong(param(request, name));
+  }
+
+  private static int intParam(String request, String name) {
+    return Integer.parseInt(param(request, name));
+  }
+}
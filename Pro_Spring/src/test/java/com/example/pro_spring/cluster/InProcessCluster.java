@@ -0,0 +1,196 @@
+package com.example.pro_spring.cluster;
+
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.service.SystemProtocolClock;
+import com.example.pro_spring.trace.ProtocolTrace;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Klaster Paxosa uruchomiony w jednej JVM, bez kontekstu Springa. Serwery komunikuja sie przez
+ * {@link InMemoryTransport} i dziela pule watkow rund, wywolan oraz ogloszen i elekcji, tak jak
+ * serwery jednego wezla w aplikacji. Pierwszy serwer jest poczatkowym liderem grupy 0, a kazdy
+ * serwer moze prowadzic kilka grup Paxosa, jak przy paxos.groups. Klaster sluzy do testow
+ * i benchmarkow samego protokolu.
+ */
+public class InProcessCluster implements AutoCloseable {
+
+  private final List<String> urls;
+  private final InMemoryTransport transport = new InMemoryTransport();
+  private final ThreadPoolTaskExecutor executor;
+  private final ThreadPoolTaskExecutor rpcExecutor;
+  private final ThreadPoolTaskExecutor controlExecutor;
+  private final List<PaxosServer> nodes = new ArrayList<>();
+  private final List<PaxosGroups> groups = new ArrayList<>();
+
+  /**
+   * Tworzy klaster serwerow na kolejnych portach localhost z jedna grupa Paxosa.
+   *
+   * @param firstPort port pierwszego serwera, ktory zostaje liderem
+   * @param size      liczba serwerow
+   */
+  public InProcessCluster(int firstPort, int size) {
+    this(firstPort, size, 1);
+  }
+
+  /**
+   * Tworzy klaster serwerow na kolejnych portach localhost. Poczatkowi liderzy grup sa rozlozeni
+   * na serwery tak jak w {@link PaxosGroups}.
+   *
+   * @param firstPort  port pierwszego serwera, ktory zostaje liderem grupy 0
+   * @param size       liczba serwerow
+   * @param groupCount liczba grup Paxosa na kazdym serwerze
+   */
+  public InProcessCluster(int firstPort, int size, int groupCount) {
+    PaxosProperties config = PaxosProperties.localCluster(firstPort, size);
+    this.urls = config.urls();
+
+    executor = pool("cluster-");
+    rpcExecutor = pool("cluster-rpc-");
+    controlExecutor = new ThreadPoolTaskExecutor();
+    controlExecutor.setQueueCapacity(0);
+    controlExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    controlExecutor.setThreadNamePrefix("cluster-control-");
+    controlExecutor.initialize();
+
+    for (int i = 0; i < size; i++) {
+      PaxosServer node = new PaxosServer(firstPort + i, i, firstPort, executor, rpcExecutor,
+          controlExecutor, null, new PaxosMetrics(new SimpleMeterRegistry()),
+          new ProtocolTrace(false, 1.0), new ClusterEvents(), transport, config,
+          new SystemProtocolClock());
+      PaxosGroups nodeGroups = new PaxosGroups(node, transport, controlExecutor, groupCount);
+      nodes.add(node);
+      groups.add(nodeGroups);
+      transport.register(urls.get(i), nodeGroups);
+    }
+  }
+
+  /**
+   * Zwraca serwer o podanym indeksie.
+   *
+   * @param index indeks serwera (od 0)
+   * @return serwer
+   */
+  public PaxosServer node(int index) {
+    return nodes.get(index);
+  }
+
+  /**
+   * Zwraca serwer grupy na serwerze o podanym indeksie.
+   *
+   * @param index indeks serwera (od 0)
+   * @param group numer grupy
+   * @return serwer grupy
+   */
+  public PaxosServer node(int index, int group) {
+    return groups.get(index).get(group);
+  }
+
+  /**
+   * Zwraca wszystkie serwery klastra.
+   *
+   * @return niemodyfikowalna lista serwerow
+   */
+  public List<PaxosServer> nodes() {
+    return List.copyOf(nodes);
+  }
+
+  /**
+   * Zwraca serwer bedacy aktualnie liderem. Kazdy serwer ma wlasny widok lidera, wiec przy
+   * kilku serwerach uwazajacych sie za lidera wygrywa ten z najnowsza kadencja.
+   *
+   * @return lider lub null, jesli zaden serwer nie uwaza sie za lidera
+   */
+  public PaxosServer leader() {
+    return leader(0);
+  }
+
+  /**
+   * Zwraca serwer bedacy aktualnie liderem grupy, wybierany tak jak w {@link #leader()}.
+   *
+   * @param group numer grupy
+   * @return lider grupy lub null, jesli zaden serwer nie uwaza sie za lidera
+   */
+  public PaxosServer leader(int group) {
+    return groups.stream()
+        .map(g -> g.get(group))
+        .filter(n -> n.getLeaderPort() == n.getPort())
+        .max(Comparator.comparingLong(PaxosServer::getLeaderTerm))
+        .orElse(null);
+  }
+
+  /**
+   * Zglasza wartosc do aktualnego lidera.
+   *
+   * @param value proponowana wartosc
+   * @return future z wartoscia zatwierdzona przez wiekszosc albo null, jesli runda sie nie
+   *     powiodla
+   */
+  public CompletableFuture<Integer> propose(int value) {
+    return propose(0, value);
+  }
+
+  /**
+   * Zglasza wartosc do aktualnego lidera grupy.
+   *
+   * @param group numer grupy
+   * @param value proponowana wartosc
+   * @return future z wartoscia zatwierdzona przez wiekszosc albo null, jesli runda sie nie
+   *     powiodla
+   */
+  public CompletableFuture<Integer> propose(int group, int value) {
+    return leader(group).startPaxos(value);
+  }
+
+  /**
+   * Odcina serwer od reszty klastra.
+   *
+   * @param index indeks serwera
+   */
+  public void disconnect(int index) {
+    transport.disconnect(urls.get(index));
+  }
+
+  /**
+   * Przywraca polaczenie serwera z klastrem.
+   *
+   * @param index indeks serwera
+   */
+  public void reconnect(int index) {
+    transport.reconnect(urls.get(index));
+  }
+
+  /**
+   * Zwraca kanal komunikacji klastra.
+   *
+   * @return transport w pamieci
+   */
+  public InMemoryTransport transport() {
+    return transport;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+    rpcExecutor.shutdown();
+    controlExecutor.shutdown();
+  }
+
+  private static ThreadPoolTaskExecutor pool(String threadPrefix) {
+    ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+    pool.setCorePoolSize(16);
+    pool.setMaxPoolSize(32);
+    pool.setThreadNamePrefix(threadPrefix);
+    pool.initialize();
+    return pool;
+  }
+}
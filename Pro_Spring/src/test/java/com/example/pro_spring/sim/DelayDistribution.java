@@ -0,0 +1,50 @@
+package com.example.pro_spring.sim;
+
+import java.util.Random;
+
+/**
+ * Rozklad opoznienia pojedynczej wiadomosci w symulowanej sieci.
+ */
+@FunctionalInterface
+public interface DelayDistribution {
+
+  /**
+   * Losuje opoznienie.
+   *
+   * @param random generator losowy symulacji
+   * @return opoznienie w milisekundach
+   */
+  long sample(Random random);
+
+  /**
+   * Stale opoznienie.
+   *
+   * @param millis opoznienie w milisekundach
+   * @return rozklad
+   */
+  static DelayDistribution constant(long millis) {
+    return random -> millis;
+  }
+
+  /**
+   * Opoznienie jednostajne z przedzialu [min, max].
+   *
+   * @param min minimalne opoznienie
+   * @param max maksymalne opoznienie
+   * @return rozklad
+   */
+  static DelayDistribution uniform(long min, long max) {
+    return random -> min + (long) (random.nextDouble() * (max - min + 1));
+  }
+
+  /**
+   * Opoznienie wykladnicze z dlugim ogonem, przesuniete o minimum.
+   *
+   * @param min  minimalne opoznienie
+   * @param mean srednie opoznienie ponad minimum
+   * @return rozklad
+   */
+  static DelayDistribution exponential(long min, double mean) {
+    return random -> min + (long) (-mean * Math.log(1 - random.nextDouble()));
+  }
+}
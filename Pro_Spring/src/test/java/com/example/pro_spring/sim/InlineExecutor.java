@@ -0,0 +1,15 @@
+package com.example.pro_spring.sim;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Executor wykonujacy zadania od razu w watku wywolujacym. Rozeslanie PREPARE i ACCEPT staje sie
+ * sekwencyjne, wiec przebieg rundy zalezy wylacznie od symulowanej sieci.
+ */
+public class InlineExecutor implements AsyncTaskExecutor {
+
+  @Override
+  public void execute(Runnable task) {
+    task.run();
+  }
+}
@@ -0,0 +1,33 @@
+package com.example.pro_spring.sim;
+
+/**
+ * Parametry symulowanej sieci. Wiadomosc, ktorej opoznienie przekracza timeout, dociera do
+ * odbiorcy pozniej, ale nadawca nie dostaje odpowiedzi, tak jak przy timeoucie HTTP. W ten sposob
+ * siec przestawia kolejnosc wiadomosci.
+ *
+ * @param delay         rozklad opoznienia wiadomosci
+ * @param timeoutMs     czas, po ktorym nadawca przestaje czekac na odpowiedz
+ * @param dropRate      prawdopodobienstwo zgubienia zadania, a osobno takze odpowiedzi
+ * @param duplicateRate prawdopodobienstwo ponownego dostarczenia zadania
+ */
+public record NetworkProfile(DelayDistribution delay, long timeoutMs, double dropRate,
+                             double duplicateRate) {
+
+  /**
+   * Siec bez strat i z krotkim opoznieniem.
+   *
+   * @return profil sieci
+   */
+  public static NetworkProfile reliable() {
+    return new NetworkProfile(DelayDistribution.uniform(1, 5), 500, 0.0, 0.0);
+  }
+
+  /**
+   * Siec gubiaca, duplikujaca i opozniajaca wiadomosci ponad timeout.
+   *
+   * @return profil sieci
+   */
+  public static NetworkProfile lossy() {
+    return new NetworkProfile(DelayDistribution.exponential(1, 150), 500, 0.1, 0.05);
+  }
+}
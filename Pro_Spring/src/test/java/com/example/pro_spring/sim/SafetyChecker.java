@@ -0,0 +1,74 @@
+package com.example.pro_spring.sim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sprawdza niezmienniki bezpieczenstwa na podstawie akceptacji obserwowanych u acceptorow.
+ * Wartosc jest wybrana, gdy wiekszosc acceptorow zaakceptowala ja z tym samym numerem
+ * propozycji. Dla jednej instancji Paxosa wybrana moze zostac co najwyzej jedna wartosc, a kazdy
+ * numer propozycji musi niesc jedna wartosc.
+ */
+public class SafetyChecker {
+
+  private final int majority;
+  private final Map<Long, Integer> ballotValues = new HashMap<>();
+  private final Map<Long, Set<String>> ballotAcceptors = new HashMap<>();
+  private final Set<Integer> chosen = new LinkedHashSet<>();
+  private final List<String> violations = new ArrayList<>();
+
+  /**
+   * Tworzy sprawdzanie dla klastra o podanej wiekszosci.
+   *
+   * @param majority liczba acceptorow tworzaca wiekszosc
+   */
+  public SafetyChecker(int majority) {
+    this.majority = majority;
+  }
+
+  /**
+   * Rejestruje akceptacje wartosci przez acceptora.
+   *
+   * @param node   adres acceptora
+   * @param ballot numer propozycji
+   * @param value  zaakceptowana wartosc
+   * @param time   czas wirtualny akceptacji
+   */
+  public void accepted(String node, long ballot, int value, long time) {
+    Integer previous = ballotValues.putIfAbsent(ballot, value);
+    if (previous != null && previous != value) {
+      violations.add("t=" + time + " ballot " + ballot + " niesie dwie wartosci: "
+          + previous + " i " + value);
+    }
+
+    Set<String> acceptors = ballotAcceptors.computeIfAbsent(ballot, b -> new HashSet<>());
+    if (acceptors.add(node) && acceptors.size() == majority && chosen.add(value)
+        && chosen.size() > 1) {
+      violations.add("t=" + time + " wybrano druga wartosc " + value + " (ballot " + ballot
+          + "), wczesniej wybrane: " + chosen);
+    }
+  }
+
+  /**
+   * Zwraca wartosci wybrane przez wiekszosc.
+   *
+   * @return wybrane wartosci w kolejnosci wyboru
+   */
+  public Set<Integer> chosen() {
+    return Set.copyOf(chosen);
+  }
+
+  /**
+   * Zwraca wykryte naruszenia niezmiennikow.
+   *
+   * @return opisy naruszen
+   */
+  public List<String> violations() {
+    return List.copyOf(violations);
+  }
+}
@@ -0,0 +1,209 @@
+package com.example.pro_spring.sim;
+
+import com.example.pro_spring.cluster.InMemoryTransport;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.transport.PeerTransport;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Symulowana siec pomiedzy serwerami Paxosa. Kazda wiadomosc moze zostac zgubiona, opozniona
+ * ponad timeout (i dostarczona pozniej, w innej kolejnosci), zduplikowana albo zablokowana przez
+ * awarie lub podzial sieci. Wszystkie decyzje pochodza z jednego generatora z ziarnem, a czas z
+ * wirtualnego zegara, wiec ten sam seed daje ten sam przebieg.
+ */
+public class SimulatedNetwork {
+
+  private final VirtualClock clock;
+  private final Random random;
+  private final NetworkProfile profile;
+  private final SafetyChecker checker;
+  private final InMemoryTransport nodes = new InMemoryTransport();
+  private final Set<String> crashed = new HashSet<>();
+  private final Map<String, Integer> partition = new HashMap<>();
+  private final PriorityQueue<Delivery> pending = new PriorityQueue<>();
+  private long sequence;
+  private long sent;
+  private long dropped;
+  private long delayed;
+  private long duplicated;
+
+  /**
+   * Tworzy siec.
+   *
+   * @param clock   wirtualny zegar symulacji
+   * @param random  generator losowy symulacji
+   * @param profile parametry sieci
+   * @param checker sprawdzanie niezmiennikow
+   */
+  public SimulatedNetwork(VirtualClock clock, Random random, NetworkProfile profile,
+      SafetyChecker checker) {
+    this.clock = clock;
+    this.random = random;
+    this.profile = profile;
+    this.checker = checker;
+  }
+
+  /**
+   * Rejestruje wezel pod podanym adresem.
+   *
+   * @param baseUrl adres serwera
+   * @param groups  grupy Paxosa wezla
+   */
+  public void register(String baseUrl, PaxosGroups groups) {
+    nodes.register(baseUrl, groups);
+  }
+
+  /**
+   * Zwraca kanal komunikacji, przez ktory wysyla podany serwer.
+   *
+   * @param from adres nadawcy
+   * @return transport nadawcy
+   */
+  public PeerTransport endpoint(String from) {
+    return url -> send(from, url);
+  }
+
+  /**
+   * Oznacza serwer jako niedzialajacy albo przywraca go do dzialania. Stan acceptora jest
+   * zachowywany, jak przy restarcie z trwalym zapisem.
+   *
+   * @param baseUrl adres serwera
+   * @param down    czy serwer ma byc niedostepny
+   */
+  public void setCrashed(String baseUrl, boolean down) {
+    if (down) {
+      crashed.add(baseUrl);
+    } else {
+      crashed.remove(baseUrl);
+    }
+  }
+
+  /**
+   * Przypisuje serwer do czesci sieci. Wiadomosci przechodza tylko w obrebie jednej czesci.
+   *
+   * @param baseUrl adres serwera
+   * @param group   numer czesci sieci
+   */
+  public void setPartition(String baseUrl, int group) {
+    partition.put(baseUrl, group);
+  }
+
+  /**
+   * Usuwa podzial sieci.
+   */
+  public void heal() {
+    partition.clear();
+  }
+
+  /**
+   * Dostarcza wiadomosci, ktorych czas dostarczenia juz minal.
+   */
+  public void deliverDue() {
+    while (!pending.isEmpty() && pending.peek().deliverAt() <= clock.millis()) {
+      Delivery d = pending.poll();
+      if (!crashed.contains(d.to())) {
+        deliver(d.to(), d.url());
+      }
+    }
+  }
+
+  /**
+   * Dostarcza wszystkie oczekujace wiadomosci, przesuwajac zegar do chwili ich dostarczenia.
+   */
+  public void flush() {
+    while (!pending.isEmpty()) {
+      clock.advance(pending.peek().deliverAt() - clock.millis());
+      deliverDue();
+    }
+  }
+
+  private String send(String from, String url) {
+    deliverDue();
+    sent++;
+
+    String to = baseUrl(url);
+    if (!reachable(from, to) || random.nextDouble() < profile.dropRate()) {
+      dropped++;
+      clock.advance(profile.timeoutMs());
+      return null;
+    }
+
+    if (random.nextDouble() < profile.duplicateRate()) {
+      duplicated++;
+      enqueue(to, url, clock.millis() + profile.delay().sample(random));
+    }
+
+    long delay = profile.delay().sample(random);
+    if (delay > profile.timeoutMs()) {
+      delayed++;
+      enqueue(to, url, clock.millis() + delay);
+      clock.advance(profile.timeoutMs());
+      return null;
+    }
+
+    clock.advance(delay);
+    String resp = deliver(to, url);
+
+    if (random.nextDouble() < profile.dropRate()) {
+      dropped++;
+      return null;
+    }
+    return resp;
+  }
+
+  private String deliver(String to, String url) {
+    String resp = nodes.post(url);
+    if (resp != null && resp.startsWith("ACCEPTED")) {
+      String[] p = resp.split(",");
+      checker.accepted(to, Long.parseLong(p[1]), Integer.parseInt(p[2]), clock.millis());
+    }
+    return resp;
+  }
+
+  private void enqueue(String to, String url, long deliverAt) {
+    pending.add(new Delivery(deliverAt, sequence++, to, url));
+  }
+
+  private boolean reachable(String from, String to) {
+    return !crashed.contains(from) && !crashed.contains(to)
+        && partition.getOrDefault(from, 0).equals(partition.getOrDefault(to, 0));
+  }
+
+  private static String baseUrl(String url) {
+    return url.substring(0, url.indexOf('/', url.indexOf("//") + 2));
+  }
+
+  public long sent() {
+    return sent;
+  }
+
+  public long dropped() {
+    return dropped;
+  }
+
+  public long delayed() {
+    return delayed;
+  }
+
+  public long duplicated() {
+    return duplicated;
+  }
+
+  /**
+   * Wiadomosc oczekujaca na dostarczenie.
+   */
+  private record Delivery(long deliverAt, long seq, String to, String url)
+      implements Comparable<Delivery> {
+
+    @Override
+    public int compareTo(Delivery o) {
+      int c = Long.compare(deliverAt, o.deliverAt);
+      return c != 0 ? c : Long.compare(seq, o.seq);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.example.pro_spring.sim;
+
+import com.example.pro_spring.config.PaxosProperties;
+import com.example.pro_spring.events.ClusterEvents;
+import com.example.pro_spring.metrics.PaxosMetrics;
+import com.example.pro_spring.service.PaxosGroups;
+import com.example.pro_spring.service.PaxosServer;
+import com.example.pro_spring.trace.ProtocolTrace;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministyczna symulacja klastra Paxosa. Serwery dzialaja w jednym watku na wirtualnym
+ * zegarze i komunikuja sie przez SimulatedNetwork. W kazdym kroku symulacja losuje zdarzenie:
+ * runde rozpoczeta przez dowolny serwer (rywalizujacy proponenci), awarie lub powrot serwera,
+ * podzial lub naprawe sieci albo uplyw czasu. Ten sam seed daje zawsze ten sam przebieg, wiec
+ * naruszenie niezmiennika mozna odtworzyc.
+ */
+public class Simulation {
+
+  private static final int FIRST_PORT = 8000;
+  private static final long START_MILLIS = 1_000_000;
+  private static final int FINAL_ROUNDS = 20;
+
+  private final long seed;
+  private final Random random;
+  private final VirtualClock clock;
+  private final SafetyChecker checker;
+  private final SimulatedNetwork network;
+  private final List<String> urls;
+  private final List<PaxosServer> nodes = new ArrayList<>();
+  private final boolean[] down;
+
+  /**
+   * Tworzy symulacje klastra.
+   *
+   * @param seed    ziarno generatora losowego
+   * @param size    liczba serwerow
+   * @param profile parametry sieci
+   */
+  public Simulation(long seed, int size, NetworkProfile profile) {
+    this.seed = seed;
+    this.random = new Random(seed);
+    this.clock = new VirtualClock(START_MILLIS, random);
+    this.checker = new SafetyChecker(size / 2 + 1);
+    this.network = new SimulatedNetwork(clock, random, profile, checker);
+    this.down = new boolean[size];
+
+    PaxosProperties config = PaxosProperties.localCluster(FIRST_PORT, size);
+    this.urls = config.urls();
+    InlineExecutor executor = new InlineExecutor();
+
+    for (int i = 0; i < size; i++) {
+      PaxosServer node = new PaxosServer(FIRST_PORT + i, i, FIRST_PORT, executor, executor,
+          executor, null, new PaxosMetrics(new SimpleMeterRegistry()),
+          new ProtocolTrace(false, 1.0), new ClusterEvents(), network.endpoint(urls.get(i)),
+          config, clock);
+      nodes.add(node);
+      network.register(urls.get(i),
+          new PaxosGroups(node, network.endpoint(urls.get(i)), executor, 1));
+    }
+  }
+
+  /**
+   * Wykonuje podana liczbe krokow symulacji, a nastepnie naprawia siec, dostarcza zalegle
+   * wiadomosci i sprawdza, czy klaster nadal potrafi zatwierdzic wartosc.
+   *
+   * @param steps liczba krokow
+   * @return wynik symulacji
+   */
+  public SimulationResult run(int steps) {
+    int proposals = 0;
+
+    for (int step = 0; step < steps; step++) {
+      int node = random.nextInt(nodes.size());
+      int action = random.nextInt(100);
+
+      if (action < 50) {
+        if (!down[node]) {
+          nodes.get(node).startPaxos(1 + random.nextInt(1000));
+          proposals++;
+        }
+      } else if (action < 60) {
+        setDown(node, true);
+      } else if (action < 75) {
+        setDown(node, false);
+      } else if (action < 82) {
+        partition();
+      } else if (action < 90) {
+        network.heal();
+      } else {
+        clock.advance(random.nextInt(1000));
+        network.deliverDue();
+      }
+    }
+
+    network.heal();
+    for (int i = 0; i < nodes.size(); i++) {
+      setDown(i, false);
+    }
+    network.flush();
+    boolean committedAfterHeal = commitAfterHeal();
+
+    return new SimulationResult(seed, proposals, checker.chosen(), checker.violations(),
+        committedAfterHeal, nodes.stream().map(PaxosServer::state).toList(), network.sent(),
+        network.dropped(), network.delayed(), network.duplicated(),
+        clock.millis() - START_MILLIS);
+  }
+
+  /**
+   * Po naprawie sieci proponuje wartosci z losowych serwerow, dopoki ktoras runda nie zostanie
+   * zatwierdzona. Siec nadal gubi wiadomosci, wiec pojedyncza runda moze sie nie udac, ale stan
+   * pozostawiony przez wczesniejsze rundy nie moze zablokowac klastra na stale.
+   *
+   * @return true, jesli ktoras z rund zostala zatwierdzona
+   */
+  private boolean commitAfterHeal() {
+    for (int round = 0; round < FINAL_ROUNDS; round++) {
+      PaxosServer node = nodes.get(random.nextInt(nodes.size()));
+      if (node.startPaxos(1 + random.nextInt(1000)).join() != null) {
+        return true;
+      }
+      clock.advance(random.nextInt(1000));
+      network.deliverDue();
+    }
+    return false;
+  }
+
+  private void setDown(int node, boolean value) {
+    down[node] = value;
+    network.setCrashed(urls.get(node), value);
+  }
+
+  /**
+   * Dzieli siec losowo na dwie czesci.
+   */
+  private void partition() {
+    network.heal();
+    for (String url : urls) {
+      network.setPartition(url, random.nextInt(2));
+    }
+  }
+}
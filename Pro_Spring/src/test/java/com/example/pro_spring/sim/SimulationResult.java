@@ -0,0 +1,34 @@
+package com.example.pro_spring.sim;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wynik przebiegu symulacji.
+ *
+ * @param seed               ziarno symulacji
+ * @param proposals          liczba rozpoczetych rund
+ * @param chosen             wartosci wybrane przez wiekszosc
+ * @param violations         wykryte naruszenia niezmiennikow
+ * @param committedAfterHeal czy po naprawie sieci klaster zatwierdzil wartosc
+ * @param finalStates        stany acceptorow po zakonczeniu symulacji
+ * @param sent               liczba wyslanych wiadomosci
+ * @param dropped            liczba zgubionych zadan i odpowiedzi
+ * @param delayed            liczba wiadomosci dostarczonych po timeoucie
+ * @param duplicated         liczba zduplikowanych wiadomosci
+ * @param virtualMillis      czas wirtualny trwania symulacji
+ */
+public record SimulationResult(long seed, int proposals, Set<Integer> chosen,
+                               List<String> violations, boolean committedAfterHeal,
+                               List<String> finalStates, long sent, long dropped, long delayed,
+                               long duplicated, long virtualMillis) {
+
+  /**
+   * Sprawdza, czy przebieg nie naruszyl zadnego niezmiennika.
+   *
+   * @return true jesli przebieg byl bezpieczny
+   */
+  public boolean safe() {
+    return violations.isEmpty();
+  }
+}
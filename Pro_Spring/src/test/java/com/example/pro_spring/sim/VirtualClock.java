@@ -0,0 +1,49 @@
+package com.example.pro_spring.sim;
+
+import com.example.pro_spring.service.ProtocolClock;
+import java.util.Random;
+
+/**
+ * Wirtualny zegar symulacji. Czas plynie tylko wtedy, gdy symulacja go przesuwa, a uspienie
+ * watku przesuwa zegar zamiast czekac. Losowe opoznienia pochodza z ziarna symulacji.
+ */
+public class VirtualClock implements ProtocolClock {
+
+  private final Random random;
+  private long now;
+
+  /**
+   * Tworzy zegar startujacy od podanej chwili.
+   *
+   * @param start  poczatkowy czas w milisekundach
+   * @param random generator losowy symulacji
+   */
+  public VirtualClock(long start, Random random) {
+    this.now = start;
+    this.random = random;
+  }
+
+  @Override
+  public long millis() {
+    return now;
+  }
+
+  @Override
+  public void sleep(long millis) {
+    advance(millis);
+  }
+
+  @Override
+  public long randomDelay(long min, long max) {
+    return min + (long) (random.nextDouble() * (max - min + 1));
+  }
+
+  /**
+   * Przesuwa zegar do przodu.
+   *
+   * @param millis przesuniecie w milisekundach
+   */
+  public void advance(long millis) {
+    now += Math.max(0, millis);
+  }
+}
@@ -0,0 +1,322 @@
+package com.example.paxosclient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Klient klastra Paxos dla aplikacji.
+ *
+ * <p>Zapamietuje aktualnego lidera (z /leader i z odpowiedzi NOT_LEADER,port), wiec w stanie
+ * ustalonym kazda propozycja to jedno zadanie HTTP do lidera. Wszystkie zadania ida przez jeden
+ * HttpClient, ktory utrzymuje pule polaczen keep-alive. Propozycje sa wysylane z wait=true, a po
+ * bledzie, FAILED, TIMEOUT lub BUSY (przeciazony lider) sa ponawiane z tym samym identyfikatorem
+ * zadania (clientId, seq), aby serwer mogl rozpoznac powtorzenie. Rownoczesne propozycje z
+ * jednego procesu sa laczone w partie przez {@link ProposalBatcher}.
+ *
+ * <pre>{@code
+ * PaxosClient client = PaxosClient.builder(List.of("http://localhost:8000")).build();
+ * int chosen = client.propose(42);
+ * }</pre>
+ */
+public class PaxosClient {
+
+  private final HttpClient http;
+  private final List<String> servers;
+  private final Duration requestTimeout;
+  private final int maxAttempts;
+  private final Duration backoff;
+  private final String clientId;
+  private final ProposalBatcher batcher;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicInteger nextServer = new AtomicInteger();
+  private volatile String leader;
+
+  /**
+   * Wynik jednej proby: wybrana wartosc albo informacja, czy ponowienie moze isc od razu do
+   * wskazanego lidera.
+   */
+  private record Reply(Integer chosen, boolean redirected) {
+  }
+
+  private PaxosClient(Builder b) {
+    this.servers = List.copyOf(b.servers);
+    this.requestTimeout = b.requestTimeout;
+    this.maxAttempts = b.maxAttempts;
+    this.backoff = b.backoff;
+    this.clientId = b.clientId;
+    this.http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(b.requestTimeout)
+        .build();
+    this.batcher = new ProposalBatcher(this::send, b.maxBatchSize);
+  }
+
+  /**
+   * Tworzy builder klienta.
+   *
+   * @param servers adresy serwerow klastra w postaci http://host:port
+   * @return builder z domyslnymi ustawieniami
+   */
+  public static Builder builder(List<String> servers) {
+    return new Builder(servers);
+  }
+
+  /**
+   * Zglasza propozycje asynchronicznie.
+   *
+   * @param value proponowana wartosc
+   * @return future z wartoscia wybrana przez klaster (moze byc inna niz zaproponowana, jesli
+   *     wczesniej wybrano juz wartosc); konczy sie {@link PaxosClientException} po wyczerpaniu
+   *     ponowien
+   */
+  public CompletableFuture<Integer> submit(int value) {
+    return batcher.submit(value);
+  }
+
+  /**
+   * Zglasza propozycje i czeka na jej zatwierdzenie.
+   *
+   * @param value proponowana wartosc
+   * @return wartosc wybrana przez klaster
+   * @throws PaxosClientException gdy klaster nie zatwierdzil wartosci mimo ponowien
+   */
+  public int propose(int value) {
+    try {
+      return submit(value).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof PaxosClientException pce) {
+        throw pce;
+      }
+      throw new PaxosClientException("Propozycja nie powiodla sie", e.getCause());
+    }
+  }
+
+  /**
+   * Zwraca adres ostatnio znanego lidera.
+   *
+   * @return adres lidera lub null, jesli nie jest znany
+   */
+  public String leader() {
+    return leader;
+  }
+
+  /**
+   * Zwraca identyfikator klienta wysylany z kazda propozycja.
+   *
+   * @return identyfikator klienta
+   */
+  public String clientId() {
+    return clientId;
+  }
+
+  /**
+   * Wysyla jedna propozycje z nowym numerem sekwencyjnym. Ponowienia uzywaja tego samego numeru.
+   */
+  private CompletableFuture<Integer> send(int value) {
+    return attempt(value, sequence.incrementAndGet(), 1);
+  }
+
+  private CompletableFuture<Integer> attempt(int value, long seq, int attempt) {
+    return resolveLeader()
+        .thenCompose(base -> post(base + "/client_propose?value=" + value + "&wait=true"
+            + "&clientId=" + clientId + "&seq=" + seq)
+            .thenApply(body -> onResponse(base, body)))
+        .handle((reply, err) -> {
+          if (err == null && reply.chosen() != null) {
+            return CompletableFuture.completedFuture(reply.chosen());
+          }
+          if (err != null) {
+            leader = null;
+          }
+          if (attempt >= maxAttempts) {
+            return CompletableFuture.<Integer>failedFuture(new PaxosClientException(
+                "Wartosc nie zostala zatwierdzona po " + attempt + " probach", unwrap(err)));
+          }
+          // Przekierowanie do nowego lidera nie wymaga czekania.
+          long delay = err == null && reply.redirected() ? 0 : backoffMillis(attempt);
+          return CompletableFuture.supplyAsync(() -> null,
+                  CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+              .thenCompose(x -> attempt(value, seq, attempt + 1));
+        })
+        .thenCompose(f -> f);
+  }
+
+  /**
+   * Interpretuje odpowiedz /client_propose i aktualizuje zapamietanego lidera.
+   *
+   * @return wybrana wartosc albo odpowiedz bez wartosci, jesli propozycje trzeba ponowic
+   */
+  private Reply onResponse(String base, String body) {
+    if (body.startsWith("COMMITTED")) {
+      leader = base;
+      return new Reply(Integer.parseInt(body.substring(body.indexOf(',') + 1).trim()), false);
+    }
+    if (body.startsWith("NOT_LEADER")) {
+      int port = leaderPort(body);
+      leader = port > 0 ? withPort(base, port) : null;
+      return new Reply(null, leader != null);
+    }
+    if (!body.startsWith("FAILED") && !body.startsWith("TIMEOUT") && !body.startsWith("BUSY")) {
+      // Serwer zablokowany lub inna odpowiedz - nastepna proba pojdzie do innego serwera.
+      leader = null;
+    }
+    return new Reply(null, false);
+  }
+
+  /**
+   * Zwraca zapamietanego lidera albo pyta o niego kolejny serwer z listy.
+   */
+  private CompletableFuture<String> resolveLeader() {
+    String known = leader;
+    if (known != null) {
+      return CompletableFuture.completedFuture(known);
+    }
+
+    String base = servers.get(Math.floorMod(nextServer.getAndIncrement(), servers.size()));
+    return post(base + "/leader")
+        .thenApply(body -> {
+          int port = parsePort(body);
+          String found = port > 0 ? withPort(base, port) : base;
+          leader = found;
+          return found;
+        })
+        .exceptionally(e -> base);
+  }
+
+  private CompletableFuture<String> post(String url) {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+        .timeout(requestTimeout)
+        .POST(HttpRequest.BodyPublishers.noBody())
+        .build();
+
+    return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(resp -> {
+          if (resp.statusCode() != 200) {
+            throw new PaxosClientException("HTTP " + resp.statusCode() + " z " + url);
+          }
+          return resp.body();
+        });
+  }
+
+  private long backoffMillis(int attempt) {
+    long cap = backoff.toMillis() << Math.min(attempt - 1, 6);
+    return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+  }
+
+  /**
+   * Odczytuje port lidera z odpowiedzi NOT_LEADER,port.
+   *
+   * @return port lidera albo -1, jesli serwer go nie zna
+   */
+  static int leaderPort(String body) {
+    String[] p = body.split(",");
+    return p.length < 2 ? -1 : parsePort(p[1]);
+  }
+
+  private static int parsePort(String s) {
+    try {
+      return Integer.parseInt(s.trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Zamienia port w adresie serwera, zachowujac host.
+   */
+  static String withPort(String base, int port) {
+    URI uri = URI.create(base);
+    return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+  }
+
+  /**
+   * Builder klienta z domyslnymi ustawieniami: timeout 5 s, 5 prob, backoff 50 ms, partie do
+   * 64 propozycji.
+   */
+  public static final class Builder {
+
+    private final List<String> servers;
+    private Duration requestTimeout = Duration.ofSeconds(5);
+    private int maxAttempts = 5;
+    private Duration backoff = Duration.ofMillis(50);
+    private int maxBatchSize = 64;
+    private String clientId = UUID.randomUUID().toString();
+
+    private Builder(List<String> servers) {
+      if (servers.isEmpty()) {
+        throw new IllegalArgumentException("Lista serwerow nie moze byc pusta");
+      }
+      this.servers = List.copyOf(servers);
+    }
+
+    /**
+     * Ustawia timeout pojedynczego zadania HTTP.
+     */
+    public Builder requestTimeout(Duration requestTimeout) {
+      this.requestTimeout = requestTimeout;
+      return this;
+    }
+
+    /**
+     * Ustawia maksymalna liczbe prob wyslania jednej propozycji.
+     */
+    public Builder maxAttempts(int maxAttempts) {
+      if (maxAttempts < 1) {
+        throw new IllegalArgumentException("maxAttempts musi byc >= 1");
+      }
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Ustawia bazowe opoznienie miedzy probami; rosnie wykladniczo z losowym rozrzutem.
+     */
+    public Builder backoff(Duration backoff) {
+      this.backoff = backoff;
+      return this;
+    }
+
+    /**
+     * Ustawia maksymalna liczbe propozycji laczonych w jedna partie.
+     */
+    public Builder maxBatchSize(int maxBatchSize) {
+      if (maxBatchSize < 1) {
+        throw new IllegalArgumentException("maxBatchSize musi byc >= 1");
+      }
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * Ustawia identyfikator klienta; domyslnie losowy UUID.
+     */
+    public Builder clientId(String clientId) {
+      this.clientId = clientId;
+      return this;
+    }
+
+    /**
+     * Tworzy klienta.
+     *
+     * @return nowy klient
+     */
+    public PaxosClient build() {
+      return new PaxosClient(this);
+    }
+  }
+}
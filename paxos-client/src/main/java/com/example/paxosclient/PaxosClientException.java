@@ -0,0 +1,26 @@
+package com.example.paxosclient;
+
+/**
+ * Blad zgloszenia propozycji, gdy klaster nie zatwierdzil wartosci mimo ponowien.
+ */
+public class PaxosClientException extends RuntimeException {
+
+  /**
+   * Tworzy wyjatek z opisem przyczyny.
+   *
+   * @param message opis bledu
+   */
+  public PaxosClientException(String message) {
+    super(message);
+  }
+
+  /**
+   * Tworzy wyjatek z opisem i pierwotna przyczyna.
+   *
+   * @param message opis bledu
+   * @param cause   pierwotny wyjatek
+   */
+  public PaxosClientException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
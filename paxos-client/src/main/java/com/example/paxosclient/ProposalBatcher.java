@@ -0,0 +1,87 @@
+package com.example.paxosclient;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Laczy rownoczesne propozycje jednego procesu. W danej chwili w locie jest co najwyzej jedno
+ * zadanie; propozycje zgloszone w tym czasie czekaja w kolejce i po jego zakonczeniu sa wysylane
+ * jako jedna partia. Klaster realizuje pojedynczy Paxos (jedna wybrana wartosc), wiec cala partia
+ * dostaje ten sam wynik - wartosc wybrana przez wiekszosc - i wystarczy zaproponowac pierwsza
+ * wartosc z partii. Bez tego propozycje jednego procesu rywalizowalyby ze soba o ten sam slot.
+ */
+final class ProposalBatcher {
+
+  private final IntFunction<CompletableFuture<Integer>> sender;
+  private final int maxBatchSize;
+  private final Queue<Pending> queue = new ArrayDeque<>();
+  private boolean inFlight;
+
+  private record Pending(int value, CompletableFuture<Integer> result) {
+  }
+
+  /**
+   * Tworzy partiowanie propozycji.
+   *
+   * @param sender       wysyla jedna propozycje i zwraca wybrana wartosc
+   * @param maxBatchSize maksymalna liczba propozycji obsluzonych jednym zadaniem
+   */
+  ProposalBatcher(IntFunction<CompletableFuture<Integer>> sender, int maxBatchSize) {
+    this.sender = sender;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Dodaje propozycje do kolejki i wysyla ja, jesli zadne zadanie nie jest w locie.
+   *
+   * @param value proponowana wartosc
+   * @return future z wartoscia wybrana przez klaster
+   */
+  CompletableFuture<Integer> submit(int value) {
+    Pending pending = new Pending(value, new CompletableFuture<>());
+    boolean dispatch;
+    synchronized (this) {
+      queue.add(pending);
+      dispatch = !inFlight;
+      inFlight = true;
+    }
+    if (dispatch) {
+      dispatch();
+    }
+    return pending.result();
+  }
+
+  private void dispatch() {
+    List<Pending> batch = new ArrayList<>();
+    synchronized (this) {
+      while (!queue.isEmpty() && batch.size() < maxBatchSize) {
+        batch.add(queue.poll());
+      }
+      if (batch.isEmpty()) {
+        inFlight = false;
+        return;
+      }
+    }
+
+    CompletableFuture<Integer> sent;
+    try {
+      sent = sender.apply(batch.get(0).value());
+    } catch (RuntimeException e) {
+      sent = CompletableFuture.failedFuture(e);
+    }
+    sent.whenComplete((chosen, err) -> {
+      for (Pending p : batch) {
+        if (err != null) {
+          p.result().completeExceptionally(err);
+        } else {
+          p.result().complete(chosen);
+        }
+      }
+      dispatch();
+    });
+  }
+}
@@ -0,0 +1,245 @@
+package com.example.paxosclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Testy klienta Paxos")
+class PaxosClientTests {
+
+  static {
+    // Serwer JDK wysyla naglowki i tresc osobno; bez tego Nagle dokleja ~40 ms do odpowiedzi.
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final List<HttpServer> servers = new ArrayList<>();
+
+  @AfterEach
+  void stopServers() {
+    servers.forEach(s -> s.stop(0));
+  }
+
+  /**
+   * Atrapa serwera Paxos: /leader zwraca podany port lidera (lub wlasny, gdy -1), a /client_propose
+   * odpowiada wynikiem funkcji dla numeru zadania (od 1). Zapamietuje query wszystkich propozycji.
+   */
+  private final class Stub {
+
+    final HttpServer server;
+    final List<String> proposals = new CopyOnWriteArrayList<>();
+    final AtomicInteger leaderCalls = new AtomicInteger();
+
+    Stub(int leaderPort, IntFunction<String> handler) throws IOException {
+      server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+      AtomicInteger calls = new AtomicInteger();
+      server.createContext("/leader", exchange -> {
+        leaderCalls.incrementAndGet();
+        reply(exchange, String.valueOf(leaderPort > 0 ? leaderPort : port()));
+      });
+      server.createContext("/client_propose", exchange -> {
+        proposals.add(exchange.getRequestURI().getQuery());
+        reply(exchange, handler.apply(calls.incrementAndGet()));
+      });
+      server.setExecutor(Executors.newCachedThreadPool());
+      server.start();
+      servers.add(server);
+    }
+
+    int port() {
+      return server.getAddress().getPort();
+    }
+
+    String url() {
+      return "http://localhost:" + port();
+    }
+
+    private void reply(com.sun.net.httpserver.HttpExchange exchange, String text)
+        throws IOException {
+      byte[] body = text.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+    }
+  }
+
+  private static PaxosClient client(String... urls) {
+    return PaxosClient.builder(List.of(urls))
+        .requestTimeout(Duration.ofSeconds(2))
+        .backoff(Duration.ofMillis(5))
+        .build();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Nested
+  @DisplayName("Lider")
+  class LeaderTests {
+
+    @Test
+    @DisplayName("Lider jest odczytywany z /leader i zapamietywany")
+    void leaderFromLeaderEndpoint() throws Exception {
+      Stub leader = new Stub(-1, n -> "COMMITTED,7");
+      Stub follower = new Stub(leader.port(), n -> "NOT_LEADER," + leader.port());
+      PaxosClient client = client(follower.url());
+
+      assertThat(client.propose(7)).isEqualTo(7);
+      assertThat(client.propose(7)).isEqualTo(7);
+
+      assertThat(client.leader()).isEqualTo(leader.url());
+      assertThat(follower.leaderCalls).hasValue(1);
+      assertThat(follower.proposals).isEmpty();
+      assertThat(leader.proposals).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Odpowiedz NOT_LEADER przekierowuje do nowego lidera")
+    void followsNotLeader() throws Exception {
+      Stub leader = new Stub(-1, n -> "COMMITTED,5");
+      Stub follower = new Stub(-1, n -> "NOT_LEADER," + leader.port());
+      PaxosClient client = client(follower.url());
+
+      assertThat(client.propose(5)).isEqualTo(5);
+
+      assertThat(client.leader()).isEqualTo(leader.url());
+      assertThat(follower.proposals).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Niedostepny serwer - klient pyta kolejny")
+    void skipsDeadServer() throws Exception {
+      Stub alive = new Stub(-1, n -> "COMMITTED,3");
+      PaxosClient client = client("http://localhost:1", alive.url());
+
+      assertThat(client.propose(3)).isEqualTo(3);
+      assertThat(client.leader()).isEqualTo(alive.url());
+    }
+  }
+
+  @Nested
+  @DisplayName("Ponowienia")
+  class RetryTests {
+
+    @Test
+    @DisplayName("FAILED jest ponawiane z tym samym identyfikatorem zadania")
+    void retriesWithSameRequestId() throws Exception {
+      Stub leader = new Stub(-1, n -> n < 3 ? "FAILED" : "COMMITTED,9");
+      PaxosClient client = client(leader.url());
+
+      assertThat(client.propose(9)).isEqualTo(9);
+
+      assertThat(leader.proposals).hasSize(3)
+          .allSatisfy(q -> assertThat(q)
+              .contains("value=9", "wait=true", "clientId=" + client.clientId(), "seq=1"));
+    }
+
+    @Test
+    @DisplayName("BUSY jest ponawiane u tego samego lidera")
+    void retriesBusyAtSameLeader() throws Exception {
+      Stub leader = new Stub(-1, n -> n < 2 ? "BUSY" : "COMMITTED,4");
+      PaxosClient client = client(leader.url());
+
+      assertThat(client.propose(4)).isEqualTo(4);
+
+      assertThat(leader.proposals).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Kolejna propozycja dostaje nowy numer sekwencyjny")
+    void nextProposalNextSeq() throws Exception {
+      Stub leader = new Stub(-1, n -> "COMMITTED,1");
+      PaxosClient client = client(leader.url());
+
+      client.propose(1);
+      client.propose(1);
+
+      assertThat(leader.proposals.get(0)).endsWith("seq=1");
+      assertThat(leader.proposals.get(1)).endsWith("seq=2");
+    }
+
+    @Test
+    @DisplayName("Po wyczerpaniu prob zglaszany jest wyjatek")
+    void givesUp() throws Exception {
+      Stub leader = new Stub(-1, n -> "TIMEOUT");
+      PaxosClient client = PaxosClient.builder(List.of(leader.url()))
+          .backoff(Duration.ofMillis(1))
+          .maxAttempts(3)
+          .build();
+
+      assertThatThrownBy(() -> client.propose(1))
+          .isInstanceOf(PaxosClientException.class)
+          .hasMessageContaining("3");
+      assertThat(leader.proposals).hasSize(3);
+    }
+  }
+
+  @Nested
+  @DisplayName("Partie")
+  class BatchTests {
+
+    @Test
+    @DisplayName("Rownoczesne propozycje sa wysylane jedna partia")
+    void concurrentSubmissionsShareRequest() throws Exception {
+      Stub leader = new Stub(-1, n -> {
+        sleep(200);
+        return "COMMITTED,1";
+      });
+      PaxosClient client = client(leader.url());
+
+      List<CompletableFuture<Integer>> results = new ArrayList<>();
+      for (int i = 1; i <= 20; i++) {
+        results.add(client.submit(i));
+      }
+
+      for (CompletableFuture<Integer> r : results) {
+        assertThat(r.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+      }
+      assertThat(leader.proposals).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Blad partii konczy wszystkie jej propozycje")
+    void batchFailure() throws Exception {
+      Stub leader = new Stub(-1, n -> {
+        sleep(100);
+        return "FAILED";
+      });
+      PaxosClient client = PaxosClient.builder(List.of(leader.url()))
+          .backoff(Duration.ofMillis(1))
+          .maxAttempts(1)
+          .build();
+
+      CompletableFuture<Integer> first = client.submit(1);
+      CompletableFuture<Integer> second = client.submit(2);
+
+      assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(PaxosClientException.class);
+      assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+          .hasCauseInstanceOf(PaxosClientException.class);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package com.example.paxosgui;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javafx.scene.Node;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+/**
+ * Wykresy metryk klastra na żywo: zatwierdzenia na sekundę, percentyle czasu rundy, opóźnienie
+ * wywołań do poszczególnych węzłów i zmiany lidera. Dane pochodzą ze zdarzeń METRICS strumienia
+ * /events. Liczniki węzłów są narastające, więc tempo i średnie opóźnienie wylicza się z różnicy
+ * dwóch kolejnych migawek tego samego węzła.
+ */
+final class ClusterCharts {
+
+  private static final int WINDOW = 120;
+
+  private final Map<String, JsonNode> previous = new ConcurrentHashMap<>();
+  private final Map<String, Rates> rates = new ConcurrentHashMap<>();
+  private final long startMs = System.currentTimeMillis();
+
+  private final XYChart.Series<Number, Number> commits = series("commits/s");
+  private final XYChart.Series<Number, Number> p50 = series("p50");
+  private final XYChart.Series<Number, Number> p95 = series("p95");
+  private final XYChart.Series<Number, Number> p99 = series("p99");
+  private final XYChart.Series<Number, Number> leaderChanges = series("zmiany lidera");
+  private final Map<String, XYChart.Series<Number, Number>> rpc = new TreeMap<>();
+  private final LineChart<Number, Number> rpcChart = chart("RPC do węzła [ms]");
+  private final HBox view;
+
+  /**
+   * Tempo i opóźnienia jednego węzła wyliczone z dwóch ostatnich migawek.
+   *
+   * @param commitsPerSec zatwierdzone rundy na sekundę
+   * @param p50           mediana czasu rundy w ms
+   * @param p95           95. percentyl czasu rundy w ms
+   * @param p99           99. percentyl czasu rundy w ms
+   * @param leaderChanges łączna liczba zmian lidera widzianych przez węzeł
+   * @param rpc           przyrost liczby i czasu wywołań, według adresu węzła docelowego
+   */
+  private record Rates(double commitsPerSec, double p50, double p95, double p99,
+                       long leaderChanges, Map<String, double[]> rpc) {
+  }
+
+  ClusterCharts() {
+    LineChart<Number, Number> commitsChart = chart("Zatwierdzenia / s");
+    commitsChart.getData().add(commits);
+
+    LineChart<Number, Number> latencyChart = chart("Czas rundy [ms]");
+    latencyChart.getData().addAll(p50, p95, p99);
+
+    LineChart<Number, Number> leaderChart = chart("Zmiany lidera");
+    leaderChart.getData().add(leaderChanges);
+
+    view = new HBox(10, commitsChart, latencyChart, rpcChart, leaderChart);
+    view.getChildren().forEach(chart -> HBox.setHgrow(chart, Priority.ALWAYS));
+    view.setPrefHeight(260);
+  }
+
+  /**
+   * Zwraca kontrolkę z wykresami.
+   *
+   * @return panel wykresów
+   */
+  Node view() {
+    return view;
+  }
+
+  /**
+   * Przyjmuje zdarzenie METRICS węzła. Metoda może być wywoływana z dowolnego wątku.
+   *
+   * @param node  adres węzła
+   * @param event zdarzenie METRICS ze strumienia /events
+   */
+  void update(String node, JsonNode event) {
+    JsonNode prev = previous.put(node, event);
+    if (prev == null) {
+      return;
+    }
+    double seconds = (event.path("timestamp").asLong() - prev.path("timestamp").asLong()) / 1000.0;
+    if (seconds <= 0) {
+      return;
+    }
+
+    JsonNode cur = event.path("metrics");
+    JsonNode old = prev.path("metrics");
+    Map<String, double[]> rpcDelta = new HashMap<>();
+    for (Map.Entry<String, JsonNode> peer : cur.path("rpc").properties()) {
+      JsonNode before = old.path("rpc").path(peer.getKey());
+      rpcDelta.put(peer.getKey(), new double[] {
+          peer.getValue().path("calls").asDouble() - before.path("calls").asDouble(),
+          peer.getValue().path("totalMs").asDouble() - before.path("totalMs").asDouble()});
+    }
+
+    rates.put(node, new Rates(
+        (cur.path("roundsCommitted").asDouble() - old.path("roundsCommitted").asDouble())
+            / seconds,
+        cur.path("roundP50Ms").asDouble(),
+        cur.path("roundP95Ms").asDouble(),
+        cur.path("roundP99Ms").asDouble(),
+        cur.path("leaderChanges").asLong(),
+        rpcDelta));
+  }
+
+  /**
+   * Usuwa dane węzła, który przestał odpowiadać, aby nie zawyżał wykresów starymi wartościami.
+   *
+   * @param node adres węzła
+   */
+  void remove(String node) {
+    previous.remove(node);
+    rates.remove(node);
+  }
+
+  /**
+   * Dodaje do wykresów punkt z bieżącymi danymi wszystkich węzłów. Wywoływana co sekundę w wątku
+   * JavaFX; nie wykonuje żadnych zapytań sieciowych.
+   */
+  void sample() {
+    double t = (System.currentTimeMillis() - startMs) / 1000.0;
+    double commitsPerSec = 0;
+    double latency50 = 0;
+    double latency95 = 0;
+    double latency99 = 0;
+    long changes = 0;
+    Map<String, double[]> rpcTotal = new TreeMap<>();
+
+    for (Rates r : rates.values()) {
+      commitsPerSec += r.commitsPerSec();
+      if (r.commitsPerSec() > 0) {
+        latency50 = Math.max(latency50, r.p50());
+        latency95 = Math.max(latency95, r.p95());
+        latency99 = Math.max(latency99, r.p99());
+      }
+      changes = Math.max(changes, r.leaderChanges());
+      r.rpc().forEach((peer, d) -> rpcTotal.merge(peer, d.clone(),
+          (a, b) -> new double[] {a[0] + b[0], a[1] + b[1]}));
+    }
+
+    add(commits, t, commitsPerSec);
+    add(p50, t, latency50);
+    add(p95, t, latency95);
+    add(p99, t, latency99);
+    add(leaderChanges, t, changes);
+    rpcTotal.forEach((peer, d) -> {
+      if (d[0] > 0) {
+        add(rpc.computeIfAbsent(peer, this::rpcSeries), t, d[1] / d[0]);
+      }
+    });
+  }
+
+  private XYChart.Series<Number, Number> rpcSeries(String peer) {
+    XYChart.Series<Number, Number> s = series(peer);
+    rpcChart.getData().add(s);
+    return s;
+  }
+
+  private static void add(XYChart.Series<Number, Number> series, double t, double value) {
+    series.getData().add(new XYChart.Data<>(t, value));
+    if (series.getData().size() > WINDOW) {
+      series.getData().remove(0);
+    }
+  }
+
+  private static XYChart.Series<Number, Number> series(String name) {
+    XYChart.Series<Number, Number> s = new XYChart.Series<>();
+    s.setName(name);
+    return s;
+  }
+
+  private static LineChart<Number, Number> chart(String title) {
+    NumberAxis time = new NumberAxis();
+    time.setLabel("t [s]");
+    time.setForceZeroInRange(false);
+    LineChart<Number, Number> chart = new LineChart<>(time, new NumberAxis());
+    chart.setTitle(title);
+    chart.setAnimated(false);
+    chart.setCreateSymbols(false);
+    return chart;
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.paxosgui;
+
+import java.net.URI;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * Stan jednego węzła wyświetlany w panelu. Panel jest tworzony dopiero, gdy węzeł pojawi się na
+ * ekranie, i wiąże swoje etykiety z właściwościami węzła, więc zdarzenia mogą aktualizować stan
+ * także wtedy, gdy panel nie istnieje. Właściwości są zmieniane wyłącznie w wątku JavaFX.
+ */
+final class ClusterNode {
+
+  static final String NORMAL = "-fx-text-fill: black; -fx-font-weight: bold;";
+  static final String LEADER = "-fx-text-fill: green; -fx-font-weight: bold;";
+  static final String FAILED = "-fx-text-fill: red; -fx-font-weight: bold;";
+
+  private final String url;
+  private final String name;
+  private final int port;
+  private final StringProperty state = new SimpleStringProperty("STATE: ?");
+  private final StringProperty stateStyle = new SimpleStringProperty(NORMAL);
+  private final StringProperty status = new SimpleStringProperty("");
+
+  /**
+   * Tworzy węzeł.
+   *
+   * @param url adres węzła w postaci http://host:port
+   */
+  ClusterNode(String url) {
+    this.url = url;
+    this.name = nameOf(url);
+    this.port = portOf(url);
+  }
+
+  String url() {
+    return url;
+  }
+
+  String name() {
+    return name;
+  }
+
+  int port() {
+    return port;
+  }
+
+  StringProperty state() {
+    return state;
+  }
+
+  StringProperty stateStyle() {
+    return stateStyle;
+  }
+
+  StringProperty status() {
+    return status;
+  }
+
+  /**
+   * Ustawia stan węzła i jego kolor.
+   *
+   * @param text  tekst stanu
+   * @param style styl etykiety: {@link #NORMAL}, {@link #LEADER} albo {@link #FAILED}
+   */
+  void show(String text, String style) {
+    state.set(text);
+    stateStyle.set(style);
+  }
+
+  private static String nameOf(String url) {
+    try {
+      URI uri = URI.create(url);
+      return uri.getHost() != null ? uri.getHost() + ":" + uri.getPort() : url;
+    } catch (IllegalArgumentException e) {
+      return url;
+    }
+  }
+
+  private static int portOf(String url) {
+    try {
+      return URI.create(url).getPort();
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
+}
@@ -1,27 +1,73 @@
 package com.example.paxosgui;
 
-import java.util.Scanner;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
-import javafx.scene.layout.GridPane;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 /**
  * Aplikacja do wizualizacji i sterowania Paxos. Każdy węzeł Paxos prezentowany jest jako osobny
- * panel w jednym oknie. Aplikacja komunikuje się z backendem poprzez żądania HTTP.
+ * panel w jednym oknie. Skład klastra ustala {@link Topology}, a panele są ułożone w wierszach
+ * wirtualizowanej listy, więc nawet przy kilkudziesięciu węzłach tworzone i rysowane są tylko
+ * panele widoczne na ekranie.
+ *
+ * <p>Aplikacja komunikuje się z backendem poprzez asynchroniczne żądania HTTP, a wyniki trafiają
+ * do kontrolek przez Platform.runLater, więc wątek JavaFX nigdy nie czeka na sieć. Stan węzłów
+ * nie jest odpytywany cyklicznie: aplikacja raz subskrybuje strumień zdarzeń /events każdego
+ * węzła i odświeża panel dopiero po zmianie. Pod panelami rysowane są wykresy metryk klastra
+ * ({@link ClusterCharts}), a nad nimi można uruchomić scenariusz eksperymentu
+ * ({@link Scenario}).
  */
 public class HelloApplication extends Application {
 
-  private static final String LOCALHOST = "http://localhost:";
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final long RECONNECT_MS = 2000;
+  private static final int COLUMNS = 4;
+
+  private final HttpClient http = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofMillis(500))
+      .build();
+  private final ObservableList<List<ClusterNode>> rows = FXCollections.observableArrayList();
+  private volatile List<ClusterNode> nodes = List.of();
+  private volatile int leaderPort = -1;
+  private ScenarioRunner scenario;
+  private final Map<ClusterNode, VBox> panes = new HashMap<>();
+  private final ClusterCharts charts = new ClusterCharts();
 
   /**
    * Punkt wejścia aplikacji JavaFX.
@@ -40,45 +86,90 @@ public class HelloApplication extends Application {
   @Override
   public void start(Stage primaryStage) {
 
-    GridPane grid = new GridPane();
-    grid.setHgap(15);
-    grid.setVgap(15);
-    grid.setStyle("-fx-padding: 15;");
+    ListView<List<ClusterNode>> list = new ListView<>(rows);
+    list.setCellFactory(view -> new NodeRowCell());
+    list.setStyle("-fx-padding: 15;");
 
-    int index = 0;
-    for (int port = 8000; port <= 8007; port++) {
-      VBox nodePane = createNodePane(port);
+    Timeline timeline = new Timeline(
+        new KeyFrame(javafx.util.Duration.seconds(1), e -> charts.sample())
+    );
+    timeline.setCycleCount(Animation.INDEFINITE);
+    timeline.play();
 
-      int col = index % 4;
-      int row = index / 4;
-      grid.add(nodePane, col, row);
+    BorderPane root = new BorderPane(list);
+    root.setTop(createScenarioPane());
+    root.setBottom(charts.view());
 
-      index++;
-    }
-
-    Scene scene = new Scene(grid, 1800, 900);
+    Scene scene = new Scene(root, 1800, 1000);
     primaryStage.setTitle("Paxos Cluster");
     primaryStage.setScene(scene);
     primaryStage.show();
+
+    Topology.resolve(getParameters().getNamed(), http)
+        .thenAccept(urls -> Platform.runLater(() -> {
+          showTopology(urls);
+          primaryStage.setTitle("Paxos Cluster (" + urls.size() + ")");
+        }));
+  }
+
+  /**
+   * Układa węzły w wiersze po {@link #COLUMNS} paneli i subskrybuje strumień zdarzeń każdego z
+   * nich.
+   *
+   * @param urls adresy węzłów
+   */
+  private void showTopology(List<String> urls) {
+    List<List<ClusterNode>> grouped = new ArrayList<>();
+    for (int i = 0; i < urls.size(); i += COLUMNS) {
+      grouped.add(urls.subList(i, Math.min(i + COLUMNS, urls.size())).stream()
+          .map(ClusterNode::new)
+          .toList());
+    }
+    rows.setAll(grouped);
+    nodes = grouped.stream().flatMap(List::stream).toList();
+    nodes.forEach(node -> Thread.startVirtualThread(() -> streamEvents(node)));
+  }
+
+  /**
+   * Wiersz listy z panelami węzłów. Panel węzła jest tworzony przy pierwszym wyświetleniu i
+   * zapamiętywany, więc wpisane wartości nie giną przy przewijaniu.
+   */
+  private final class NodeRowCell extends ListCell<List<ClusterNode>> {
+
+    @Override
+    protected void updateItem(List<ClusterNode> row, boolean empty) {
+      super.updateItem(row, empty);
+      if (empty || row == null) {
+        setGraphic(null);
+        return;
+      }
+      HBox box = new HBox(15);
+      for (ClusterNode node : row) {
+        box.getChildren().add(panes.computeIfAbsent(node, HelloApplication.this::createNodePane));
+      }
+      setGraphic(box);
+    }
   }
 
   /**
    * Tworzy panel graficzny reprezentujący pojedynczy węzeł Paxos.
    *
-   * @param port HTTP węzła Paxos
+   * @param node węzeł Paxos
    * @return VBox zawierający kontrolki i stan węzła
    */
 
-  private VBox createNodePane(int port) {
+  private VBox createNodePane(ClusterNode node) {
 
-    Label title = new Label("Paxos Node " + port);
+    Label title = new Label("Paxos Node " + node.name());
     title.setStyle("-fx-font-weight: bold; -fx-font-size: 14;");
 
-    Label stateLabel = new Label("STATE: ?");
-    stateLabel.setStyle("-fx-font-weight: bold;");
+    Label stateLabel = new Label();
+    stateLabel.textProperty().bind(node.state());
+    stateLabel.styleProperty().bind(node.stateStyle());
 
-    Label statusLabel = new Label("");
+    Label statusLabel = new Label();
     statusLabel.setStyle("-fx-text-fill: blue;");
+    statusLabel.textProperty().bind(node.status());
 
     TextField valueInput = new TextField();
     valueInput.setPromptText("client propose value (>=0)");
@@ -87,27 +178,25 @@ public class HelloApplication extends Application {
     Button proposeBtn = new Button("PROPOSE");
     proposeBtn.setOnAction(e -> {
       if (valueInput.getText().isBlank()) {
-        statusLabel.setText("Value required (>=0)");
+        node.status().set("Value required (>=0)");
         return;
       }
-      statusLabel.setText(
-          post(LOCALHOST + port + "/client_propose?value=" + valueInput.getText())
-      );
+      post(node, node.url() + "/client_propose?value=" + valueInput.getText());
     });
 
     Button crashBtn = new Button("CRASH");
     crashBtn.setOnAction(e ->
-        statusLabel.setText(post(LOCALHOST + port + "/crash"))
+        post(node, node.url() + "/crash")
     );
 
     Button clearBtn = new Button("CLEAR");
     clearBtn.setOnAction(e ->
-        statusLabel.setText(post(LOCALHOST + port + "/clear"))
+        post(node, node.url() + "/clear")
     );
 
     Button clearAllBtn = new Button("CLEAR ALL");
     clearAllBtn.setOnAction(e ->
-        statusLabel.setText(post(LOCALHOST + port + "/clearall"))
+        post(node, node.url() + "/clearall")
     );
 
     TextField stuckMsgInput = new TextField();
@@ -116,12 +205,13 @@ public class HelloApplication extends Application {
     Button stuckBtn = new Button("STUCK");
     stuckBtn.setOnAction(e -> {
       String msg = stuckMsgInput.getText().isBlank() ? "STUCK" : stuckMsgInput.getText();
-      statusLabel.setText(post(LOCALHOST + port + "/stuck?msg=" + msg));
+      post(node,
+          node.url() + "/stuck?msg=" + URLEncoder.encode(msg, StandardCharsets.UTF_8));
     });
 
     Button unstuckBtn = new Button("UNSTUCK");
     unstuckBtn.setOnAction(e ->
-        statusLabel.setText(post(LOCALHOST + port + "/unstuck"))
+        post(node, node.url() + "/unstuck")
     );
 
     TextField promisedInput = new TextField();
@@ -138,14 +228,14 @@ public class HelloApplication extends Application {
 
     Button injectBtn = new Button("INJECT");
     injectBtn.setOnAction(e -> {
-      StringBuilder url = new StringBuilder(LOCALHOST + port + "/inject");
+      StringBuilder url = new StringBuilder(node.url() + "/inject");
 
       boolean first = true;
       first = appendParam(url, "promised", promisedInput.getText(), first);
       first = appendParam(url, "acceptedProposal", acceptedProposalInput.getText(), first);
       appendParam(url, "acceptedValue", acceptedValueInput.getText(), first);
 
-      statusLabel.setText(post(url.toString()));
+      post(node, url.toString());
     });
 
     VBox root = new VBox(8,
@@ -170,24 +260,170 @@ public class HelloApplication extends Application {
                 -fx-background-color: #f5f5f5;
         """);
 
-    Timeline timeline = new Timeline(
-        new KeyFrame(Duration.seconds(1), e -> {
-          String state = post(LOCALHOST + port + "/accepted_state");
-          stateLabel.setText(state);
-
-          if (!state.startsWith("STATE")) {
-            stateLabel.setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
-          } else if (isLeader(port)) {
-            stateLabel.setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
-          } else {
-            stateLabel.setStyle("-fx-text-fill: black; -fx-font-weight: bold;");
+    return root;
+  }
+
+  /**
+   * Tworzy zwijany panel scenariusza: skrypt, wczytanie z pliku, uruchomienie, zatrzymanie i log
+   * przebiegu.
+   *
+   * @return panel scenariusza
+   */
+  private TitledPane createScenarioPane() {
+    TextArea script = new TextArea("""
+        # czas akcja argumenty - patrz opis klasy Scenario
+        0s   load 500 30s
+        10s  crash leader
+        20s  stuck 3 awaria dysku
+        25s  unstuck 3
+        """);
+    script.setPrefRowCount(6);
+
+    TextArea output = new TextArea();
+    output.setEditable(false);
+    output.setPrefRowCount(6);
+
+    Button loadBtn = new Button("WCZYTAJ");
+    loadBtn.setOnAction(e -> {
+      File file = new FileChooser().showOpenDialog(loadBtn.getScene().getWindow());
+      if (file != null) {
+        try {
+          script.setText(Files.readString(file.toPath()));
+        } catch (IOException ex) {
+          output.appendText("Nie udało się wczytać pliku: " + ex.getMessage() + "\n");
+        }
+      }
+    });
+
+    Button runBtn = new Button("URUCHOM");
+    Button stopBtn = new Button("ZATRZYMAJ");
+    stopBtn.setDisable(true);
+
+    runBtn.setOnAction(e -> {
+      Scenario parsed;
+      try {
+        parsed = Scenario.parse(script.getText());
+      } catch (IllegalArgumentException ex) {
+        output.appendText(ex.getMessage() + "\n");
+        return;
+      }
+      output.clear();
+      runBtn.setDisable(true);
+      stopBtn.setDisable(false);
+      scenario = new ScenarioRunner(http, nodes, this::leader,
+          line -> Platform.runLater(() -> output.appendText(line + "\n")));
+      scenario.run(parsed).whenComplete((file, ex) -> Platform.runLater(() -> {
+        runBtn.setDisable(false);
+        stopBtn.setDisable(true);
+      }));
+    });
+    stopBtn.setOnAction(e -> scenario.stop());
+
+    HBox box = new HBox(10, script, new VBox(5, loadBtn, runBtn, stopBtn), output);
+    HBox.setHgrow(script, Priority.ALWAYS);
+    HBox.setHgrow(output, Priority.ALWAYS);
+
+    TitledPane pane = new TitledPane("Scenariusz", box);
+    pane.setExpanded(false);
+    return pane;
+  }
+
+  /**
+   * Zwraca węzeł, który ostatnio zgłosił się jako lider albo którego wskazały inne węzły.
+   *
+   * @return węzeł lidera albo pierwszy węzeł, jeśli lider nie jest znany
+   */
+  private ClusterNode leader() {
+    List<ClusterNode> known = nodes;
+    int port = leaderPort;
+    return known.stream()
+        .filter(n -> n.port() == port)
+        .findFirst()
+        .orElse(known.isEmpty() ? null : known.get(0));
+  }
+
+  /**
+   * Subskrybuje strumień zdarzeń /events węzła i aktualizuje jego etykietę po każdym zdarzeniu.
+   * Pierwsze zdarzenie (SNAPSHOT) niesie bieżący stan węzła. Po zerwaniu połączenia węzeł jest
+   * oznaczany jako OFFLINE, a subskrypcja jest ponawiana co {@link #RECONNECT_MS} ms. Metoda
+   * działa w osobnym wątku i nie wraca.
+   *
+   * @param node węzeł Paxos
+   */
+  private void streamEvents(ClusterNode node) {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(node.url() + "/events"))
+        .header("Accept", "text/event-stream")
+        .GET()
+        .build();
+
+    while (true) {
+      try {
+        HttpResponse<Stream<String>> resp = http.send(request,
+            HttpResponse.BodyHandlers.ofLines());
+        if (resp.statusCode() == 200) {
+          try (Stream<String> lines = resp.body()) {
+            lines.filter(line -> line.startsWith("data:"))
+                .forEach(line -> showEvent(node, line.substring("data:".length())));
           }
-        })
-    );
-    timeline.setCycleCount(Animation.INDEFINITE);
-    timeline.play();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        // węzeł nie odpowiada albo zerwał połączenie - ponawiamy subskrypcję
+      }
 
-    return root;
+      charts.remove(node.url());
+      Platform.runLater(() -> node.show("OFFLINE", ClusterNode.FAILED));
+      try {
+        Thread.sleep(RECONNECT_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Ustawia stan i kolor węzła na podstawie zdarzenia ze strumienia /events. Zdarzenie
+   * niesie stan węzła po zmianie, więc panel nie wymaga dodatkowego zapytania. Zdarzenia
+   * METRICS trafiają do wykresów. Panel pokazuje grupę 0, do której wysyła propozycje, więc
+   * zdarzenia pozostałych grup są pomijane.
+   *
+   * @param node węzeł, z którego pochodzi zdarzenie
+   * @param data dane zdarzenia w formacie JSON
+   */
+  private void showEvent(ClusterNode node, String data) {
+    JsonNode event;
+    try {
+      event = JSON.readTree(data);
+    } catch (Exception e) {
+      return;
+    }
+    String type = event.path("type").asText();
+    if ("METRICS".equals(type)) {
+      charts.update(node.url(), event);
+      return;
+    }
+    if (event.path("group").asInt() != 0) {
+      return;
+    }
+    String state = event.path("state").asText();
+    boolean stuck = event.path("stuck").asBoolean();
+    boolean leader = event.path("leaderPort").asInt() == event.path("node").asInt();
+    if (!stuck && event.path("leaderPort").asInt() > 0) {
+      leaderPort = event.path("leaderPort").asInt();
+    }
+
+    Platform.runLater(() -> {
+      if ("CRASH".equals(type)) {
+        node.show("OFFLINE", ClusterNode.FAILED);
+      } else if (stuck) {
+        node.show(state, ClusterNode.FAILED);
+      } else {
+        node.show(state, leader ? ClusterNode.LEADER : ClusterNode.NORMAL);
+      }
+    });
   }
 
   /**
@@ -226,41 +462,35 @@ public class HelloApplication extends Application {
   }
 
   /**
-   * Sprawdza, czy dany węzeł jest aktualnym liderem.
+   * Wysyła żądanie HTTP POST i po nadejściu odpowiedzi wpisuje ją jako komunikat węzła w wątku
+   * JavaFX. Wątek interfejsu nie czeka na odpowiedź, więc niedostępne węzły nie blokują okna.
    *
-   * @param port port węzła
-   * @return true jeśli węzeł jest liderem
+   * @param target węzeł, którego panel pokaże odpowiedź
+   * @param urlStr adres URL
    */
-  private boolean isLeader(int port) {
-    String resp = post(LOCALHOST + port + "/leader");
-    try {
-      return Integer.parseInt(resp.trim()) == port;
-    } catch (Exception e) {
-      return false;
-    }
+  private void post(ClusterNode target, String urlStr) {
+    post(urlStr).thenAccept(resp -> Platform.runLater(() -> target.status().set(resp)));
   }
 
   /**
-   * Wysyła żądanie HTTP POST pod wskazany adres.
+   * Wysyła asynchroniczne żądanie HTTP POST pod wskazany adres.
    *
    * @param urlStr adres URL
-   * @return treść odpowiedzi lub "OFFLINE" w przypadku błędu
+   * @return future z treścią odpowiedzi lub "OFFLINE" w przypadku błędu
    */
-  private String post(String urlStr) {
+  private CompletableFuture<String> post(String urlStr) {
+    HttpRequest request;
     try {
-      var uri = java.net.URI.create(urlStr);
-      var conn = (java.net.HttpURLConnection) uri.toURL().openConnection();
-
-      conn.setRequestMethod("POST");
-      conn.setConnectTimeout(500);
-      conn.setReadTimeout(500);
-      conn.setDoOutput(true);
-
-      try (var in = new Scanner(conn.getInputStream())) {
-        return in.useDelimiter("\\A").next();
-      }
-    } catch (Exception e) {
-      return "OFFLINE";
+      request = HttpRequest.newBuilder(URI.create(urlStr))
+          .timeout(Duration.ofMillis(500))
+          .POST(HttpRequest.BodyPublishers.noBody())
+          .build();
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.completedFuture("OFFLINE");
     }
+
+    return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(resp -> resp.statusCode() < 400 ? resp.body() : "OFFLINE")
+        .exceptionally(e -> "OFFLINE");
   }
 }
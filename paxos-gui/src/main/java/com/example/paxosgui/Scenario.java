@@ -0,0 +1,155 @@
+package com.example.paxosgui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scenariusz eksperymentu: lista kroków wykonywanych w zadanych chwilach od startu. Każda linia
+ * skryptu ma postać {@code <czas> <akcja> [argumenty]}, a {@code #} rozpoczyna komentarz. Czas i
+ * długość podaje się jako liczbę z jednostką ms, s albo m. Akcje:
+ * <ul>
+ *   <li>{@code load <propozycji/s> <czas trwania>} – stałe obciążenie propozycjami klientów,</li>
+ *   <li>{@code propose <węzeł> <wartość>} – pojedyncza propozycja,</li>
+ *   <li>{@code crash <węzeł>}, {@code clear <węzeł>}, {@code unstuck <węzeł>},</li>
+ *   <li>{@code stuck <węzeł> [komunikat]}.</li>
+ * </ul>
+ * Węzeł to {@code leader}, numer węzła w kolejności topologii (od 0) albo {@code host:port}.
+ * Przykład:
+ * <pre>
+ * 0s   load 5000 30s
+ * 10s  crash leader
+ * 20s  stuck 3 awaria dysku
+ * 25s  unstuck 3
+ * </pre>
+ *
+ * @param steps kroki posortowane według czasu
+ */
+record Scenario(List<Step> steps) {
+
+  private static final Set<String> TARGET_ACTIONS = Set.of("crash", "clear", "stuck", "unstuck");
+
+  /**
+   * Pojedynczy krok scenariusza.
+   *
+   * @param atMs   chwila wykonania w milisekundach od startu
+   * @param action nazwa akcji
+   * @param args   argumenty akcji
+   */
+  record Step(long atMs, String action, List<String> args) {
+
+    /**
+     * Zwraca chwilę zakończenia kroku: dla obciążenia koniec okresu, dla pozostałych akcji chwilę
+     * wykonania.
+     *
+     * @return chwila w milisekundach od startu
+     */
+    long endMs() {
+      return "load".equals(action) ? atMs + duration(args.get(1)) : atMs;
+    }
+
+    @Override
+    public String toString() {
+      return action + (args.isEmpty() ? "" : " " + String.join(" ", args));
+    }
+  }
+
+  /**
+   * Parsuje skrypt scenariusza.
+   *
+   * @param script treść skryptu
+   * @return scenariusz
+   * @throws IllegalArgumentException gdy linia jest niepoprawna; komunikat zawiera numer linii
+   */
+  static Scenario parse(String script) {
+    List<Step> steps = new ArrayList<>();
+    String[] lines = script.split("\\R");
+    for (int i = 0; i < lines.length; i++) {
+      String line = lines[i];
+      int comment = line.indexOf('#');
+      if (comment >= 0) {
+        line = line.substring(0, comment);
+      }
+      line = line.trim();
+      if (line.isEmpty()) {
+        continue;
+      }
+      try {
+        steps.add(step(line.split("\\s+")));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Linia " + (i + 1) + ": " + e.getMessage(), e);
+      }
+    }
+    if (steps.isEmpty()) {
+      throw new IllegalArgumentException("Scenariusz nie zawiera kroków");
+    }
+    steps.sort(Comparator.comparingLong(Step::atMs));
+    return new Scenario(List.copyOf(steps));
+  }
+
+  /**
+   * Zwraca chwilę zakończenia ostatniego kroku.
+   *
+   * @return chwila w milisekundach od startu
+   */
+  long endMs() {
+    return steps.stream().mapToLong(Step::endMs).max().orElse(0);
+  }
+
+  /**
+   * Zamienia czas z jednostką (ms, s, m) na milisekundy. Liczba bez jednostki oznacza sekundy.
+   *
+   * @param text czas, np. 500ms, 10s, 2m
+   * @return liczba milisekund
+   */
+  static long duration(String text) {
+    try {
+      if (text.endsWith("ms")) {
+        return Long.parseLong(text.substring(0, text.length() - 2));
+      }
+      if (text.endsWith("m")) {
+        return Long.parseLong(text.substring(0, text.length() - 1)) * 60_000;
+      }
+      String seconds = text.endsWith("s") ? text.substring(0, text.length() - 1) : text;
+      return Math.round(Double.parseDouble(seconds) * 1000);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("niepoprawny czas: " + text);
+    }
+  }
+
+  private static Step step(String[] tokens) {
+    if (tokens.length < 2) {
+      throw new IllegalArgumentException("oczekiwano <czas> <akcja>");
+    }
+    long at = duration(tokens[0]);
+    String action = tokens[1].toLowerCase();
+    List<String> args = Arrays.asList(tokens).subList(2, tokens.length);
+
+    if ("load".equals(action)) {
+      if (args.size() != 2) {
+        throw new IllegalArgumentException("load <propozycji/s> <czas trwania>");
+      }
+      try {
+        if (Integer.parseInt(args.get(0)) <= 0) {
+          throw new IllegalArgumentException("liczba propozycji na sekundę musi być dodatnia");
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("niepoprawna liczba propozycji: " + args.get(0));
+      }
+      duration(args.get(1));
+    } else if ("propose".equals(action)) {
+      if (args.size() != 2 || !args.get(1).matches("\\d+")) {
+        throw new IllegalArgumentException("propose <węzeł> <wartość >= 0>");
+      }
+    } else if (TARGET_ACTIONS.contains(action)) {
+      if (args.isEmpty() || (!"stuck".equals(action) && args.size() != 1)) {
+        throw new IllegalArgumentException(action + " <węzeł>");
+      }
+    } else {
+      throw new IllegalArgumentException("nieznana akcja: " + tokens[1]);
+    }
+    return new Step(at, action, List.copyOf(args));
+  }
+}
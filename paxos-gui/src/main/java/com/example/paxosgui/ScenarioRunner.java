@@ -0,0 +1,290 @@
+package com.example.paxosgui;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Wykonuje {@link Scenario} na klastrze i co sekundę zapisuje przepustowość i opóźnienia
+ * propozycji. Obciążenie jest generowane w pętli otwartej: propozycje są wysyłane w stałym tempie
+ * niezależnie od odpowiedzi, a po osiągnięciu limitu równoległych żądań kolejne są pomijane i
+ * zliczane jako odrzucone. Dzięki temu przerwa w działaniu lidera jest widoczna w wynikach jako
+ * spadek zatwierdzeń i wzrost opóźnień, a nie jako spowolnienie generatora.
+ *
+ * <p>Wyniki trafiają do pliku CSV w katalogu roboczym, z kolumną kroków wykonanych w danej
+ * sekundzie, co pozwala odczytać koszt przełączenia lidera.
+ */
+final class ScenarioRunner {
+
+  private static final long TICK_MS = 10;
+  private static final long DRAIN_MS = 2000;
+  private static final int MAX_IN_FLIGHT = 1024;
+  private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+  /**
+   * Wyniki jednej sekundy scenariusza.
+   *
+   * @param second    sekunda od startu
+   * @param sent      wysłane propozycje
+   * @param committed propozycje zatwierdzone
+   * @param failed    propozycje zakończone błędem lub odpowiedzią inną niż COMMITTED
+   * @param dropped   propozycje pominięte z powodu limitu równoległych żądań
+   * @param p50Ms     mediana opóźnienia zatwierdzonych propozycji
+   * @param p99Ms     99. percentyl opóźnienia zatwierdzonych propozycji
+   * @param maxMs     maksymalne opóźnienie zatwierdzonej propozycji
+   * @param steps     kroki wykonane w tej sekundzie
+   */
+  record Sample(long second, long sent, long committed, long failed, long dropped,
+                double p50Ms, double p99Ms, double maxMs, String steps) {
+  }
+
+  private final HttpClient http;
+  private final List<ClusterNode> nodes;
+  private final Supplier<ClusterNode> leader;
+  private final Consumer<String> log;
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      r -> {
+        Thread t = new Thread(r, "scenario");
+        t.setDaemon(true);
+        return t;
+      });
+  private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<String> executed = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger nextValue = new AtomicInteger();
+  private final List<Sample> samples = new ArrayList<>();
+  private final CompletableFuture<Path> result = new CompletableFuture<>();
+  private long startNanos;
+
+  /**
+   * Tworzy wykonawcę scenariusza.
+   *
+   * @param http   klient HTTP
+   * @param nodes  węzły klastra w kolejności topologii
+   * @param leader zwraca węzeł uważany obecnie za lidera
+   * @param log    odbiorca komunikatów o postępie, wywoływany z wątku scenariusza
+   */
+  ScenarioRunner(HttpClient http, List<ClusterNode> nodes, Supplier<ClusterNode> leader,
+      Consumer<String> log) {
+    this.http = http;
+    this.nodes = List.copyOf(nodes);
+    this.leader = leader;
+    this.log = log;
+  }
+
+  /**
+   * Uruchamia scenariusz.
+   *
+   * @param scenario scenariusz
+   * @return future ze ścieżką pliku wyników, kończony po ostatnim kroku i czasie na dokończenie
+   *     żądań albo po {@link #stop()}
+   */
+  CompletableFuture<Path> run(Scenario scenario) {
+    startNanos = System.nanoTime();
+    for (Scenario.Step step : scenario.steps()) {
+      scheduler.schedule(() -> execute(step), step.atMs(), TimeUnit.MILLISECONDS);
+    }
+    scheduler.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
+    scheduler.schedule(this::finish, scenario.endMs() + DRAIN_MS, TimeUnit.MILLISECONDS);
+    log.accept("Start scenariusza: " + scenario.steps().size() + " kroków, "
+        + (scenario.endMs() / 1000) + " s");
+    return result;
+  }
+
+  /**
+   * Przerywa scenariusz i zapisuje dotychczasowe wyniki.
+   */
+  void stop() {
+    if (!scheduler.isShutdown()) {
+      scheduler.execute(this::finish);
+    }
+  }
+
+  private void execute(Scenario.Step step) {
+    executed.add(step.toString());
+    log.accept(String.format(Locale.ROOT, "[%.1f s] %s", elapsedMs() / 1000.0, step));
+    List<String> args = step.args();
+    switch (step.action()) {
+      case "load" -> startLoad(Integer.parseInt(args.get(0)), Scenario.duration(args.get(1)));
+      case "propose" ->
+          command(args.get(0), "/client_propose?value=" + args.get(1) + "&wait=true");
+      case "crash" -> command(args.get(0), "/crash");
+      case "clear" -> command(args.get(0), "/clear");
+      case "unstuck" -> command(args.get(0), "/unstuck");
+      case "stuck" -> command(args.get(0), "/stuck?msg=" + URLEncoder.encode(
+          args.size() > 1 ? String.join(" ", args.subList(1, args.size())) : "STUCK",
+          StandardCharsets.UTF_8));
+      default -> log.accept("Nieznana akcja: " + step.action());
+    }
+  }
+
+  /**
+   * Wysyła propozycje do lidera w stałym tempie. Co {@link #TICK_MS} ms wysyłana jest część
+   * propozycji przypadająca na ten okres; ułamki przechodzą na kolejne okresy.
+   */
+  private void startLoad(int perSecond, long durationMs) {
+    long end = elapsedMs() + durationMs;
+    double perTick = perSecond * TICK_MS / 1000.0;
+    double[] credit = {0};
+    ScheduledFuture<?>[] task = new ScheduledFuture<?>[1];
+    task[0] = scheduler.scheduleAtFixedRate(() -> {
+      if (elapsedMs() >= end || result.isDone()) {
+        task[0].cancel(false);
+        return;
+      }
+      credit[0] += perTick;
+      ClusterNode target = leader.get();
+      for (; credit[0] >= 1; credit[0]--) {
+        propose(target);
+      }
+    }, 0, TICK_MS, TimeUnit.MILLISECONDS);
+  }
+
+  private void propose(ClusterNode target) {
+    if (target == null || !inFlight.tryAcquire()) {
+      dropped.increment();
+      return;
+    }
+    sent.increment();
+    long start = System.nanoTime();
+    send(target.url() + "/client_propose?value=" + nextValue.getAndIncrement() + "&wait=true")
+        .whenComplete((resp, e) -> {
+          inFlight.release();
+          if (resp != null && resp.startsWith("COMMITTED")) {
+            latencies.add(System.nanoTime() - start);
+          } else {
+            failed.increment();
+          }
+        });
+  }
+
+  private void command(String target, String path) {
+    ClusterNode node = resolve(target);
+    if (node == null) {
+      log.accept("Nieznany węzeł: " + target);
+      return;
+    }
+    send(node.url() + path).thenAccept(resp -> log.accept("  " + node.name() + ": " + resp));
+  }
+
+  private ClusterNode resolve(String target) {
+    if ("leader".equalsIgnoreCase(target)) {
+      return leader.get();
+    }
+    if (target.matches("\\d+")) {
+      int index = Integer.parseInt(target);
+      return index < nodes.size() ? nodes.get(index) : null;
+    }
+    return nodes.stream().filter(n -> n.name().equals(target)).findFirst().orElse(null);
+  }
+
+  private CompletableFuture<String> send(String url) {
+    HttpRequest request;
+    try {
+      request = HttpRequest.newBuilder(URI.create(url))
+          .timeout(Duration.ofSeconds(5))
+          .POST(HttpRequest.BodyPublishers.noBody())
+          .build();
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.completedFuture("OFFLINE");
+    }
+    return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(HttpResponse::body)
+        .exceptionally(e -> "OFFLINE");
+  }
+
+  /**
+   * Zamyka bieżącą sekundę: zbiera liczniki i opóźnienia zakończonych propozycji.
+   */
+  private void sample() {
+    List<Long> done = new ArrayList<>();
+    Long latency;
+    while ((latency = latencies.poll()) != null) {
+      done.add(latency);
+    }
+    long[] sorted = done.stream().mapToLong(Long::longValue).sorted().toArray();
+
+    List<String> steps = new ArrayList<>();
+    String step;
+    while ((step = executed.poll()) != null) {
+      steps.add(step);
+    }
+
+    Sample s = new Sample(samples.size() + 1, sent.sumThenReset(), sorted.length,
+        failed.sumThenReset(), dropped.sumThenReset(), percentile(sorted, 0.50),
+        percentile(sorted, 0.99), percentile(sorted, 1.0), String.join("; ", steps));
+    samples.add(s);
+    log.accept(String.format(Locale.ROOT, "%3d s: wysłane %d, zatwierdzone %d, błędy %d,"
+            + " pominięte %d, p50 %.1f ms, p99 %.1f ms", s.second(), s.sent(), s.committed(),
+        s.failed(), s.dropped(), s.p50Ms(), s.p99Ms()));
+  }
+
+  private void finish() {
+    if (result.isDone()) {
+      return;
+    }
+    sample();
+    scheduler.shutdownNow();
+    try {
+      Path file = write();
+      log.accept("Koniec scenariusza, wyniki: " + file.toAbsolutePath());
+      result.complete(file);
+    } catch (IOException e) {
+      log.accept("Nie udało się zapisać wyników: " + e.getMessage());
+      result.completeExceptionally(e);
+    }
+  }
+
+  private Path write() throws IOException {
+    Path file = Path.of("scenario-" + LocalDateTime.now().format(FILE_TIME) + ".csv");
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+      out.println("second,sent,committed,failed,dropped,p50_ms,p99_ms,max_ms,steps");
+      for (Sample s : samples) {
+        out.printf(Locale.ROOT, "%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,\"%s\"%n", s.second(), s.sent(),
+            s.committed(), s.failed(), s.dropped(), s.p50Ms(), s.p99Ms(), s.maxMs(),
+            s.steps().replace("\"", "\"\""));
+      }
+    }
+    return file;
+  }
+
+  private long elapsedMs() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+
+  private static double percentile(long[] sorted, double p) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(p * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+  }
+}
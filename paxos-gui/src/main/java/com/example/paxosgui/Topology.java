@@ -0,0 +1,137 @@
+package com.example.paxosgui;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Ustala listę węzłów klastra wyświetlanych w aplikacji. Źródła są sprawdzane w kolejności:
+ * <ol>
+ *   <li>parametr {@code --nodes=http://host:port,...},</li>
+ *   <li>klucz {@code nodes} w pliku wskazanym przez {@code --config=ścieżka} albo w pliku
+ *       {@code paxos-gui.properties} w katalogu roboczym,</li>
+ *   <li>endpoint /members węzła podanego w {@code --seed=http://host:port} (domyślnie
+ *       http://localhost:8000),</li>
+ *   <li>domyślny klaster lokalny na portach 8000–8007.</li>
+ * </ol>
+ */
+final class Topology {
+
+  static final String DEFAULT_SEED = "http://localhost:8000";
+  static final String DEFAULT_CONFIG = "paxos-gui.properties";
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private Topology() {
+  }
+
+  /**
+   * Ustala listę węzłów. Zapytanie do węzła startowego jest asynchroniczne, więc metoda nie blokuje
+   * wątku JavaFX.
+   *
+   * @param named parametry aplikacji w postaci --klucz=wartość
+   * @param http  klient HTTP
+   * @return future z adresami węzłów
+   */
+  static CompletableFuture<List<String>> resolve(Map<String, String> named, HttpClient http) {
+    List<String> nodes = parse(named.get("nodes"));
+    if (!nodes.isEmpty()) {
+      return CompletableFuture.completedFuture(nodes);
+    }
+
+    Path config = Path.of(named.getOrDefault("config", DEFAULT_CONFIG));
+    if (Files.isRegularFile(config)) {
+      nodes = parse(load(config).getProperty("nodes"));
+      if (!nodes.isEmpty()) {
+        return CompletableFuture.completedFuture(nodes);
+      }
+    }
+
+    String seed = named.getOrDefault("seed", DEFAULT_SEED);
+    return members(seed, http).thenApply(found -> found.isEmpty() ? localCluster() : found);
+  }
+
+  /**
+   * Pobiera skład klastra z endpointu /members węzła.
+   *
+   * @param seed adres węzła
+   * @param http klient HTTP
+   * @return future z adresami węzłów albo pustą listą, jeśli węzeł nie odpowiedział
+   */
+  static CompletableFuture<List<String>> members(String seed, HttpClient http) {
+    HttpRequest request;
+    try {
+      request = HttpRequest.newBuilder(URI.create(seed + "/members"))
+          .timeout(Duration.ofSeconds(1))
+          .POST(HttpRequest.BodyPublishers.noBody())
+          .build();
+    } catch (IllegalArgumentException e) {
+      return CompletableFuture.completedFuture(List.of());
+    }
+
+    return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(resp -> {
+          List<String> urls = new ArrayList<>();
+          try {
+            for (JsonNode url : JSON.readTree(resp.body())) {
+              urls.add(url.asText());
+            }
+          } catch (IOException e) {
+            return List.<String>of();
+          }
+          return urls;
+        })
+        .exceptionally(e -> List.of());
+  }
+
+  /**
+   * Zwraca domyślny klaster lokalny na portach 8000–8007.
+   *
+   * @return adresy węzłów
+   */
+  static List<String> localCluster() {
+    return IntStream.rangeClosed(8000, 8007).mapToObj(p -> "http://localhost:" + p).toList();
+  }
+
+  /**
+   * Dzieli listę adresów rozdzielonych przecinkami.
+   *
+   * @param value lista adresów lub null
+   * @return adresy bez pustych pozycji i końcowych ukośników
+   */
+  static List<String> parse(String value) {
+    if (value == null) {
+      return List.of();
+    }
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(s -> !s.isEmpty())
+        .map(s -> s.endsWith("/") ? s.substring(0, s.length() - 1) : s)
+        .toList();
+  }
+
+  private static Properties load(Path path) {
+    Properties props = new Properties();
+    try (Reader in = Files.newBufferedReader(path)) {
+      props.load(in);
+    } catch (IOException e) {
+      // nieczytelny plik traktujemy jak brak konfiguracji
+    }
+    return props;
+  }
+}
@@ -1,6 +1,8 @@
 module com.example.paxosgui {
     requires javafx.controls;
     requires javafx.fxml;
+    requires java.net.http;
+    requires com.fasterxml.jackson.databind;
     requires org.junit.jupiter.api;
 
 
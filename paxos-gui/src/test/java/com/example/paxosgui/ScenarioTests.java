@@ -0,0 +1,82 @@
+package com.example.paxosgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScenarioTests {
+
+
+    @Test
+    void testParseSortsStepsAndSkipsComments() {
+        Scenario scenario = Scenario.parse("""
+                # obciążenie przez cały eksperyment
+                0s   load 5000 30s
+
+                20s  stuck 3 awaria dysku
+                10s  CRASH leader   # lider pada
+                25s  unstuck 3
+                500ms propose localhost:8001 7
+                """);
+
+        List<Scenario.Step> steps = scenario.steps();
+        assertEquals(5, steps.size());
+        assertEquals(List.of(0L, 500L, 10_000L, 20_000L, 25_000L),
+                steps.stream().map(Scenario.Step::atMs).toList());
+        assertEquals(new Scenario.Step(0, "load", List.of("5000", "30s")), steps.get(0));
+        assertEquals(new Scenario.Step(10_000, "crash", List.of("leader")), steps.get(2));
+        assertEquals(List.of("3", "awaria", "dysku"), steps.get(3).args());
+        assertEquals("propose localhost:8001 7", steps.get(1).toString());
+        assertEquals(30_000, scenario.endMs());
+    }
+
+
+    @Test
+    void testDurationUnits() {
+        assertEquals(500, Scenario.duration("500ms"));
+        assertEquals(10_000, Scenario.duration("10s"));
+        assertEquals(120_000, Scenario.duration("2m"));
+        assertEquals(1_500, Scenario.duration("1.5s"));
+        assertEquals(7_000, Scenario.duration("7"));
+    }
+
+
+    @Test
+    void testDurationRejectsInvalidText() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Scenario.duration("10h"));
+
+        assertEquals("niepoprawny czas: 10h", e.getMessage());
+    }
+
+
+    @Test
+    void testErrorsContainLineNumber() {
+        assertParseError("0s load 10 5s\n\n5s explode 1", "Linia 3: nieznana akcja: explode");
+        assertParseError("10s", "Linia 1: oczekiwano <czas> <akcja>");
+        assertParseError("# start\nxs crash 1", "Linia 2: niepoprawny czas: xs");
+        assertParseError("0s load 0 5s", "Linia 1: liczba propozycji na sekundę musi być dodatnia");
+        assertParseError("0s load dużo 5s", "Linia 1: niepoprawna liczba propozycji: dużo");
+        assertParseError("0s load 10", "Linia 1: load <propozycji/s> <czas trwania>");
+        assertParseError("0s propose 1 -5", "Linia 1: propose <węzeł> <wartość >= 0>");
+        assertParseError("0s crash 1 2", "Linia 1: crash <węzeł>");
+        assertParseError("0s clear", "Linia 1: clear <węzeł>");
+    }
+
+
+    @Test
+    void testEmptyScriptIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Scenario.parse("# same komentarze\n\n"));
+
+        assertEquals("Scenariusz nie zawiera kroków", e.getMessage());
+    }
+
+    private void assertParseError(String script, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Scenario.parse(script));
+        assertEquals(message, e.getMessage());
+    }
+}
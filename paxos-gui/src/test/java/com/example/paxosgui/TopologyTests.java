@@ -0,0 +1,58 @@
+package com.example.paxosgui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopologyTests {
+
+
+    @Test
+    void testParseTrimsAndSkipsEmptyEntries() {
+        assertEquals(List.of("http://a:8000", "http://b:8001", "http://c:8002"),
+                Topology.parse(" http://a:8000/ , ,http://b:8001,http://c:8002/"));
+    }
+
+
+    @Test
+    void testParseWithoutValue() {
+        assertTrue(Topology.parse(null).isEmpty());
+        assertTrue(Topology.parse(" , ").isEmpty());
+    }
+
+
+    @Test
+    void testLocalCluster() {
+        List<String> nodes = Topology.localCluster();
+
+        assertEquals(8, nodes.size());
+        assertEquals("http://localhost:8000", nodes.get(0));
+        assertEquals("http://localhost:8007", nodes.get(7));
+    }
+
+
+    @Test
+    void testResolveUsesNodesParameter() {
+        List<String> nodes = Topology.resolve(
+                Map.of("nodes", "http://a:8000,http://b:8001/"), null).join();
+
+        assertEquals(List.of("http://a:8000", "http://b:8001"), nodes);
+    }
+
+
+    @Test
+    void testResolveReadsConfigFile(@TempDir Path dir) throws Exception {
+        Path config = dir.resolve("klaster.properties");
+        Files.writeString(config, "nodes=http://x:9000, http://y:9001/\n");
+
+        List<String> nodes = Topology.resolve(Map.of("config", config.toString()), null).join();
+
+        assertEquals(List.of("http://x:9000", "http://y:9001"), nodes);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.paxosloadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parametry generatora obciazenia.
+ *
+ * @param targets       adresy serwerow w postaci http://host:port; pierwszy jest pytany jako
+ *                      pierwszy, dopoki nie poznamy lidera
+ * @param mode          tryb generowania obciazenia
+ * @param rate          docelowa liczba zadan na sekunde; w trybie CLOSED 0 oznacza brak
+ *                      ograniczenia tempa
+ * @param concurrency   liczba klientow w trybie CLOSED
+ * @param duration      czas pomiaru
+ * @param warmup        czas rozgrzewki, ktorej wyniki sa pomijane
+ * @param timeout       timeout pojedynczego zadania HTTP
+ * @param maxInFlight   maksymalna liczba zadan w locie w trybie OPEN
+ * @param waitForCommit czy czekac na zatwierdzenie wartosci (/client_propose?wait=true)
+ */
+public record LoadGenConfig(List<String> targets, Mode mode, int rate, int concurrency,
+                            Duration duration, Duration warmup, Duration timeout,
+                            int maxInFlight, boolean waitForCommit) {
+
+  /**
+   * Tryb generowania obciazenia.
+   */
+  public enum Mode {
+    /**
+     * Zadania sa wysylane w stalym tempie, niezaleznie od czasu odpowiedzi serwera.
+     */
+    OPEN,
+    /**
+     * Staly zbior klientow; kazdy wysyla kolejne zadanie po otrzymaniu odpowiedzi.
+     */
+    CLOSED
+  }
+
+  /**
+   * Sprawdza poprawnosc parametrow.
+   */
+  public LoadGenConfig {
+    targets = List.copyOf(targets);
+    if (targets.isEmpty()) {
+      throw new IllegalArgumentException("Brak adresow serwerow (--targets)");
+    }
+    if (mode == Mode.OPEN && rate <= 0) {
+      throw new IllegalArgumentException("Tryb open wymaga --rate > 0");
+    }
+    if (mode == Mode.CLOSED && concurrency <= 0) {
+      throw new IllegalArgumentException("Tryb closed wymaga --concurrency > 0");
+    }
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("--max-in-flight musi byc > 0");
+    }
+  }
+
+  /**
+   * Odczytuje parametry z linii polecen w postaci --nazwa=wartosc.
+   *
+   * @param args argumenty programu
+   * @return parametry generatora
+   * @throws IllegalArgumentException jesli argument jest nieznany lub niepoprawny
+   */
+  public static LoadGenConfig parse(String... args) {
+    List<String> targets = List.of("http://localhost:8000");
+    Mode mode = Mode.CLOSED;
+    int rate = 0;
+    int concurrency = 8;
+    Duration duration = Duration.ofSeconds(30);
+    Duration warmup = Duration.ofSeconds(5);
+    Duration timeout = Duration.ofSeconds(2);
+    int maxInFlight = 1024;
+    boolean waitForCommit = false;
+
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0) {
+        throw new IllegalArgumentException("Niepoprawny argument: " + arg);
+      }
+      String value = arg.substring(eq + 1);
+
+      switch (arg.substring(2, eq)) {
+        case "targets" -> targets = parseTargets(value);
+        case "mode" -> mode = Mode.valueOf(value.toUpperCase());
+        case "rate" -> rate = Integer.parseInt(value);
+        case "concurrency" -> concurrency = Integer.parseInt(value);
+        case "duration" -> duration = parseDuration(value);
+        case "warmup" -> warmup = parseDuration(value);
+        case "timeout" -> timeout = parseDuration(value);
+        case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+        case "wait" -> waitForCommit = Boolean.parseBoolean(value);
+        default -> throw new IllegalArgumentException("Nieznany argument: " + arg);
+      }
+    }
+
+    return new LoadGenConfig(targets, mode, rate, concurrency, duration, warmup, timeout,
+        maxInFlight, waitForCommit);
+  }
+
+  /**
+   * Odczytuje liste serwerow host:port rozdzielona przecinkami.
+   */
+  private static List<String> parseTargets(String value) {
+    List<String> list = new ArrayList<>();
+    for (String t : Arrays.asList(value.split(","))) {
+      String trimmed = t.trim();
+      if (!trimmed.isEmpty()) {
+        list.add(trimmed.startsWith("http") ? trimmed : "http://" + trimmed);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Odczytuje czas w postaci 500ms, 30s lub samej liczby sekund.
+   */
+  static Duration parseDuration(String value) {
+    if (value.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+    }
+    if (value.endsWith("s")) {
+      return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+    }
+    return Duration.ofSeconds(Long.parseLong(value));
+  }
+}
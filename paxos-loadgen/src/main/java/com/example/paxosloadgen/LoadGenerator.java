@@ -0,0 +1,194 @@
+package com.example.paxosloadgen;
+
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Generator obciazenia dla /client_propose.
+ *
+ * <p>W trybie OPEN zadania wychodza w stalym tempie, niezaleznie od odpowiedzi (z limitem
+ * zadan w locie). W trybie CLOSED staly zbior klientow wysyla kolejne zadanie po odpowiedzi na
+ * poprzednie, opcjonalnie z ograniczeniem tempa. W obu trybach kazde zadanie ma planowana chwile
+ * wyslania, a opoznienie liczone od niej jest skorygowane o coordinated omission.
+ */
+public class LoadGenerator {
+
+  private static final String USAGE = """
+      Uzycie: java -jar paxos-loadgen.jar [--nazwa=wartosc ...]
+        --targets=localhost:8000,localhost:8001  serwery klastra
+        --mode=open|closed                       tempo stale lub zamknieta petla (closed)
+        --rate=500                               zadania/s (wymagane dla open)
+        --concurrency=8                          liczba klientow dla closed
+        --duration=30s --warmup=5s               czas pomiaru i rozgrzewki
+        --timeout=2s                             timeout zadania
+        --max-in-flight=1024                     limit zadan w locie dla open
+        --wait=true                              czekaj na zatwierdzenie wartosci
+      """;
+
+  private final LoadGenConfig config;
+  private final ProposeClient client;
+  private final PrintStream out;
+  private final AtomicInteger values = new AtomicInteger();
+
+  /**
+   * Tworzy generator.
+   *
+   * @param config parametry generatora
+   * @param client klient /client_propose
+   * @param out    strumien, na ktory wypisywany jest postep co sekunde
+   */
+  public LoadGenerator(LoadGenConfig config, ProposeClient client, PrintStream out) {
+    this.config = config;
+    this.client = client;
+    this.out = out;
+  }
+
+  /**
+   * Uruchamia generator z linii polecen.
+   *
+   * @param args parametry w postaci --nazwa=wartosc
+   * @throws InterruptedException jesli watek zostal przerwany
+   */
+  public static void main(String[] args) throws InterruptedException {
+    LoadGenConfig config;
+    try {
+      config = LoadGenConfig.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.print(USAGE);
+      System.exit(2);
+      return;
+    }
+
+    ProposeClient client = new ProposeClient(config.targets(), config.timeout(),
+        config.waitForCommit());
+    new LoadGenerator(config, client, System.out).run().print(System.out);
+  }
+
+  /**
+   * Wykonuje pomiar.
+   *
+   * @return raport z pomiaru
+   * @throws InterruptedException jesli watek zostal przerwany
+   */
+  public LoadReport run() throws InterruptedException {
+    LoadStats stats = new LoadStats();
+    long start = System.nanoTime();
+    long warmupEnd = start + config.warmup().toNanos();
+    long end = warmupEnd + config.duration().toNanos();
+
+    ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+    reporter.scheduleAtFixedRate(() -> progress(stats, start, warmupEnd),
+        1, 1, TimeUnit.SECONDS);
+
+    try {
+      if (config.mode() == LoadGenConfig.Mode.OPEN) {
+        runOpen(stats, start, warmupEnd, end);
+      } else {
+        runClosed(stats, start, warmupEnd, end);
+      }
+    } finally {
+      reporter.shutdownNow();
+    }
+
+    return stats.report(config, client.redirects());
+  }
+
+  /**
+   * Petla otwarta: i-te zadanie ma zaplanowana chwile start + i * odstep. Jesli limit zadan w
+   * locie zatrzyma wysylanie, opoznienie nadal jest liczone od planowanej chwili.
+   */
+  private void runOpen(LoadStats stats, long start, long warmupEnd, long end)
+      throws InterruptedException {
+    long interval = TimeUnit.SECONDS.toNanos(1) / config.rate();
+    Semaphore inFlight = new Semaphore(config.maxInFlight());
+
+    for (long i = 0; ; i++) {
+      long intended = start + i * interval;
+      if (intended >= end) {
+        break;
+      }
+      parkUntil(intended);
+      inFlight.acquire();
+
+      long sent = System.nanoTime();
+      client.propose(values.incrementAndGet()).thenAccept(outcome -> {
+        long now = System.nanoTime();
+        if (intended >= warmupEnd) {
+          stats.record(outcome, now - intended, now - sent);
+        }
+        inFlight.release();
+      });
+    }
+
+    inFlight.tryAcquire(config.maxInFlight(), config.timeout().toMillis() * 2,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Petla zamknieta: kazdy klient czeka na odpowiedz przed kolejnym zadaniem. Przy zadanym
+   * tempie klient ma wlasny harmonogram wysylek; bez tempa chwila planowana jest chwila wyslania.
+   */
+  private void runClosed(LoadStats stats, long start, long warmupEnd, long end)
+      throws InterruptedException {
+    int clients = config.concurrency();
+    long interval = config.rate() > 0
+        ? TimeUnit.SECONDS.toNanos(1) * clients / config.rate()
+        : 0;
+
+    ExecutorService workers = Executors.newFixedThreadPool(clients);
+    for (int c = 0; c < clients; c++) {
+      long offset = interval * c / clients;
+      workers.submit(() -> {
+        long intended = start + offset;
+        while (!Thread.currentThread().isInterrupted()) {
+          if (interval > 0) {
+            parkUntil(intended);
+          } else {
+            intended = System.nanoTime();
+          }
+          if (intended >= end) {
+            return;
+          }
+
+          long sent = System.nanoTime();
+          Outcome outcome = client.propose(values.incrementAndGet()).join();
+          long now = System.nanoTime();
+          if (intended >= warmupEnd) {
+            stats.record(outcome, now - intended, now - sent);
+          }
+          intended += interval;
+        }
+      });
+    }
+
+    workers.shutdown();
+    long waitNanos = end - System.nanoTime() + config.timeout().toNanos() * 2;
+    if (!workers.awaitTermination(Math.max(0, waitNanos), TimeUnit.NANOSECONDS)) {
+      workers.shutdownNow();
+    }
+  }
+
+  private void progress(LoadStats stats, long start, long warmupEnd) {
+    Histogram h = stats.interval();
+    long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+    out.printf("[%4ds]%s ok=%d/s p50=%.2fms p99=%.2fms max=%.2fms%n", elapsed,
+        System.nanoTime() < warmupEnd ? " rozgrzewka" : "", h.getTotalCount(),
+        h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+        h.getMaxValue() / 1000.0);
+  }
+
+  private static void parkUntil(long deadline) {
+    long now;
+    while ((now = System.nanoTime()) < deadline) {
+      LockSupport.parkNanos(deadline - now);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.example.paxosloadgen;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Wynik pomiaru: przepustowosc, liczba zadan wedlug wyniku oraz percentyle opoznien.
+ *
+ * @param mode        tryb generowania obciazenia
+ * @param duration    czas pomiaru (bez rozgrzewki)
+ * @param outcomes    liczba zadan wedlug wyniku
+ * @param redirects   liczba przekierowan NOT_LEADER w calym przebiegu
+ * @param corrected   opoznienia od planowanego wyslania, w mikrosekundach
+ * @param uncorrected czas obslugi od faktycznego wyslania, w mikrosekundach
+ */
+public record LoadReport(LoadGenConfig.Mode mode, Duration duration, Map<Outcome, Long> outcomes,
+                         long redirects, Histogram corrected, Histogram uncorrected) {
+
+  private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+  /**
+   * Zwraca liczbe przyjetych propozycji na sekunde.
+   *
+   * @return przepustowosc
+   */
+  public double throughput() {
+    return outcomes.getOrDefault(Outcome.OK, 0L) / (duration.toMillis() / 1000.0);
+  }
+
+  /**
+   * Wypisuje raport.
+   *
+   * @param out strumien wyjsciowy
+   */
+  public void print(PrintStream out) {
+    out.printf("%nTryb: %s, czas pomiaru: %ds%n", mode, duration.toSeconds());
+    out.printf("Przepustowosc: %.1f propozycji/s%n", throughput());
+    out.printf("Wyniki: %s, przekierowania NOT_LEADER: %d%n", outcomes, redirects);
+    out.printf("%n%10s %14s %14s%n", "percentyl", "skorygowane", "czas obslugi");
+    for (double p : PERCENTILES) {
+      out.printf("%10s %11.3f ms %11.3f ms%n", p,
+          corrected.getValueAtPercentile(p) / 1000.0,
+          uncorrected.getValueAtPercentile(p) / 1000.0);
+    }
+    out.printf("%10s %11.3f ms %11.3f ms%n", "max",
+        corrected.getMaxValue() / 1000.0, uncorrected.getMaxValue() / 1000.0);
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.paxosloadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Zbiera wyniki zadan. Dla kazdego przyjetego zadania zapisywane sa dwa opoznienia:
+ * skorygowane, liczone od planowanej chwili wyslania, oraz czas obslugi, liczony od faktycznego
+ * wyslania. Roznica miedzy nimi pokazuje coordinated omission: gdy serwer zwalnia, generator
+ * wysyla pozniej niz planowal, a sam czas obslugi ten przestoj ukrywa.
+ */
+final class LoadStats {
+
+  private static final int DIGITS = 3;
+
+  private final Recorder corrected = new Recorder(DIGITS);
+  private final Recorder uncorrected = new Recorder(DIGITS);
+  private final Histogram correctedTotal = new Histogram(DIGITS);
+  private final Histogram uncorrectedTotal = new Histogram(DIGITS);
+  private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+  private Histogram correctedInterval;
+  private Histogram uncorrectedInterval;
+
+  LoadStats() {
+    for (Outcome o : Outcome.values()) {
+      outcomes.put(o, new LongAdder());
+    }
+  }
+
+  /**
+   * Zapisuje wynik zadania.
+   *
+   * @param outcome          wynik
+   * @param correctedNanos   czas od planowanego wyslania do odpowiedzi
+   * @param uncorrectedNanos czas od faktycznego wyslania do odpowiedzi
+   */
+  void record(Outcome outcome, long correctedNanos, long uncorrectedNanos) {
+    outcomes.get(outcome).increment();
+    if (outcome == Outcome.OK) {
+      corrected.recordValue(TimeUnit.NANOSECONDS.toMicros(correctedNanos));
+      uncorrected.recordValue(TimeUnit.NANOSECONDS.toMicros(uncorrectedNanos));
+    }
+  }
+
+  /**
+   * Zwraca histogram skorygowanych opoznien od poprzedniego wywolania i dolicza go do sumy.
+   *
+   * @return histogram opoznien w mikrosekundach z ostatniego przedzialu
+   */
+  synchronized Histogram interval() {
+    correctedInterval = corrected.getIntervalHistogram(correctedInterval);
+    uncorrectedInterval = uncorrected.getIntervalHistogram(uncorrectedInterval);
+    correctedTotal.add(correctedInterval);
+    uncorrectedTotal.add(uncorrectedInterval);
+    return correctedInterval;
+  }
+
+  /**
+   * Zamyka pomiar i tworzy raport.
+   *
+   * @param config    parametry generatora
+   * @param redirects liczba przekierowan NOT_LEADER
+   * @return raport
+   */
+  synchronized LoadReport report(LoadGenConfig config, long redirects) {
+    interval();
+    Map<Outcome, Long> counts = new EnumMap<>(Outcome.class);
+    outcomes.forEach((o, n) -> counts.put(o, n.sum()));
+    return new LoadReport(config.mode(), config.duration(), counts, redirects,
+        correctedTotal.copy(), uncorrectedTotal.copy());
+  }
+}
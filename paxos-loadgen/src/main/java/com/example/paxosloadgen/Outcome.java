@@ -0,0 +1,27 @@
+package com.example.paxosloadgen;
+
+/**
+ * Wynik pojedynczego zadania /client_propose.
+ */
+public enum Outcome {
+  /**
+   * Lider przyjal propozycje.
+   */
+  OK,
+  /**
+   * Runda nie zatwierdzila wartosci albo nie zdazyla przed timeoutem serwera (tylko --wait).
+   */
+  NOT_COMMITTED,
+  /**
+   * Wyczerpano limit przekierowan NOT_LEADER albo zaden serwer nie zna lidera.
+   */
+  NOT_LEADER,
+  /**
+   * Serwer odpowiedzial, ale nie przyjal propozycji (np. jest zaciety albo przeciazony - BUSY).
+   */
+  REJECTED,
+  /**
+   * Blad polaczenia, timeout albo odpowiedz HTTP inna niz 200.
+   */
+  ERROR
+}
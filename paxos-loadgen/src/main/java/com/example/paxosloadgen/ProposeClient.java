@@ -0,0 +1,149 @@
+package com.example.paxosloadgen;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Klient endpointu /client_propose. Zapamietuje ostatniego znanego lidera i podaza za
+ * odpowiedziami NOT_LEADER,port. Wszystkie zadania sa asynchroniczne i dziela jedno polaczenie
+ * HttpClient. W trybie wait serwer odpowiada dopiero po zatwierdzeniu wartosci, wiec opoznienie
+ * obejmuje cala runde Paxosa.
+ */
+public class ProposeClient {
+
+  private static final int MAX_REDIRECTS = 3;
+
+  private final HttpClient http;
+  private final List<String> targets;
+  private final Duration timeout;
+  private final boolean wait;
+  private final AtomicInteger nextTarget = new AtomicInteger();
+  private final LongAdder redirects = new LongAdder();
+  private volatile String leader;
+
+  /**
+   * Tworzy klienta.
+   *
+   * @param targets adresy serwerow w postaci http://host:port
+   * @param timeout timeout pojedynczego zadania
+   * @param wait    czy czekac na zatwierdzenie wartosci
+   */
+  public ProposeClient(List<String> targets, Duration timeout, boolean wait) {
+    this.targets = List.copyOf(targets);
+    this.timeout = timeout;
+    this.wait = wait;
+    this.http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(timeout)
+        .build();
+  }
+
+  /**
+   * Wysyla propozycje do lidera, podazajac za przekierowaniami.
+   *
+   * @param value proponowana wartosc
+   * @return wynik zadania; future nigdy nie konczy sie wyjatkiem
+   */
+  public CompletableFuture<Outcome> propose(int value) {
+    String base = leader;
+    return send(base != null ? base : nextTarget(), value, 0)
+        .exceptionally(e -> Outcome.ERROR);
+  }
+
+  /**
+   * Zwraca liczbe wykonanych przekierowan NOT_LEADER.
+   *
+   * @return liczba przekierowan
+   */
+  public long redirects() {
+    return redirects.sum();
+  }
+
+  /**
+   * Zwraca adres ostatnio znanego lidera.
+   *
+   * @return adres lidera lub null
+   */
+  public String leader() {
+    return leader;
+  }
+
+  private CompletableFuture<Outcome> send(String base, int value, int hops) {
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create(base + "/client_propose?value=" + value + (wait ? "&wait=true" : "")))
+        .timeout(timeout)
+        .POST(HttpRequest.BodyPublishers.noBody())
+        .build();
+
+    return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .handle((resp, err) -> {
+          if (err != null || resp.statusCode() != 200) {
+            leader = null;
+            return CompletableFuture.completedFuture(Outcome.ERROR);
+          }
+          return onResponse(base, resp.body(), value, hops);
+        })
+        .thenCompose(f -> f);
+  }
+
+  private CompletableFuture<Outcome> onResponse(String base, String body, int value, int hops) {
+    if (body.startsWith("OK") || body.startsWith("COMMITTED")) {
+      leader = base;
+      return CompletableFuture.completedFuture(Outcome.OK);
+    }
+    if (body.startsWith("FAILED") || body.startsWith("TIMEOUT")) {
+      leader = base;
+      return CompletableFuture.completedFuture(Outcome.NOT_COMMITTED);
+    }
+
+    if (!body.startsWith("NOT_LEADER")) {
+      return CompletableFuture.completedFuture(Outcome.REJECTED);
+    }
+
+    leader = null;
+    if (hops >= MAX_REDIRECTS) {
+      return CompletableFuture.completedFuture(Outcome.NOT_LEADER);
+    }
+
+    redirects.increment();
+    int port = leaderPort(body);
+    String next = port > 0 ? withPort(base, port) : nextTarget();
+    return send(next, value, hops + 1);
+  }
+
+  private String nextTarget() {
+    return targets.get(Math.floorMod(nextTarget.getAndIncrement(), targets.size()));
+  }
+
+  /**
+   * Odczytuje port lidera z odpowiedzi NOT_LEADER,port.
+   *
+   * @return port lidera albo -1, jesli serwer go nie zna
+   */
+  static int leaderPort(String body) {
+    String[] p = body.split(",");
+    if (p.length < 2) {
+      return -1;
+    }
+    try {
+      return Integer.parseInt(p[1].trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Zamienia port w adresie serwera, zachowujac host.
+   */
+  static String withPort(String base, int port) {
+    URI uri = URI.create(base);
+    return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+  }
+}
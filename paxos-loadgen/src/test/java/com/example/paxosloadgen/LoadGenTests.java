@@ -0,0 +1,226 @@
+package com.example.paxosloadgen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Testy generatora obciazenia")
+class LoadGenTests {
+
+  static {
+    // Serwer JDK wysyla naglowki i tresc osobno; bez tego Nagle dokleja ~40 ms do odpowiedzi.
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final List<HttpServer> servers = new ArrayList<>();
+
+  @AfterEach
+  void stopServers() {
+    servers.forEach(s -> s.stop(0));
+  }
+
+  /**
+   * Uruchamia serwer odpowiadajacy na /client_propose. Funkcja dostaje numer zadania (od 1).
+   */
+  private String stub(IntFunction<String> handler) throws IOException {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    AtomicInteger calls = new AtomicInteger();
+    server.createContext("/client_propose", exchange -> {
+      byte[] body = handler.apply(calls.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(body);
+      }
+    });
+    server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+    server.start();
+    servers.add(server);
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Nested
+  @DisplayName("LoadGenConfig")
+  class ConfigTests {
+
+    @Test
+    @DisplayName("Odczytuje parametry z linii polecen")
+    void parsesArguments() {
+      LoadGenConfig config = LoadGenConfig.parse(
+          "--targets=localhost:8000, localhost:8001", "--mode=open", "--rate=250",
+          "--duration=10s", "--warmup=500ms", "--timeout=1", "--max-in-flight=64");
+
+      assertThat(config.targets())
+          .containsExactly("http://localhost:8000", "http://localhost:8001");
+      assertThat(config.mode()).isEqualTo(LoadGenConfig.Mode.OPEN);
+      assertThat(config.rate()).isEqualTo(250);
+      assertThat(config.duration()).isEqualTo(Duration.ofSeconds(10));
+      assertThat(config.warmup()).isEqualTo(Duration.ofMillis(500));
+      assertThat(config.timeout()).isEqualTo(Duration.ofSeconds(1));
+      assertThat(config.maxInFlight()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("Domyslnie zamknieta petla bez ograniczenia tempa")
+    void defaults() {
+      LoadGenConfig config = LoadGenConfig.parse();
+
+      assertThat(config.mode()).isEqualTo(LoadGenConfig.Mode.CLOSED);
+      assertThat(config.rate()).isZero();
+      assertThat(config.concurrency()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Tryb open bez tempa i nieznany argument sa bledem")
+    void invalidArguments() {
+      assertThatThrownBy(() -> LoadGenConfig.parse("--mode=open"))
+          .isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> LoadGenConfig.parse("--foo=1"))
+          .isInstanceOf(IllegalArgumentException.class);
+      assertThatThrownBy(() -> LoadGenConfig.parse("rate"))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Nested
+  @DisplayName("ProposeClient")
+  class ClientTests {
+
+    @Test
+    @DisplayName("Podaza za NOT_LEADER i zapamietuje lidera")
+    void followsRedirectAndCachesLeader() throws Exception {
+      String leader = stub(n -> "OK: proposal started by leader");
+      int leaderPort = Integer.parseInt(leader.substring(leader.lastIndexOf(':') + 1));
+      AtomicInteger followerCalls = new AtomicInteger();
+      String follower = stub(n -> {
+        followerCalls.incrementAndGet();
+        return "NOT_LEADER," + leaderPort;
+      });
+
+      ProposeClient client = new ProposeClient(List.of(follower), Duration.ofSeconds(1), false);
+
+      assertThat(client.propose(1).get()).isEqualTo(Outcome.OK);
+      assertThat(client.propose(2).get()).isEqualTo(Outcome.OK);
+      assertThat(client.redirects()).isEqualTo(1);
+      assertThat(client.leader()).isEqualTo(leader);
+      assertThat(followerCalls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Tryb wait rozroznia zatwierdzenie i brak zatwierdzenia")
+    void waitForCommit() throws Exception {
+      String node = stub(n -> n == 1 ? "COMMITTED,5" : "TIMEOUT");
+
+      ProposeClient client = new ProposeClient(List.of(node), Duration.ofSeconds(1), true);
+
+      assertThat(client.propose(5).get()).isEqualTo(Outcome.OK);
+      assertThat(client.propose(6).get()).isEqualTo(Outcome.NOT_COMMITTED);
+    }
+
+    @Test
+    @DisplayName("Petla przekierowan konczy sie wynikiem NOT_LEADER")
+    void redirectLoop() throws Exception {
+      String node = stub(n -> "NOT_LEADER,-1");
+
+      ProposeClient client = new ProposeClient(List.of(node), Duration.ofSeconds(1), false);
+
+      assertThat(client.propose(1).get()).isEqualTo(Outcome.NOT_LEADER);
+    }
+
+    @Test
+    @DisplayName("Zaciety serwer i brak polaczenia")
+    void rejectedAndError() throws Exception {
+      String stuck = stub(n -> "STUCK");
+
+      Duration timeout = Duration.ofSeconds(1);
+
+      assertThat(new ProposeClient(List.of(stuck), timeout, false).propose(1).get())
+          .isEqualTo(Outcome.REJECTED);
+      assertThat(new ProposeClient(List.of("http://localhost:1"), timeout, false).propose(1).get())
+          .isEqualTo(Outcome.ERROR);
+    }
+  }
+
+  @Nested
+  @DisplayName("LoadGenerator")
+  class GeneratorTests {
+
+    private LoadReport run(String target, String... args) throws InterruptedException {
+      List<String> all = new ArrayList<>(List.of(args));
+      all.add("--targets=" + target);
+      LoadGenConfig config = LoadGenConfig.parse(all.toArray(String[]::new));
+      PrintStream quiet = new PrintStream(new ByteArrayOutputStream());
+      ProposeClient client =
+          new ProposeClient(config.targets(), config.timeout(), config.waitForCommit());
+      return new LoadGenerator(config, client, quiet).run();
+    }
+
+    @Test
+    @DisplayName("Petla otwarta utrzymuje zadane tempo")
+    void openLoopRate() throws Exception {
+      String target = stub(n -> "OK");
+
+      LoadReport report = run(target, "--mode=open", "--rate=200", "--duration=1s",
+          "--warmup=200ms");
+
+      assertThat(report.outcomes().get(Outcome.OK)).isBetween(180L, 201L);
+      assertThat(report.corrected().getTotalCount()).isEqualTo(report.outcomes().get(Outcome.OK));
+    }
+
+    @Test
+    @DisplayName("Petla zamknieta z N klientami")
+    void closedLoop() throws Exception {
+      String target = stub(n -> {
+        sleep(10);
+        return "OK";
+      });
+
+      LoadReport report = run(target, "--mode=closed", "--concurrency=4", "--duration=1s",
+          "--warmup=0s");
+
+      assertThat(report.outcomes().get(Outcome.OK)).isBetween(100L, 400L);
+      assertThat(report.corrected().getValueAtPercentile(50))
+          .isEqualTo(report.uncorrected().getValueAtPercentile(50));
+    }
+
+    @Test
+    @DisplayName("Przestoj serwera jest widoczny w opoznieniach skorygowanych")
+    void coordinatedOmissionCorrection() throws Exception {
+      String target = stub(n -> {
+        if (n == 20) {
+          sleep(500);
+        }
+        return "OK";
+      });
+
+      LoadReport report = run(target, "--mode=closed", "--concurrency=1", "--rate=100",
+          "--duration=1s", "--warmup=0s");
+
+      assertThat(report.uncorrected().getValueAtPercentile(90)).isLessThan(100_000);
+      assertThat(report.corrected().getValueAtPercentile(90)).isGreaterThan(100_000);
+    }
+  }
+}